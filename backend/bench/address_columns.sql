@@ -0,0 +1,74 @@
+-- Compares index size and point-lookup latency of text vs binary address columns on 10M synthetic rows.
+-- Run against a scratch database: psql -d stellarep_bench -f bench/address_columns.sql
+-- The generated keys are random-looking but are not valid strkeys; only the widths matter here.
+--
+-- Results on PostgreSQL 16.2, 1 vCPU, 5 GB RAM, shared_buffers=1GB, after VACUUM ANALYZE:
+--                                  text (before)   binary (after)
+--   stellar_address unique index   1073 MB         731 MB
+--   redundant stellar_address idx  825 MB          (dropped)
+--   ethereum_address index         647 MB          387 MB
+--   all indexes                    2759 MB         1332 MB
+--   heap                           1347 MB         965 MB
+--   10,000 lookups, first run      175 ms          151 ms
+--   10,000 lookups, warm (2 runs)  95 / 91 ms      82 / 77 ms
+-- Both lookup plans are index-only scans with no heap fetches. The timings include generating each
+-- key with md5(), which costs about the same in both layouts.
+
+\timing on
+
+DROP TABLE IF EXISTS bench_scores_text;
+DROP TABLE IF EXISTS bench_scores_binary;
+
+CREATE TABLE bench_scores_text (
+    id BIGSERIAL PRIMARY KEY,
+    stellar_address VARCHAR(56) NOT NULL UNIQUE,
+    ethereum_address VARCHAR(42),
+    score INTEGER NOT NULL
+);
+
+CREATE TABLE bench_scores_binary (
+    id BIGSERIAL PRIMARY KEY,
+    stellar_address BYTEA NOT NULL UNIQUE,
+    ethereum_address BYTEA,
+    score INTEGER NOT NULL
+);
+
+INSERT INTO bench_scores_text (stellar_address, ethereum_address, score)
+SELECT 'G' || upper(left(md5(i::TEXT) || md5(i::TEXT || 's'), 55)),
+       '0x' || left(md5(i::TEXT || 'e') || md5(i::TEXT || 'f'), 40),
+       (i % 1000)
+FROM generate_series(1, 10000000) AS i;
+
+INSERT INTO bench_scores_binary (stellar_address, ethereum_address, score)
+SELECT decode(md5(i::TEXT) || md5(i::TEXT || 's'), 'hex'),
+       decode(left(md5(i::TEXT || 'e') || md5(i::TEXT || 'f'), 40), 'hex'),
+       (i % 1000)
+FROM generate_series(1, 10000000) AS i;
+
+-- The old schema also carried a second, redundant B-tree on stellar_address.
+CREATE INDEX bench_idx_stellar_address_text ON bench_scores_text(stellar_address);
+CREATE INDEX bench_idx_ethereum_address_text ON bench_scores_text(ethereum_address);
+CREATE INDEX bench_idx_ethereum_address_binary ON bench_scores_binary(ethereum_address);
+
+VACUUM ANALYZE bench_scores_text;
+VACUUM ANALYZE bench_scores_binary;
+
+SELECT relname AS relation, pg_size_pretty(pg_relation_size(oid)) AS size
+FROM pg_class
+WHERE relname LIKE 'bench_%' OR relname LIKE 'bench_scores_%_key'
+ORDER BY relname;
+
+SELECT 'text' AS layout, pg_size_pretty(pg_indexes_size('bench_scores_text')) AS all_indexes
+UNION ALL
+SELECT 'binary', pg_size_pretty(pg_indexes_size('bench_scores_binary'));
+
+-- Point lookups: 10,000 existing keys spread across the table, timed as a whole.
+EXPLAIN (ANALYZE, BUFFERS, TIMING OFF)
+SELECT count(*)
+FROM (SELECT (g::BIGINT * 999331) % 10000000 + 1 AS i FROM generate_series(1, 10000) AS g) r
+JOIN bench_scores_text t ON t.stellar_address = 'G' || upper(left(md5(r.i::TEXT) || md5(r.i::TEXT || 's'), 55));
+
+EXPLAIN (ANALYZE, BUFFERS, TIMING OFF)
+SELECT count(*)
+FROM (SELECT (g::BIGINT * 999331) % 10000000 + 1 AS i FROM generate_series(1, 10000) AS g) r
+JOIN bench_scores_binary b ON b.stellar_address = decode(md5(r.i::TEXT) || md5(r.i::TEXT || 's'), 'hex');
@@ -0,0 +1,44 @@
+#!/bin/sh
+# Compares startup of the regular jar with the faststart layout (AOT + AppCDS + lazy init).
+# Reports time from launch to the first 200 from GET /api/reputation/{address} and the RSS at that point.
+# Build first with: mvn -Pfaststart package
+# Usage: BENCH_ADDRESS=G... bench/startup.sh [runs]
+# BENCH_ADDRESS must already have a stored score. Linux only (reads /proc); needs the database from docker-compose.
+set -e
+cd "$(dirname "$0")/.."
+
+RUNS=${1:-5}
+PORT=${BENCH_PORT:-18080}
+ADDRESS=${BENCH_ADDRESS:?set BENCH_ADDRESS to a scored Stellar address}
+FAT_JAR=target/stellarep-backend-1.0.0.jar
+URL="http://localhost:$PORT/api/reputation/$ADDRESS"
+
+now_ms() {
+    date +%s%3N
+}
+
+measure() {
+    mode=$1
+    shift
+    start=$(now_ms)
+    "$@" --server.port="$PORT" > "target/bench-$mode.log" 2>&1 &
+    pid=$!
+    until [ "$(curl -s -o /dev/null -w '%{http_code}' "$URL")" = "200" ]; do
+        if ! kill -0 "$pid" 2> /dev/null; then
+            echo "$mode: application exited, see target/bench-$mode.log" >&2
+            exit 1
+        fi
+        sleep 0.05
+    done
+    elapsed=$(($(now_ms) - start))
+    rss=$(awk '/VmRSS/ { print $2 }' "/proc/$pid/status")
+    kill "$pid"
+    wait "$pid" 2> /dev/null || true
+    echo "$mode first_200_ms=$elapsed rss_kb=$rss"
+}
+
+for run in $(seq "$RUNS"); do
+    measure default java -jar "$FAT_JAR"
+    measure faststart sh -c "cd target/faststart && exec java -XX:SharedArchiveFile=app.jsa -Dspring.aot.enabled=true \
+        -jar stellarep-backend.jar --spring.profiles.active=faststart \"\$@\"" faststart
+done
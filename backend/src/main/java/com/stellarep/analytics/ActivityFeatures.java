@@ -0,0 +1,19 @@
+package com.stellarep.analytics;
+
+/**
+ * Features read off a wallet's {@link WalletActivitySketch}. Payment amounts are native XLM only.
+ * {@code caughtUp} is false when the sketch has not yet seen the wallet's full history, in which case
+ * the features are those of the history read so far.
+ */
+public record ActivityFeatures(
+        long uniqueCounterparties,
+        double medianPaymentXlm,
+        double p90PaymentXlm,
+        double paymentVolumeXlm,
+        int activeDays,
+        int recentActiveDays,
+        long operationCount,
+        boolean caughtUp) {
+
+    public static final ActivityFeatures NONE = new ActivityFeatures(0, 0.0, 0.0, 0.0, 0, 0, 0, true);
+}
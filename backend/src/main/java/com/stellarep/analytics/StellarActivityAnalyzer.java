@@ -0,0 +1,270 @@
+package com.stellarep.analytics;
+
+import com.stellarep.exception.DeadlineExceededException;
+import com.stellarep.exception.UpstreamBusyException;
+import com.stellarep.exception.UpstreamUnavailableException;
+import com.stellarep.service.HorizonEndpointPool;
+import com.stellarep.upstream.Deadline;
+import com.stellarep.util.AddressCodec;
+import com.stellarep.workload.WorkloadContext;
+import com.stellarep.workload.WorkloadLane;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.stellar.sdk.AssetTypeNative;
+import org.stellar.sdk.requests.PaymentsRequestBuilder;
+import org.stellar.sdk.requests.RequestBuilder;
+import org.stellar.sdk.responses.Page;
+import org.stellar.sdk.responses.operations.AccountMergeOperationResponse;
+import org.stellar.sdk.responses.operations.CreateAccountOperationResponse;
+import org.stellar.sdk.responses.operations.OperationResponse;
+import org.stellar.sdk.responses.operations.PathPaymentBaseOperationResponse;
+import org.stellar.sdk.responses.operations.PaymentOperationResponse;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Streams a wallet's payment operations from Horizon in ascending order and folds them into its
+ * stored {@link WalletActivitySketch}, starting from the sketch's cursor. An interactive analysis
+ * reads at most {@code interactive-max-pages} pages, batch and background analyses up to
+ * {@code max-pages}; both stop early to leave {@code reserve-ms} of the deadline. Whatever history is
+ * left is read by a catch-up in the batch lane that resubmits itself, {@code max-pages} at a time,
+ * until it reaches the end of the history or stops making progress. Meanwhile the features of the
+ * sketch read so far are returned, marked as not caught up.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StellarActivityAnalyzer {
+
+    @Value("${stellar.activity.enabled:true}")
+    private boolean enabled;
+
+    @Value("${stellar.activity.page-size:200}")
+    private int pageSize;
+
+    @Value("${stellar.activity.max-pages:25}")
+    private int maxPages;
+
+    @Value("${stellar.activity.interactive-max-pages:1}")
+    private int interactiveMaxPages;
+
+    @Value("${stellar.activity.catch-up-timeout-ms:60000}")
+    private long catchUpTimeoutMs;
+
+    @Value("${stellar.activity.reserve-ms:1000}")
+    private long reserveMs;
+
+    @Value("${stellar.activity.recent-window-days:90}")
+    private int recentWindowDays;
+
+    @Value("${stellar.activity.hll-lg-k:12}")
+    private int hllLgK;
+
+    @Value("${stellar.activity.kll-k:200}")
+    private int kllK;
+
+    private final HorizonEndpointPool horizonEndpointPool;
+    private final WalletSketchRepository walletSketchRepository;
+    private final MeterRegistry meterRegistry;
+    private final ExecutorService analysisExecutor;
+
+    private final Set<String> scanning = ConcurrentHashMap.newKeySet();
+    private Counter operationsFolded;
+    private Counter pagesRead;
+    private Counter catchUps;
+
+    @PostConstruct
+    void init() {
+        operationsFolded = meterRegistry.counter("stellar.activity.operations");
+        pagesRead = meterRegistry.counter("stellar.activity.pages");
+        catchUps = meterRegistry.counter("stellar.activity.catchups");
+    }
+
+    public ActivityFeatures analyze(String stellarAddress, Deadline deadline) {
+        if (!enabled || !AddressCodec.isStellarAccountId(stellarAddress)) {
+            return ActivityFeatures.NONE;
+        }
+        boolean interactive = WorkloadContext.current() == WorkloadLane.INTERACTIVE;
+        WalletActivitySketch sketch = loadSketch(stellarAddress);
+        if (sketch == null) {
+            throw new UpstreamUnavailableException("Could not load activity sketch for " + stellarAddress);
+        }
+        boolean caughtUp = false;
+        if (scanning.add(stellarAddress)) {
+            try {
+                caughtUp = scan(stellarAddress, sketch, interactive ? interactiveMaxPages : maxPages, deadline)
+                        == ScanOutcome.CAUGHT_UP;
+            } finally {
+                scanning.remove(stellarAddress);
+            }
+            if (!caughtUp) {
+                catchUpInBackground(stellarAddress);
+            }
+        } else {
+            log.debug("Activity sketch for {} is being caught up elsewhere", stellarAddress);
+        }
+        return sketch.features(LocalDate.now(ZoneOffset.UTC).toEpochDay(), recentWindowDays, caughtUp);
+    }
+
+    private WalletActivitySketch loadSketch(String stellarAddress) {
+        try {
+            return walletSketchRepository.find(stellarAddress)
+                    .orElseGet(() -> WalletActivitySketch.create(hllLgK, kllK));
+        } catch (Exception e) {
+            log.warn("Could not load activity sketch for {}: {}", stellarAddress, e.getMessage());
+            return null;
+        }
+    }
+
+    private enum ScanOutcome {
+        /** The last page read was the end of the wallet's history. */
+        CAUGHT_UP,
+        /** More history is left and the operations read so far were saved. */
+        ADVANCED,
+        /** Nothing new was saved. */
+        STALLED
+    }
+
+    /** Folds up to {@code pageLimit} pages into {@code sketch} and saves it. */
+    private ScanOutcome scan(String stellarAddress, WalletActivitySketch sketch, int pageLimit, Deadline deadline) {
+        long operationsBefore = sketch.getOperationCount();
+        boolean caughtUp = false;
+        try {
+            for (int pages = 0; pages < pageLimit && deadline.remainingMillis() > reserveMs; pages++) {
+                Page<OperationResponse> page = fetchPage(stellarAddress, sketch.getCursor(), deadline);
+                pagesRead.increment();
+                if (page == null || page.getRecords() == null) {
+                    caughtUp = true;
+                    break;
+                }
+                for (OperationResponse operation : page.getRecords()) {
+                    fold(sketch, stellarAddress, operation);
+                }
+                if (page.getRecords().size() < pageSize) {
+                    caughtUp = true;
+                    break;
+                }
+            }
+        } catch (UpstreamBusyException | DeadlineExceededException e) {
+            log.debug("Activity scan for {} stopped early: {}", stellarAddress, e.getMessage());
+        } catch (Exception e) {
+            log.warn("Error streaming operations for {}: {}", stellarAddress, e.getMessage());
+        }
+
+        long folded = sketch.getOperationCount() - operationsBefore;
+        boolean saved = false;
+        if (folded > 0) {
+            operationsFolded.increment(folded);
+            try {
+                walletSketchRepository.save(stellarAddress, sketch);
+                saved = true;
+            } catch (Exception e) {
+                log.warn("Could not save activity sketch for {}: {}", stellarAddress, e.getMessage());
+                return ScanOutcome.STALLED;
+            }
+        }
+        if (caughtUp) {
+            return ScanOutcome.CAUGHT_UP;
+        }
+        log.debug("Activity sketch for {} is behind after {} operations, will resume from cursor {}",
+                stellarAddress, sketch.getOperationCount(), sketch.getCursor());
+        return saved ? ScanOutcome.ADVANCED : ScanOutcome.STALLED;
+    }
+
+    private void catchUpInBackground(String stellarAddress) {
+        if (scanning.add(stellarAddress)) {
+            submitCatchUp(stellarAddress);
+        }
+    }
+
+    /**
+     * Queues one {@code max-pages} step of a catch-up, which holds {@code stellarAddress} in
+     * {@link #scanning} until it ends. A step that saved progress but did not reach the end queues the
+     * next one, so other batch work interleaves with a long history; a step that saved nothing ends
+     * the catch-up, and the next analysis of the wallet starts a new one.
+     */
+    private void submitCatchUp(String stellarAddress) {
+        try {
+            WorkloadContext.runIn(WorkloadLane.BATCH, () -> analysisExecutor.execute(() -> {
+                boolean more = false;
+                try {
+                    WalletActivitySketch sketch = loadSketch(stellarAddress);
+                    if (sketch != null) {
+                        catchUps.increment();
+                        more = scan(stellarAddress, sketch, maxPages, Deadline.afterMillis(catchUpTimeoutMs))
+                                == ScanOutcome.ADVANCED;
+                    }
+                } finally {
+                    if (more) {
+                        submitCatchUp(stellarAddress);
+                    } else {
+                        scanning.remove(stellarAddress);
+                    }
+                }
+            }));
+        } catch (RejectedExecutionException e) {
+            scanning.remove(stellarAddress);
+        }
+    }
+
+    private Page<OperationResponse> fetchPage(String address, String cursor, Deadline deadline) {
+        return horizonEndpointPool.execute(server -> {
+            PaymentsRequestBuilder request = server.payments()
+                    .forAccount(address)
+                    .order(RequestBuilder.Order.ASC)
+                    .limit(pageSize);
+            if (cursor != null) {
+                request.cursor(cursor);
+            }
+            return request.execute();
+        }, deadline);
+    }
+
+    private static void fold(WalletActivitySketch sketch, String address, OperationResponse operation) {
+        long epochDay = LocalDate.ofInstant(Instant.parse(operation.getCreatedAt()), ZoneOffset.UTC).toEpochDay();
+        sketch.recordOperation(operation.getPagingToken(), epochDay);
+
+        if (operation instanceof PaymentOperationResponse payment) {
+            recordCounterparty(sketch, address, payment.getFrom(), payment.getTo());
+            if (payment.getAsset() instanceof AssetTypeNative) {
+                sketch.recordPayment(parseAmount(payment.getAmount()));
+            }
+        } else if (operation instanceof PathPaymentBaseOperationResponse payment) {
+            recordCounterparty(sketch, address, payment.getFrom(), payment.getTo());
+            if (payment.getAsset() instanceof AssetTypeNative) {
+                sketch.recordPayment(parseAmount(payment.getAmount()));
+            }
+        } else if (operation instanceof CreateAccountOperationResponse createAccount) {
+            recordCounterparty(sketch, address, createAccount.getFunder(), createAccount.getAccount());
+            sketch.recordPayment(parseAmount(createAccount.getStartingBalance()));
+        } else if (operation instanceof AccountMergeOperationResponse merge) {
+            recordCounterparty(sketch, address, merge.getAccount(), merge.getInto());
+        }
+    }
+
+    private static void recordCounterparty(WalletActivitySketch sketch, String address, String from, String to) {
+        String counterparty = address.equals(from) ? to : from;
+        if (counterparty != null && !counterparty.equals(address)) {
+            sketch.recordCounterparty(counterparty);
+        }
+    }
+
+    private static double parseAmount(String amount) {
+        try {
+            return amount != null ? Double.parseDouble(amount) : 0.0;
+        } catch (NumberFormatException e) {
+            return 0.0;
+        }
+    }
+}
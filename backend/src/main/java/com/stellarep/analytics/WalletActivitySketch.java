@@ -0,0 +1,110 @@
+package com.stellarep.analytics;
+
+import org.apache.datasketches.hll.HllSketch;
+import org.apache.datasketches.kll.KllDoublesSketch;
+import org.apache.datasketches.memory.Memory;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Bounded-size summary of a wallet's payment history: a HyperLogLog of counterparties, a KLL
+ * quantile sketch of native payment amounts and a bitmap of active days (days since epoch).
+ * Operations are folded in as they are streamed from Horizon and {@code cursor} is the paging token
+ * of the last one, so the stored sketch is extended by the next analysis instead of rebuilt.
+ */
+public class WalletActivitySketch {
+
+    private final HllSketch counterparties;
+    private final KllDoublesSketch paymentAmounts;
+    private final RoaringBitmap activeDays;
+    private double paymentVolume;
+    private long operationCount;
+    private String cursor;
+
+    private WalletActivitySketch(HllSketch counterparties, KllDoublesSketch paymentAmounts, RoaringBitmap activeDays,
+                                 double paymentVolume, long operationCount, String cursor) {
+        this.counterparties = counterparties;
+        this.paymentAmounts = paymentAmounts;
+        this.activeDays = activeDays;
+        this.paymentVolume = paymentVolume;
+        this.operationCount = operationCount;
+        this.cursor = cursor;
+    }
+
+    public static WalletActivitySketch create(int hllLgK, int kllK) {
+        return new WalletActivitySketch(new HllSketch(hllLgK), KllDoublesSketch.newHeapInstance(kllK),
+                new RoaringBitmap(), 0.0, 0, null);
+    }
+
+    public static WalletActivitySketch deserialize(byte[] counterparties, byte[] paymentAmounts, byte[] activeDays,
+                                                   double paymentVolume, long operationCount, String cursor) {
+        RoaringBitmap days = new RoaringBitmap();
+        try {
+            days.deserialize(ByteBuffer.wrap(activeDays));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new WalletActivitySketch(HllSketch.heapify(counterparties),
+                KllDoublesSketch.heapify(Memory.wrap(paymentAmounts)), days, paymentVolume, operationCount, cursor);
+    }
+
+    public void recordOperation(String pagingToken, long epochDay) {
+        operationCount++;
+        cursor = pagingToken;
+        activeDays.add((int) epochDay);
+    }
+
+    public void recordCounterparty(String address) {
+        counterparties.update(address);
+    }
+
+    public void recordPayment(double amount) {
+        if (amount > 0 && Double.isFinite(amount)) {
+            paymentAmounts.update(amount);
+            paymentVolume += amount;
+        }
+    }
+
+    public ActivityFeatures features(long todayEpochDay, int recentWindowDays, boolean caughtUp) {
+        boolean noPayments = paymentAmounts.isEmpty();
+        return new ActivityFeatures(
+                Math.round(counterparties.getEstimate()),
+                noPayments ? 0.0 : paymentAmounts.getQuantile(0.5),
+                noPayments ? 0.0 : paymentAmounts.getQuantile(0.9),
+                paymentVolume,
+                activeDays.getCardinality(),
+                (int) activeDays.rangeCardinality(todayEpochDay - recentWindowDays + 1, todayEpochDay + 1),
+                operationCount,
+                caughtUp);
+    }
+
+    public byte[] serializeCounterparties() {
+        return counterparties.toCompactByteArray();
+    }
+
+    public byte[] serializePaymentAmounts() {
+        return paymentAmounts.toByteArray();
+    }
+
+    public byte[] serializeActiveDays() {
+        activeDays.runOptimize();
+        ByteBuffer buffer = ByteBuffer.allocate(activeDays.serializedSizeInBytes());
+        activeDays.serialize(buffer);
+        return buffer.array();
+    }
+
+    public double getPaymentVolume() {
+        return paymentVolume;
+    }
+
+    public long getOperationCount() {
+        return operationCount;
+    }
+
+    public String getCursor() {
+        return cursor;
+    }
+}
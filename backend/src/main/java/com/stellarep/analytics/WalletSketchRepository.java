@@ -0,0 +1,65 @@
+package com.stellarep.analytics;
+
+import com.stellarep.util.AddressCodec;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Per-wallet {@link WalletActivitySketch} rows in {@code wallet_sketches}. A save never replaces a
+ * row that has already seen more operations, so concurrent analyses of one wallet cannot move its
+ * cursor backwards.
+ */
+@Repository
+@RequiredArgsConstructor
+public class WalletSketchRepository {
+
+    private static final String FIND_SQL = """
+            SELECT counterparties, payment_amounts, active_days, payment_volume, operation_count, paging_cursor
+            FROM wallet_sketches
+            WHERE stellar_address = ?
+            """;
+
+    private static final String UPSERT_SQL = """
+            INSERT INTO wallet_sketches (stellar_address, counterparties, payment_amounts, active_days,
+                                         payment_volume, operation_count, paging_cursor, updated_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, now())
+            ON CONFLICT (stellar_address) DO UPDATE SET
+                counterparties = EXCLUDED.counterparties,
+                payment_amounts = EXCLUDED.payment_amounts,
+                active_days = EXCLUDED.active_days,
+                payment_volume = EXCLUDED.payment_volume,
+                operation_count = EXCLUDED.operation_count,
+                paging_cursor = EXCLUDED.paging_cursor,
+                updated_at = EXCLUDED.updated_at
+            WHERE wallet_sketches.operation_count < EXCLUDED.operation_count
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public Optional<WalletActivitySketch> find(String stellarAddress) {
+        List<WalletActivitySketch> rows = jdbcTemplate.query(FIND_SQL, (rs, rowNum) -> WalletActivitySketch.deserialize(
+                rs.getBytes("counterparties"),
+                rs.getBytes("payment_amounts"),
+                rs.getBytes("active_days"),
+                rs.getDouble("payment_volume"),
+                rs.getLong("operation_count"),
+                rs.getString("paging_cursor")),
+                (Object) AddressCodec.decodeStellar(stellarAddress));
+        return rows.stream().findFirst();
+    }
+
+    public void save(String stellarAddress, WalletActivitySketch sketch) {
+        jdbcTemplate.update(UPSERT_SQL,
+                AddressCodec.decodeStellar(stellarAddress),
+                sketch.serializeCounterparties(),
+                sketch.serializePaymentAmounts(),
+                sketch.serializeActiveDays(),
+                sketch.getPaymentVolume(),
+                sketch.getOperationCount(),
+                sketch.getCursor());
+    }
+}
@@ -0,0 +1,186 @@
+package com.stellarep.collector;
+
+import com.stellarep.exception.DeadlineExceededException;
+import com.stellarep.exception.UpstreamBusyException;
+import com.stellarep.exception.UpstreamUnavailableException;
+import com.stellarep.profiling.ScoringStageEvent;
+import com.stellarep.upstream.Deadline;
+import com.stellarep.upstream.TokenBucket;
+import com.stellarep.workload.LaneShares;
+import com.stellarep.workload.WorkloadContext;
+import com.stellarep.workload.WorkloadLane;
+import com.stellarep.workload.WorkloadScheduler;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs the collectors for a wallet's linked chains in parallel on the analysis executor, so the
+ * request takes as long as its slowest chain rather than the sum of all chains. A collector that
+ * misses its deadline, whose upstream is unavailable or whose features are incomplete is reported in
+ * {@link CollectionResult#missingChains()}; any other failure is rethrown to the caller. Lower
+ * workload lanes cannot draw a collector's rate quota below the higher lanes' share of its burst.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ChainCollectionOrchestrator {
+
+    private final List<ChainCollector> collectors;
+    private final ExecutorService analysisExecutor;
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+    private final WorkloadScheduler workloadScheduler;
+
+    private final Map<String, RegisteredCollector> collectorsByChain = new LinkedHashMap<>();
+    private LaneShares quotaShares;
+
+    @PostConstruct
+    void init() {
+        quotaShares = new LaneShares("collector-quota",
+                workloadScheduler.weights(WorkloadScheduler.UPSTREAM), null);
+        for (ChainCollector collector : collectors) {
+            String chain = collector.chain();
+            CollectorPolicy policy = resolvePolicy(chain, collector.defaultPolicy());
+            TokenBucket quota = policy.requestsPerSecond() > 0
+                    ? new TokenBucket(policy.requestsPerSecond(), (int) Math.ceil(policy.requestsPerSecond()))
+                    : null;
+            collectorsByChain.put(chain, new RegisteredCollector(collector, policy, quota,
+                    meterRegistry.timer("chain.collector.duration", "chain", chain)));
+            log.info("Registered {} collector with {}", chain, policy);
+        }
+    }
+
+    public CollectionResult collect(Map<String, String> addressesByChain, Deadline deadline) {
+        Map<String, ChainFeatures> features = new LinkedHashMap<>();
+        Map<String, PendingCollection> pending = new LinkedHashMap<>();
+
+        for (Map.Entry<String, String> link : addressesByChain.entrySet()) {
+            String address = link.getValue();
+            if (address == null || address.isBlank()) {
+                continue;
+            }
+            RegisteredCollector collector = collectorsByChain.get(link.getKey());
+            if (collector == null) {
+                log.debug("No collector for chain {}, ignoring linked address", link.getKey());
+                continue;
+            }
+            pending.put(link.getKey(), new PendingCollection(collector, address.trim()));
+        }
+
+        acquireQuotas(pending);
+
+        for (PendingCollection collection : pending.values()) {
+            collection.start(deadline);
+        }
+
+        List<String> missingChains = new ArrayList<>();
+        for (Map.Entry<String, PendingCollection> entry : pending.entrySet()) {
+            ChainFeatures result = entry.getValue().await();
+            if (result == null) {
+                missingChains.add(entry.getKey());
+            } else {
+                features.put(entry.getKey(), result);
+                if (!result.complete()) {
+                    missingChains.add(entry.getKey());
+                }
+            }
+        }
+        return new CollectionResult(features, missingChains);
+    }
+
+    /**
+     * Takes one permit from the quota of every pending chain, or none: if any chain is over its
+     * quota, the permits already taken for the others are returned before failing.
+     */
+    private void acquireQuotas(Map<String, PendingCollection> pending) {
+        WorkloadLane lane = WorkloadContext.current();
+        List<TokenBucket> acquired = new ArrayList<>(pending.size());
+        for (Map.Entry<String, PendingCollection> entry : pending.entrySet()) {
+            TokenBucket quota = entry.getValue().registered.quota();
+            if (quota == null) {
+                continue;
+            }
+            if (!quota.tryAcquire(quotaShares.tokenReserve(lane, quota.getBurst()))) {
+                acquired.forEach(TokenBucket::release);
+                throw new UpstreamBusyException("Request rate limit reached for the " + entry.getKey() + " collector");
+            }
+            acquired.add(quota);
+        }
+    }
+
+    private CollectorPolicy resolvePolicy(String chain, CollectorPolicy defaults) {
+        String prefix = "app.collectors." + chain + ".";
+        return new CollectorPolicy(
+                environment.getProperty(prefix + "latency-budget-ms", Long.class, defaults.latencyBudgetMs()),
+                environment.getProperty(prefix + "requests-per-second", Double.class, defaults.requestsPerSecond()));
+    }
+
+    private record RegisteredCollector(ChainCollector collector, CollectorPolicy policy, TokenBucket quota,
+                                       Timer duration) {
+    }
+
+    private final class PendingCollection {
+        private final RegisteredCollector registered;
+        private final String address;
+        private Deadline deadline;
+        private CompletableFuture<ChainFeatures> future;
+
+        PendingCollection(RegisteredCollector registered, String address) {
+            this.registered = registered;
+            this.address = address;
+        }
+
+        void start(Deadline requestDeadline) {
+            long budgetMs = registered.policy().latencyBudgetMs();
+            deadline = budgetMs > 0 && budgetMs < requestDeadline.remainingMillis()
+                    ? Deadline.afterMillis(budgetMs)
+                    : requestDeadline;
+            String stage = ScoringStageEvent.COLLECT + "." + registered.collector().chain();
+            future = CompletableFuture.supplyAsync(() -> registered.duration().record(() -> {
+                try (ScoringStageEvent event = ScoringStageEvent.begin(stage, address)) {
+                    return registered.collector().collect(address, deadline);
+                }
+            }), analysisExecutor);
+        }
+
+        ChainFeatures await() {
+            String chain = registered.collector().chain();
+            try {
+                return future.get(deadline.remainingMillis(), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                return null;
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof DeadlineExceededException) {
+                    return null;
+                }
+                if (e.getCause() instanceof UpstreamUnavailableException) {
+                    log.warn("No {} data for {}: {}", chain, address, e.getCause().getMessage());
+                    return null;
+                }
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new IllegalStateException("Failed to analyze " + chain, e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+        }
+    }
+}
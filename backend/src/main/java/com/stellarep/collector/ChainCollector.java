@@ -0,0 +1,17 @@
+package com.stellarep.collector;
+
+import com.stellarep.upstream.Deadline;
+
+/**
+ * Source of wallet features for one chain. Collectors are Spring beans; the orchestrator runs each
+ * collector whose {@link #chain()} has an address linked to the wallet, all in parallel. The
+ * default policy can be overridden with {@code app.collectors.<chain>.*}.
+ */
+public interface ChainCollector {
+
+    String chain();
+
+    CollectorPolicy defaultPolicy();
+
+    ChainFeatures collect(String address, Deadline deadline);
+}
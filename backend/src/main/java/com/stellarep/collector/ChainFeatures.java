@@ -0,0 +1,73 @@
+package com.stellarep.collector;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Named numeric features collected for one chain. Names shared across chains are declared here so
+ * that generic scoring weights apply to every chain that reports them. Features that are not
+ * {@code complete} were read from only part of the wallet's data and must not be persisted.
+ * {@code stale} features are complete enough to persist but include some derived from saved state
+ * that is still catching up with the chain.
+ */
+public record ChainFeatures(String chain, Map<String, Double> values, boolean complete, boolean stale) {
+
+    public static final String HAS_HISTORY = "hasHistory";
+    public static final String ACCOUNT_AGE_DAYS = "accountAgeDays";
+    public static final String TRANSACTION_COUNT = "transactionCount";
+    public static final String BALANCE = "balance";
+
+    public static ChainFeatures empty(String chain) {
+        return new ChainFeatures(chain, Map.of(), true, false);
+    }
+
+    public static Builder builder(String chain) {
+        return new Builder(chain);
+    }
+
+    public double get(String name) {
+        return values.getOrDefault(name, 0.0);
+    }
+
+    public long getLong(String name) {
+        return (long) get(name);
+    }
+
+    public boolean getBoolean(String name) {
+        return get(name) != 0.0;
+    }
+
+    public static final class Builder {
+        private final String chain;
+        private final Map<String, Double> values = new LinkedHashMap<>();
+        private boolean complete = true;
+        private boolean stale;
+
+        private Builder(String chain) {
+            this.chain = chain;
+        }
+
+        public Builder put(String name, double value) {
+            values.put(name, value);
+            return this;
+        }
+
+        public Builder put(String name, boolean value) {
+            return put(name, value ? 1.0 : 0.0);
+        }
+
+        public Builder complete(boolean complete) {
+            this.complete = complete;
+            return this;
+        }
+
+        public Builder stale(boolean stale) {
+            this.stale = stale;
+            return this;
+        }
+
+        public ChainFeatures build() {
+            return new ChainFeatures(chain, Map.copyOf(values), complete, stale);
+        }
+    }
+}
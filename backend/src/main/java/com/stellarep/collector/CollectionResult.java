@@ -0,0 +1,27 @@
+package com.stellarep.collector;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Features per chain for one wallet, plus the linked chains whose collectors ran out of time, found
+ * their upstream unavailable or returned incomplete features.
+ */
+public record CollectionResult(Map<String, ChainFeatures> features, List<String> missingChains) {
+
+    public ChainFeatures get(String chain) {
+        return features.getOrDefault(chain, ChainFeatures.empty(chain));
+    }
+
+    public boolean isDegraded() {
+        return !missingChains.isEmpty();
+    }
+
+    /** Returns the chains whose features are {@link ChainFeatures#stale() stale}. */
+    public List<String> staleChains() {
+        return features.values().stream()
+                .filter(ChainFeatures::stale)
+                .map(ChainFeatures::chain)
+                .toList();
+    }
+}
@@ -0,0 +1,11 @@
+package com.stellarep.collector;
+
+/**
+ * Per-collector limits. {@code latencyBudgetMs} caps the collector below the request's own budget
+ * and {@code requestsPerSecond} caps how often it is called; a value of zero or less disables the
+ * respective limit. Upstream responses are cached per data type by the upstream cache, not here.
+ */
+public record CollectorPolicy(long latencyBudgetMs, double requestsPerSecond) {
+
+    public static final CollectorPolicy UNLIMITED = new CollectorPolicy(0, 0);
+}
@@ -0,0 +1,40 @@
+package com.stellarep.collector;
+
+import com.stellarep.dto.EthereumAccountData;
+import com.stellarep.service.EthereumDataSource;
+import com.stellarep.upstream.Deadline;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class EthereumChainCollector implements ChainCollector {
+
+    public static final String CHAIN = "ethereum";
+
+    public static final String FIRST_TX_TIMESTAMP = "firstTxTimestamp";
+
+    private final EthereumDataSource ethereumDataSource;
+
+    @Override
+    public String chain() {
+        return CHAIN;
+    }
+
+    @Override
+    public CollectorPolicy defaultPolicy() {
+        return CollectorPolicy.UNLIMITED;
+    }
+
+    @Override
+    public ChainFeatures collect(String address, Deadline deadline) {
+        EthereumAccountData data = ethereumDataSource.analyzeWallet(address, deadline);
+        return ChainFeatures.builder(CHAIN)
+                .put(ChainFeatures.HAS_HISTORY, data.isHasHistory())
+                .put(ChainFeatures.ACCOUNT_AGE_DAYS, data.getAccountAgeDays())
+                .put(ChainFeatures.TRANSACTION_COUNT, data.getTransactionCount())
+                .put(ChainFeatures.BALANCE, data.getBalance())
+                .put(FIRST_TX_TIMESTAMP, data.getFirstTxTimestamp())
+                .build();
+    }
+}
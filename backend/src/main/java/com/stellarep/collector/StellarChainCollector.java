@@ -0,0 +1,50 @@
+package com.stellarep.collector;
+
+import com.stellarep.dto.StellarAccountData;
+import com.stellarep.service.StellarAnalysisService;
+import com.stellarep.upstream.Deadline;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class StellarChainCollector implements ChainCollector {
+
+    public static final String CHAIN = "stellar";
+
+    public static final String ASSET_DIVERSITY = "assetDiversity";
+    public static final String UNIQUE_COUNTERPARTIES = "uniqueCounterparties";
+    public static final String ACTIVE_DAYS = "activeDays";
+    public static final String RECENT_ACTIVE_DAYS = "recentActiveDays";
+    public static final String MEDIAN_PAYMENT_XLM = "medianPaymentXlm";
+    public static final String PAYMENT_VOLUME_XLM = "paymentVolumeXlm";
+
+    private final StellarAnalysisService stellarAnalysisService;
+
+    @Override
+    public String chain() {
+        return CHAIN;
+    }
+
+    @Override
+    public CollectorPolicy defaultPolicy() {
+        return CollectorPolicy.UNLIMITED;
+    }
+
+    @Override
+    public ChainFeatures collect(String address, Deadline deadline) {
+        StellarAccountData data = stellarAnalysisService.analyzeWallet(address, deadline);
+        return ChainFeatures.builder(CHAIN)
+                .put(ChainFeatures.ACCOUNT_AGE_DAYS, data.getAccountAgeDays())
+                .put(ChainFeatures.TRANSACTION_COUNT, data.getTransactionCount())
+                .put(ChainFeatures.BALANCE, data.getBalance())
+                .put(ASSET_DIVERSITY, data.getAssetDiversity())
+                .put(UNIQUE_COUNTERPARTIES, data.getUniqueCounterparties())
+                .put(ACTIVE_DAYS, data.getActiveDays())
+                .put(RECENT_ACTIVE_DAYS, data.getRecentActiveDays())
+                .put(MEDIAN_PAYMENT_XLM, data.getMedianPaymentXlm())
+                .put(PAYMENT_VOLUME_XLM, data.getPaymentVolumeXlm())
+                .stale(data.isActivityStale())
+                .build();
+    }
+}
@@ -1,5 +1,6 @@
 package com.stellarep.config;
 
+import com.stellarep.datasource.RecentWriteTracker;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -25,6 +26,8 @@ public class CorsConfig {
         config.setAllowedOrigins(origins);
         config.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
         config.setAllowedHeaders(Arrays.asList("*"));
+        config.setExposedHeaders(Arrays.asList("ETag", "Last-Modified", "Retry-After",
+                RecentWriteTracker.WRITE_TOKEN_HEADER));
         config.setAllowCredentials(true);
         
         source.registerCorsConfiguration("/**", config);
@@ -0,0 +1,75 @@
+package com.stellarep.config;
+
+import com.stellarep.upstream.NegativeCache;
+import com.stellarep.workload.WorkloadContext;
+import com.stellarep.workload.WorkloadScheduler;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskDecorator;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Configuration
+public class UpstreamConfig {
+
+    @Value("${app.upstream.executor-threads:32}")
+    private int executorThreads;
+
+    @Value("${app.upstream.analysis-threads:32}")
+    private int analysisThreads;
+
+    @Value("${app.stream.delivery-threads:8}")
+    private int streamDeliveryThreads;
+
+    @Value("${app.negative-cache.ttl-ms:300000}")
+    private long negativeCacheTtlMs;
+
+    @Value("${app.negative-cache.max-entries:100000}")
+    private int negativeCacheMaxEntries;
+
+    @Bean
+    public NegativeCache negativeResultCache(MeterRegistry meterRegistry) {
+        NegativeCache cache = new NegativeCache(negativeCacheTtlMs, negativeCacheMaxEntries);
+        Gauge.builder("upstream.negative.cache.size", cache, NegativeCache::size).register(meterRegistry);
+        FunctionCounter.builder("upstream.negative.cache.hits", cache, NegativeCache::getHits).register(meterRegistry);
+        return cache;
+    }
+
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService upstreamExecutor() {
+        return newDaemonPool("upstream-", executorThreads);
+    }
+
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService analysisExecutor(WorkloadScheduler workloadScheduler) {
+        return workloadScheduler.executor("analysis", newDaemonPool("analysis-", analysisThreads), analysisThreads);
+    }
+
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService streamDeliveryExecutor() {
+        return newDaemonPool("sse-", streamDeliveryThreads);
+    }
+
+    /**
+     * Carries the workload lane into Spring's task executor, which runs streaming response bodies.
+     */
+    @Bean
+    public TaskDecorator workloadLaneTaskDecorator() {
+        return WorkloadContext::wrap;
+    }
+
+    private static ExecutorService newDaemonPool(String namePrefix, int threads) {
+        AtomicInteger threadCount = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, namePrefix + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
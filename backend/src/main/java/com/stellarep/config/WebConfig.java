@@ -0,0 +1,38 @@
+package com.stellarep.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.stellarep.datasource.WriteTokenInterceptor;
+import com.stellarep.quota.ClientQuotaInterceptor;
+import com.stellarep.workload.WorkloadLaneInterceptor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@RequiredArgsConstructor
+public class WebConfig implements WebMvcConfigurer {
+
+    private final ClientQuotaInterceptor clientQuotaInterceptor;
+    private final WorkloadLaneInterceptor workloadLaneInterceptor;
+    private final WriteTokenInterceptor writeTokenInterceptor;
+
+    /**
+     * Serves responses as CBOR to clients sending {@code Accept: application/cbor}, using the same
+     * Jackson settings as JSON.
+     */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(workloadLaneInterceptor);
+        registry.addInterceptor(clientQuotaInterceptor);
+        registry.addInterceptor(writeTokenInterceptor);
+    }
+}
@@ -0,0 +1,134 @@
+package com.stellarep.controller;
+
+import com.stellarep.exception.AdminAccessDeniedException;
+import com.stellarep.export.ExportFilter;
+import com.stellarep.export.ExportFormat;
+import com.stellarep.export.ScoreExportService;
+import com.stellarep.profiling.FlightRecorderService;
+import com.stellarep.profiling.ProfilingSummary;
+import com.stellarep.profiling.RecordingInfo;
+import com.stellarep.profiling.RecordingProfile;
+import com.stellarep.quota.ClientQuota;
+import com.stellarep.quota.QuotaTier;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RestController
+@RequestMapping("/admin")
+@RequiredArgsConstructor
+public class AdminController {
+
+    private static final String ADMIN_SECRET_HEADER = "X-Admin-Secret";
+
+    private final ScoreExportService scoreExportService;
+    private final FlightRecorderService flightRecorderService;
+
+    @Value("${app.admin-secret}")
+    private String adminSecret;
+
+    @GetMapping("/export/scores")
+    @ClientQuota(QuotaTier.BATCH)
+    public ResponseEntity<StreamingResponseBody> exportScores(
+            @RequestHeader(value = ADMIN_SECRET_HEADER, required = false) String secret,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) Integer minScore,
+            @RequestParam(required = false) Integer maxScore,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime updatedSince) {
+        requireAdmin(secret);
+        ExportFormat exportFormat = ExportFormat.parse(format);
+        ExportFilter filter = new ExportFilter(minScore, maxScore, updatedSince);
+
+        StreamingResponseBody body = out -> scoreExportService.export(exportFormat, filter, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("wallet_scores." + exportFormat.getFileExtension())
+                        .build()
+                        .toString())
+                .body(body);
+    }
+
+    /**
+     * Starts a flight recording with a preset profile (cpu, allocation or contention). It stops on
+     * its own after {@code durationSeconds}.
+     */
+    @PostMapping("/profiling/recordings")
+    public ResponseEntity<RecordingInfo> startRecording(
+            @RequestHeader(value = ADMIN_SECRET_HEADER, required = false) String secret,
+            @RequestParam(defaultValue = "cpu") String profile,
+            @RequestParam(defaultValue = "60") long durationSeconds) {
+        requireAdmin(secret);
+        return ResponseEntity.ok(flightRecorderService.start(
+                RecordingProfile.parse(profile), Duration.ofSeconds(durationSeconds)));
+    }
+
+    @GetMapping("/profiling/recordings")
+    public ResponseEntity<List<RecordingInfo>> listRecordings(
+            @RequestHeader(value = ADMIN_SECRET_HEADER, required = false) String secret) {
+        requireAdmin(secret);
+        return ResponseEntity.ok(flightRecorderService.list());
+    }
+
+    @PostMapping("/profiling/recordings/{id}/stop")
+    public ResponseEntity<ProfilingSummary> stopRecording(
+            @RequestHeader(value = ADMIN_SECRET_HEADER, required = false) String secret,
+            @PathVariable long id) {
+        requireAdmin(secret);
+        return ResponseEntity.ok(flightRecorderService.stop(id));
+    }
+
+    @GetMapping("/profiling/recordings/{id}/summary")
+    public ResponseEntity<ProfilingSummary> recordingSummary(
+            @RequestHeader(value = ADMIN_SECRET_HEADER, required = false) String secret,
+            @PathVariable long id) {
+        requireAdmin(secret);
+        return ResponseEntity.ok(flightRecorderService.summary(id));
+    }
+
+    @GetMapping("/profiling/recordings/{id}/file")
+    public ResponseEntity<StreamingResponseBody> downloadRecording(
+            @RequestHeader(value = ADMIN_SECRET_HEADER, required = false) String secret,
+            @PathVariable long id) {
+        requireAdmin(secret);
+        Path file = flightRecorderService.file(id);
+        StreamingResponseBody body = out -> Files.copy(file, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(file.getFileName().toString())
+                        .build()
+                        .toString())
+                .body(body);
+    }
+
+    @GetMapping("/profiling/continuous/summary")
+    public ResponseEntity<ProfilingSummary> continuousSummary(
+            @RequestHeader(value = ADMIN_SECRET_HEADER, required = false) String secret,
+            @RequestParam(defaultValue = "300") long windowSeconds) {
+        requireAdmin(secret);
+        return ResponseEntity.ok(flightRecorderService.continuousSummary(Duration.ofSeconds(windowSeconds)));
+    }
+
+    private void requireAdmin(String secret) {
+        if (secret == null || adminSecret == null || adminSecret.isEmpty()
+                || !MessageDigest.isEqual(secret.getBytes(StandardCharsets.UTF_8),
+                        adminSecret.getBytes(StandardCharsets.UTF_8))) {
+            throw new AdminAccessDeniedException();
+        }
+    }
+}
@@ -1,34 +1,129 @@
 package com.stellarep.controller;
 
+import com.stellarep.datasource.RecentWriteTracker;
 import com.stellarep.dto.ScoreCalculationRequest;
+import com.stellarep.dto.ScoreLookupRequest;
+import com.stellarep.dto.ScoreLookupResult;
 import com.stellarep.dto.ScoreResponse;
+import com.stellarep.exception.InvalidRequestException;
+import com.stellarep.exception.ReputationNotFoundException;
+import com.stellarep.quota.ClientQuota;
+import com.stellarep.quota.QuotaTier;
 import com.stellarep.service.ReputationService;
+import com.stellarep.service.ScoreLookupService;
+import com.stellarep.service.ScoreUpdateBroadcaster;
+import com.stellarep.service.ScoredAddressFilter;
+import com.stellarep.upstream.Deadline;
+import com.stellarep.util.AddressCodec;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
 
 @RestController
 @RequestMapping("/reputation")
 @RequiredArgsConstructor
 public class ReputationController {
 
+    private static final String LATENCY_BUDGET_HEADER = "X-Latency-Budget-Ms";
+
     private final ReputationService reputationService;
+    private final ScoreLookupService scoreLookupService;
+    private final ScoredAddressFilter scoredAddressFilter;
+    private final ScoreUpdateBroadcaster scoreUpdateBroadcaster;
+    private final RecentWriteTracker recentWriteTracker;
+
+    @Value("${app.stream.max-addresses-per-subscription:50}")
+    private int maxAddressesPerSubscription;
+
+    @Value("${app.latency-budget.default-ms:15000}")
+    private long defaultLatencyBudgetMs;
+
+    @Value("${app.latency-budget.max-ms:60000}")
+    private long maxLatencyBudgetMs;
 
     @PostMapping("/calculate")
+    @ClientQuota(QuotaTier.CALCULATE)
     public ResponseEntity<ScoreResponse> calculateReputation(
-            @Valid @RequestBody ScoreCalculationRequest request) {
+            @Valid @RequestBody ScoreCalculationRequest request,
+            @RequestHeader(value = LATENCY_BUDGET_HEADER, required = false) Long headerBudgetMs) {
         ScoreResponse response = reputationService.calculateAndStoreReputation(
                 request.getStellarAddress(),
-                request.getEthereumAddress()
+                request.getEthereumAddress(),
+                resolveDeadline(request.getLatencyBudgetMs(), headerBudgetMs)
         );
-        return ResponseEntity.ok(response);
+        String writeToken = recentWriteTracker.issueToken();
+        if (writeToken == null) {
+            return ResponseEntity.ok(response);
+        }
+        return ResponseEntity.ok()
+                .header(RecentWriteTracker.WRITE_TOKEN_HEADER, writeToken)
+                .body(response);
+    }
+
+    /**
+     * Multi-get of stored scores by Stellar or Ethereum address. Results, including misses, are
+     * returned in request order. One request reads up to {@code app.lookup.max-addresses} scores, so
+     * it is charged to the batch tier rather than as a single read.
+     */
+    @PostMapping("/lookup")
+    @ClientQuota(QuotaTier.BATCH)
+    public ResponseEntity<List<ScoreLookupResult>> lookupReputations(@Valid @RequestBody ScoreLookupRequest request) {
+        return ResponseEntity.ok(scoreLookupService.lookup(request.getAddresses()));
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @ClientQuota(QuotaTier.READ)
+    public SseEmitter streamReputation(@RequestParam List<String> addresses) {
+        if (addresses.isEmpty() || addresses.size() > maxAddressesPerSubscription) {
+            throw new InvalidRequestException(
+                    "Subscribe to between 1 and " + maxAddressesPerSubscription + " addresses");
+        }
+        for (String address : addresses) {
+            if (!AddressCodec.isStellarAccountId(address)) {
+                throw new InvalidRequestException("Invalid Stellar address: " + address);
+            }
+        }
+        return scoreUpdateBroadcaster.subscribe(addresses);
     }
 
     @GetMapping("/{stellarAddress}")
+    @ClientQuota(QuotaTier.READ)
     public ResponseEntity<ScoreResponse> getReputation(
-            @PathVariable String stellarAddress) {
+            @PathVariable String stellarAddress,
+            WebRequest webRequest) {
+        if (!scoredAddressFilter.mightContain(stellarAddress)) {
+            return ResponseEntity.notFound().build();
+        }
+        LocalDateTime updatedAt = reputationService.getLastUpdated(stellarAddress)
+                .orElseThrow(() -> new ReputationNotFoundException(stellarAddress));
+        // updated_at is written as the server's local time (LocalDateTime.now()), without a zone.
+        long lastModified = updatedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        String eTag = "W/\"" + Long.toHexString(lastModified) + "\"";
+        if (webRequest.checkNotModified(eTag, lastModified)) {
+            return null;
+        }
         ScoreResponse response = reputationService.getReputation(stellarAddress);
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(eTag)
+                .lastModified(lastModified)
+                .body(response);
+    }
+
+    private Deadline resolveDeadline(Long bodyBudgetMs, Long headerBudgetMs) {
+        long budgetMs = bodyBudgetMs != null ? bodyBudgetMs
+                : headerBudgetMs != null ? headerBudgetMs
+                : defaultLatencyBudgetMs;
+        return Deadline.afterMillis(Math.max(1, Math.min(budgetMs, maxLatencyBudgetMs)));
     }
 }
@@ -0,0 +1,6 @@
+package com.stellarep.datasource;
+
+public enum DataSourceRoute {
+    PRIMARY,
+    REPLICA
+}
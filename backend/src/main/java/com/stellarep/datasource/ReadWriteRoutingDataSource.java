@@ -0,0 +1,38 @@
+package com.stellarep.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Supplier;
+
+/**
+ * Sends read-only transactions to the replica and everything else to the primary. Must sit behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy} so the target is chosen
+ * on the first statement, after the transaction's read-only flag has been set.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final ThreadLocal<Boolean> FORCE_PRIMARY = ThreadLocal.withInitial(() -> false);
+
+    /**
+     * Runs {@code work} with read-only transactions pinned to the primary, for reads that must observe
+     * a write the replica may not have replayed yet.
+     */
+    public static <T> T onPrimary(Supplier<T> work) {
+        boolean previous = FORCE_PRIMARY.get();
+        FORCE_PRIMARY.set(true);
+        try {
+            return work.get();
+        } finally {
+            FORCE_PRIMARY.set(previous);
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly() && !FORCE_PRIMARY.get()) {
+            return DataSourceRoute.REPLICA;
+        }
+        return DataSourceRoute.PRIMARY;
+    }
+}
@@ -0,0 +1,140 @@
+package com.stellarep.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers addresses written by this instance for as long as the replica may lag behind, so reads
+ * of those addresses can be pinned to the primary.
+ *
+ * <p>That memory is per instance. For read-your-writes across instances a writer is handed a signed
+ * write token ({@link #issueToken()}); a request that sends it back within the window reads from the
+ * primary and skips the local read store. Without {@code app.datasource.write-token-secret}, set to
+ * the same value on every instance, no tokens are issued and read-your-writes needs sticky routing.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RecentWriteTracker {
+
+    public static final String WRITE_TOKEN_HEADER = "X-Write-Token";
+
+    private static final int MAX_ENTRIES = 100_000;
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    @Value("${app.datasource.read-your-writes-window-ms:5000}")
+    private long windowMs;
+
+    @Value("${app.datasource.write-token-secret:}")
+    private String writeTokenSecret;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, Long> expiries = new ConcurrentHashMap<>();
+    private final ThreadLocal<Boolean> clientWroteRecently = new ThreadLocal<>();
+    private Counter primaryReads;
+
+    @PostConstruct
+    void init() {
+        primaryReads = meterRegistry.counter("datasource.read.your.writes.primary.reads");
+        if (writeTokenSecret.isBlank()) {
+            log.info("No write token secret configured, read-your-writes holds only with sticky routing");
+        }
+    }
+
+    public void recordWrite(String key) {
+        long now = System.currentTimeMillis();
+        if (expiries.size() >= MAX_ENTRIES) {
+            expiries.values().removeIf(expiry -> expiry <= now);
+        }
+        expiries.put(key, now + windowMs);
+    }
+
+    public boolean requiresPrimary(String key) {
+        if (clientWroteRecently()) {
+            primaryReads.increment();
+            return true;
+        }
+        Long expiry = expiries.get(key);
+        if (expiry == null) {
+            return false;
+        }
+        if (expiry <= System.currentTimeMillis()) {
+            expiries.remove(key, expiry);
+            return false;
+        }
+        primaryReads.increment();
+        return true;
+    }
+
+    /**
+     * Whether the current request carried a valid write token younger than the replication window.
+     */
+    public boolean clientWroteRecently() {
+        return Boolean.TRUE.equals(clientWroteRecently.get());
+    }
+
+    /**
+     * Returns a token recording a write made now, or null when tokens are disabled.
+     */
+    public String issueToken() {
+        if (writeTokenSecret.isBlank()) {
+            return null;
+        }
+        String writtenAt = Long.toString(System.currentTimeMillis());
+        return writtenAt + "." + sign(writtenAt);
+    }
+
+    void enterRequest(String token) {
+        if (token != null && !writeTokenSecret.isBlank()) {
+            clientWroteRecently.set(isRecent(token));
+        }
+    }
+
+    void exitRequest() {
+        clientWroteRecently.remove();
+    }
+
+    private boolean isRecent(String token) {
+        int separator = token.indexOf('.');
+        if (separator <= 0) {
+            return false;
+        }
+        String writtenAt = token.substring(0, separator);
+        byte[] expected = sign(writtenAt).getBytes(StandardCharsets.US_ASCII);
+        if (!MessageDigest.isEqual(expected, token.substring(separator + 1).getBytes(StandardCharsets.US_ASCII))) {
+            return false;
+        }
+        try {
+            long age = System.currentTimeMillis() - Long.parseLong(writtenAt);
+            return age >= 0 && age < windowMs;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private String sign(String writtenAt) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(new SecretKeySpec(writeTokenSecret.getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM));
+            return Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(mac.doFinal(writtenAt.getBytes(StandardCharsets.US_ASCII)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot sign write token", e);
+        }
+    }
+}
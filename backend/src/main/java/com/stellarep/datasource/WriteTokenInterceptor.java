@@ -0,0 +1,36 @@
+package com.stellarep.datasource;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+/**
+ * Makes the {@link RecentWriteTracker#WRITE_TOKEN_HEADER} sent with a request visible to the
+ * {@link RecentWriteTracker} for the duration of the handler.
+ */
+@Component
+@RequiredArgsConstructor
+public class WriteTokenInterceptor implements AsyncHandlerInterceptor {
+
+    private final RecentWriteTracker recentWriteTracker;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        recentWriteTracker.enterRequest(request.getHeader(RecentWriteTracker.WRITE_TOKEN_HEADER));
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        recentWriteTracker.exitRequest();
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        recentWriteTracker.exitRequest();
+    }
+}
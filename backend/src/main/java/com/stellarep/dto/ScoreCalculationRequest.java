@@ -1,5 +1,7 @@
 package com.stellarep.dto;
 
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Pattern;
 import lombok.Data;
@@ -13,4 +15,8 @@ public class ScoreCalculationRequest {
     
     @Pattern(regexp = "^0x[a-fA-F0-9]{40}$", message = "Invalid Ethereum address format")
     private String ethereumAddress;
+
+    @Min(value = 100, message = "Latency budget must be at least 100 ms")
+    @Max(value = 60000, message = "Latency budget must be at most 60000 ms")
+    private Long latencyBudgetMs;
 }
@@ -0,0 +1,13 @@
+package com.stellarep.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class ScoreLookupRequest {
+
+    @NotEmpty(message = "At least one address is required")
+    private List<String> addresses;
+}
@@ -0,0 +1,20 @@
+package com.stellarep.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One requested address of a multi-get. A Stellar address matches at most one score; an Ethereum
+ * address matches every wallet linked to it, most recently updated first.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScoreLookupResult {
+    private String address;
+    private boolean found;
+    private List<ScoreResponse> scores;
+}
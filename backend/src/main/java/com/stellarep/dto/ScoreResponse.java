@@ -6,6 +6,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Data
 @Builder
@@ -21,6 +22,9 @@ public class ScoreResponse {
     private ScoreBreakdown breakdown;
     private LocalDateTime calculatedAt;
     private Boolean onChain;
+    private Boolean degraded;
+    private List<String> missingComponents;
+    private List<String> staleComponents;
     
     @Data
     @Builder
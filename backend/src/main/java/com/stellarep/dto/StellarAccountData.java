@@ -14,7 +14,13 @@ public class StellarAccountData {
     private long transactionCount;
     private double balance;
     private int assetDiversity;
+    private long uniqueCounterparties;
+    private int activeDays;
+    private int recentActiveDays;
+    private double medianPaymentXlm;
+    private double paymentVolumeXlm;
     private String createdAt;
+    private boolean activityStale;
 
     public static StellarAccountData empty() {
         return StellarAccountData.builder()
@@ -0,0 +1,23 @@
+package com.stellarep.entity;
+
+import com.stellarep.util.AddressCodec;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Stores a {@code 0x}-prefixed Ethereum address as its raw 20 bytes. Addresses are read back in
+ * lowercase, so checksum casing is not preserved.
+ */
+@Converter
+public class EthereumAddressConverter implements AttributeConverter<String, byte[]> {
+
+    @Override
+    public byte[] convertToDatabaseColumn(String address) {
+        return address != null && !address.isBlank() ? AddressCodec.decodeEthereum(address.trim()) : null;
+    }
+
+    @Override
+    public String convertToEntityAttribute(byte[] address) {
+        return address != null ? AddressCodec.encodeEthereum(address) : null;
+    }
+}
@@ -0,0 +1,22 @@
+package com.stellarep.entity;
+
+import com.stellarep.util.AddressCodec;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Stores a Stellar account ID ({@code G...}, 56 characters) as its raw 32-byte Ed25519 public key.
+ */
+@Converter
+public class StellarAddressConverter implements AttributeConverter<String, byte[]> {
+
+    @Override
+    public byte[] convertToDatabaseColumn(String accountId) {
+        return accountId != null ? AddressCodec.decodeStellar(accountId) : null;
+    }
+
+    @Override
+    public String convertToEntityAttribute(byte[] publicKey) {
+        return publicKey != null ? AddressCodec.encodeStellar(publicKey) : null;
+    }
+}
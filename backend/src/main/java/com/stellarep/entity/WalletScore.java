@@ -20,9 +20,12 @@ public class WalletScore {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     
-    @Column(unique = true, nullable = false, length = 56)
+    @Convert(converter = StellarAddressConverter.class)
+    @Column(unique = true, nullable = false, length = 32)
     private String stellarAddress;
     
+    @Convert(converter = EthereumAddressConverter.class)
+    @Column(length = 20)
     private String ethereumAddress;
     
     @Column(nullable = false)
@@ -40,6 +43,8 @@ public class WalletScore {
     private Long ethereumAgeDays;
     private Double ethereumBalance;
     
+    private Integer publishedScore;
+    
     @Column(nullable = false)
     private LocalDateTime calculatedAt;
     
@@ -0,0 +1,8 @@
+package com.stellarep.exception;
+
+public class AdminAccessDeniedException extends RuntimeException {
+
+    public AdminAccessDeniedException() {
+        super("Missing or invalid admin secret");
+    }
+}
@@ -0,0 +1,15 @@
+package com.stellarep.exception;
+
+public class QuotaExceededException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public QuotaExceededException(String tier, long retryAfterSeconds) {
+        super("Request quota for " + tier + " exceeded, retry in " + retryAfterSeconds + " s");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
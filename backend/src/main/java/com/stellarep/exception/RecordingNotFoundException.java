@@ -0,0 +1,8 @@
+package com.stellarep.exception;
+
+public class RecordingNotFoundException extends RuntimeException {
+
+    public RecordingNotFoundException(long id) {
+        super("Flight recording not found: " + id);
+    }
+}
@@ -0,0 +1,8 @@
+package com.stellarep.exception;
+
+public class RecordingUnavailableException extends RuntimeException {
+
+    public RecordingUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.stellarep.exception;
+
+public class ReputationNotFoundException extends RuntimeException {
+
+    public ReputationNotFoundException(String stellarAddress) {
+        super("Reputation not found for address: " + stellarAddress);
+    }
+}
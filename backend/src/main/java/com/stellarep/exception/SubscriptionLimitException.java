@@ -0,0 +1,8 @@
+package com.stellarep.exception;
+
+public class SubscriptionLimitException extends RuntimeException {
+
+    public SubscriptionLimitException(int maxSubscribers) {
+        super("Subscriber limit of " + maxSubscribers + " reached, please retry shortly");
+    }
+}
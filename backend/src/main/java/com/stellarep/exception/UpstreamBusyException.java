@@ -0,0 +1,15 @@
+package com.stellarep.exception;
+
+public class UpstreamBusyException extends RuntimeException {
+
+    private final String upstream;
+
+    public UpstreamBusyException(String upstream) {
+        super("Upstream " + upstream + " is busy, please retry shortly");
+        this.upstream = upstream;
+    }
+
+    public String getUpstream() {
+        return upstream;
+    }
+}
@@ -0,0 +1,6 @@
+package com.stellarep.export;
+
+import java.time.LocalDateTime;
+
+public record ExportFilter(Integer minScore, Integer maxScore, LocalDateTime updatedSince) {
+}
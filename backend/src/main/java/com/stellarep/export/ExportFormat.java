@@ -0,0 +1,33 @@
+package com.stellarep.export;
+
+import com.stellarep.exception.InvalidRequestException;
+
+public enum ExportFormat {
+    CSV("text/csv", "csv"),
+    NDJSON("application/x-ndjson", "ndjson");
+
+    private final String contentType;
+    private final String fileExtension;
+
+    ExportFormat(String contentType, String fileExtension) {
+        this.contentType = contentType;
+        this.fileExtension = fileExtension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getFileExtension() {
+        return fileExtension;
+    }
+
+    public static ExportFormat parse(String value) {
+        for (ExportFormat format : values()) {
+            if (format.name().equalsIgnoreCase(value) || format.fileExtension.equalsIgnoreCase(value)) {
+                return format;
+            }
+        }
+        throw new InvalidRequestException("Unsupported export format: " + value + " (use csv or ndjson)");
+    }
+}
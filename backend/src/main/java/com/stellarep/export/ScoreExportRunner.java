@@ -0,0 +1,79 @@
+package com.stellarep.export;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Command-line export, for scheduled dumps:
+ * <pre>
+ * java -jar stellarep-backend.jar --spring.main.web-application-type=none \
+ *     --export.output=/data/wallet_scores.csv [--export.format=ndjson] \
+ *     [--export.min-score=500] [--export.max-score=1000] [--export.updated-since=2024-01-01T00:00:00]
+ * </pre>
+ * The file is written to a temporary sibling and moved into place once complete. The application
+ * exits when the export finishes.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ScoreExportRunner implements ApplicationRunner {
+
+    private static final String OUTPUT_OPTION = "export.output";
+
+    private final ScoreExportService scoreExportService;
+    private final ConfigurableApplicationContext context;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        if (!args.containsOption(OUTPUT_OPTION)) {
+            return;
+        }
+        Path output = Path.of(option(args, OUTPUT_OPTION));
+        String formatOption = option(args, "export.format");
+        ExportFormat format = ExportFormat.parse(formatOption != null ? formatOption : "csv");
+        ExportFilter filter = new ExportFilter(
+                integerOption(args, "export.min-score"),
+                integerOption(args, "export.max-score"),
+                option(args, "export.updated-since") != null
+                        ? LocalDateTime.parse(option(args, "export.updated-since")) : null);
+
+        Path temporary = output.resolveSibling(output.getFileName() + ".partial");
+        int exitCode = 0;
+        try {
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temporary))) {
+                scoreExportService.export(format, filter, out);
+            }
+            Files.move(temporary, output, StandardCopyOption.REPLACE_EXISTING);
+            log.info("Score export written to {}", output);
+        } catch (Exception e) {
+            log.error("Score export to {} failed: {}", output, e.getMessage());
+            Files.deleteIfExists(temporary);
+            exitCode = 1;
+        }
+        int code = exitCode;
+        System.exit(SpringApplication.exit(context, () -> code));
+    }
+
+    private static String option(ApplicationArguments args, String name) {
+        List<String> values = args.getOptionValues(name);
+        return values != null && !values.isEmpty() ? values.get(0) : null;
+    }
+
+    private static Integer integerOption(ApplicationArguments args, String name) {
+        String value = option(args, name);
+        return value != null ? Integer.valueOf(value) : null;
+    }
+}
@@ -0,0 +1,175 @@
+package com.stellarep.export;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stellarep.util.AddressCodec;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Streams {@code wallet_scores} row by row through a server-side cursor. Rows are written as they
+ * are fetched, so memory use depends on the fetch size only. The export runs in a read-only
+ * transaction, which is routed to the replica when one is configured.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ScoreExportService {
+
+    private static final String[] COLUMNS = {
+            "stellar_address", "ethereum_address", "score", "stellar_score", "ethereum_score", "social_score",
+            "account_age_days", "transaction_count", "stellar_balance", "has_ethereum_history",
+            "ethereum_age_days", "ethereum_balance", "calculated_at", "updated_at"
+    };
+
+    @Value("${app.export.fetch-size:1000}")
+    private int fetchSize;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper;
+
+    public long export(ExportFormat format, ExportFilter filter, OutputStream out) throws IOException {
+        long start = System.currentTimeMillis();
+        List<Object> params = new ArrayList<>();
+        String sql = buildQuery(filter, params);
+
+        JdbcTemplate cursorTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        cursorTemplate.setFetchSize(fetchSize);
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        RowWriter writer = format == ExportFormat.CSV ? new CsvRowWriter(out) : new NdjsonRowWriter(out);
+        AtomicLong rows = new AtomicLong();
+        try {
+            readOnly.executeWithoutResult(status -> cursorTemplate.query(sql, (RowCallbackHandler) rs -> {
+                try {
+                    writer.write(rs);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                rows.incrementAndGet();
+            }, params.toArray()));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.finish();
+
+        log.info("Exported {} score rows as {} in {} ms", rows.get(), format, System.currentTimeMillis() - start);
+        return rows.get();
+    }
+
+    private static String buildQuery(ExportFilter filter, List<Object> params) {
+        StringBuilder sql = new StringBuilder("SELECT ")
+                .append(String.join(", ", COLUMNS))
+                .append(" FROM wallet_scores WHERE 1 = 1");
+        if (filter.minScore() != null) {
+            sql.append(" AND score >= ?");
+            params.add(filter.minScore());
+        }
+        if (filter.maxScore() != null) {
+            sql.append(" AND score <= ?");
+            params.add(filter.maxScore());
+        }
+        if (filter.updatedSince() != null) {
+            sql.append(" AND updated_at >= ?");
+            params.add(Timestamp.valueOf(filter.updatedSince()));
+        }
+        return sql.append(" ORDER BY id").toString();
+    }
+
+    private static Object columnValue(ResultSet rs, int column) throws SQLException {
+        return switch (COLUMNS[column - 1]) {
+            case "stellar_address" -> AddressCodec.encodeStellar(rs.getBytes(column));
+            case "ethereum_address" -> {
+                byte[] address = rs.getBytes(column);
+                yield address != null ? AddressCodec.encodeEthereum(address) : null;
+            }
+            case "calculated_at", "updated_at" -> {
+                Timestamp timestamp = rs.getTimestamp(column);
+                yield timestamp != null ? timestamp.toLocalDateTime().toString() : null;
+            }
+            default -> rs.getObject(column);
+        };
+    }
+
+    private interface RowWriter {
+        void write(ResultSet rs) throws SQLException, IOException;
+
+        void finish() throws IOException;
+    }
+
+    private static final class CsvRowWriter implements RowWriter {
+        private final BufferedWriter writer;
+
+        CsvRowWriter(OutputStream out) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            writer.write(String.join(",", COLUMNS));
+            writer.newLine();
+        }
+
+        @Override
+        public void write(ResultSet rs) throws SQLException, IOException {
+            for (int column = 1; column <= COLUMNS.length; column++) {
+                if (column > 1) {
+                    writer.write(',');
+                }
+                Object value = columnValue(rs, column);
+                if (value != null) {
+                    writer.write(value.toString());
+                }
+            }
+            writer.newLine();
+        }
+
+        @Override
+        public void finish() throws IOException {
+            writer.flush();
+        }
+    }
+
+    private final class NdjsonRowWriter implements RowWriter {
+        private final JsonGenerator generator;
+
+        NdjsonRowWriter(OutputStream out) throws IOException {
+            this.generator = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8);
+            generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void write(ResultSet rs) throws SQLException, IOException {
+            generator.writeStartObject();
+            for (int column = 1; column <= COLUMNS.length; column++) {
+                generator.writeFieldName(COLUMNS[column - 1]);
+                generator.writeObject(columnValue(rs, column));
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void finish() throws IOException {
+            generator.flush();
+        }
+    }
+}
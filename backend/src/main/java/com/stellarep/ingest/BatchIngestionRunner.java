@@ -0,0 +1,443 @@
+package com.stellarep.ingest;
+
+import com.stellarep.collector.ChainCollectionOrchestrator;
+import com.stellarep.collector.ChainFeatures;
+import com.stellarep.collector.CollectionResult;
+import com.stellarep.collector.EthereumChainCollector;
+import com.stellarep.collector.StellarChainCollector;
+import com.stellarep.dto.ScoreResponse;
+import com.stellarep.exception.DeadlineExceededException;
+import com.stellarep.exception.UpstreamBusyException;
+import com.stellarep.service.ScoreCalculationService;
+import com.stellarep.upstream.Deadline;
+import com.stellarep.upstream.TokenBucket;
+import com.stellarep.util.AddressCodec;
+import com.stellarep.workload.WorkloadContext;
+import com.stellarep.workload.WorkloadLane;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Pattern;
+
+/**
+ * Offline backfill of scores from an address list:
+ * <pre>
+ * java -jar stellarep-backend.jar --spring.main.web-application-type=none \
+ *     --ingest.input=/data/partner.csv [--ingest.checkpoint=/data/partner.csv.checkpoint] \
+ *     [--app.ingest.parallelism=16] [--app.ingest.stellar-per-second=20]
+ * </pre>
+ * Each line is {@code stellarAddress[,ethereumAddress]}; blank lines and lines starting with
+ * {@code #} are ignored and repeated Stellar addresses are scored once. Lines that could not be
+ * scored are copied to {@code <input>.failed}, in input order, which can be fed back in as input.
+ * Rerunning with the same checkpoint resumes after the last line whose outcome was committed and cuts
+ * the failed file back to the failures recorded up to that line. All ingestion work runs in
+ * the batch workload lane, so it only uses capacity that interactive requests leave free.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BatchIngestionRunner implements ApplicationRunner {
+
+    private static final String INPUT_OPTION = "ingest.input";
+    private static final String CHECKPOINT_OPTION = "ingest.checkpoint";
+    private static final Pattern ETHEREUM_ADDRESS = Pattern.compile("^0x[a-fA-F0-9]{40}$");
+    private static final long FLUSH_INTERVAL_MS = 1000;
+
+    @Value("${app.ingest.parallelism:8}")
+    private int parallelism;
+
+    @Value("${app.ingest.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.ingest.stellar-per-second:10}")
+    private double stellarPerSecond;
+
+    @Value("${app.ingest.ethereum-per-second:4}")
+    private double ethereumPerSecond;
+
+    @Value("${app.ingest.item-budget-ms:30000}")
+    private long itemBudgetMs;
+
+    @Value("${app.ingest.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${app.ingest.checkpoint-interval-ms:5000}")
+    private long checkpointIntervalMs;
+
+    @Value("${app.ingest.progress-interval-ms:10000}")
+    private long progressIntervalMs;
+
+    private final ChainCollectionOrchestrator chainCollectionOrchestrator;
+    private final ScoreCalculationService scoreCalculationService;
+    private final ScoreBatchWriter scoreBatchWriter;
+    private final ConfigurableApplicationContext context;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        if (!args.containsOption(INPUT_OPTION)) {
+            return;
+        }
+        Path input = Path.of(args.getOptionValues(INPUT_OPTION).get(0));
+        Path checkpoint = args.containsOption(CHECKPOINT_OPTION)
+                ? Path.of(args.getOptionValues(CHECKPOINT_OPTION).get(0))
+                : input.resolveSibling(input.getFileName() + ".checkpoint");
+        Path failed = input.resolveSibling(input.getFileName() + ".failed");
+
+        int exitCode;
+        try {
+            exitCode = ingest(input, new IngestionCheckpoint(checkpoint), failed) ? 0 : 1;
+        } catch (Exception e) {
+            log.error("Batch ingestion of {} failed: {}", input, e.getMessage(), e);
+            exitCode = 1;
+        }
+        int code = exitCode;
+        System.exit(SpringApplication.exit(context, () -> code));
+    }
+
+    private boolean ingest(Path input, IngestionCheckpoint checkpoint, Path failed) throws Exception {
+        IngestionCheckpoint.Position resumeFrom = checkpoint.load();
+        long resumeAfterLine = resumeFrom.completedThroughLine();
+        long totalLines = countLines(input);
+        if (resumeAfterLine > 0) {
+            log.info("Resuming ingestion of {} after line {} of {}", input, resumeAfterLine, totalLines);
+        } else {
+            log.info("Starting ingestion of {} ({} lines)", input, totalLines);
+        }
+
+        TokenBucket stellarQuota = new TokenBucket(stellarPerSecond, (int) Math.ceil(stellarPerSecond));
+        TokenBucket ethereumQuota = new TokenBucket(ethereumPerSecond, (int) Math.ceil(ethereumPerSecond));
+        BlockingQueue<Outcome> outcomes = new LinkedBlockingQueue<>();
+        ResultWriter writer = new ResultWriter(outcomes, checkpoint, failed, resumeFrom, totalLines);
+        Thread writerThread = new Thread(() -> WorkloadContext.runIn(WorkloadLane.BATCH, writer), "ingest-writer");
+        writerThread.start();
+
+        AtomicInteger workerCount = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(() -> WorkloadContext.runIn(WorkloadLane.BATCH, runnable),
+                    "ingest-" + workerCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        Semaphore inFlight = new Semaphore(parallelism * 4);
+        Set<String> seen = new HashSet<>();
+
+        try (BufferedReader reader = Files.newBufferedReader(input, StandardCharsets.UTF_8)) {
+            String line;
+            long lineNumber = 0;
+            while ((line = reader.readLine()) != null && writer.failure.get() == null) {
+                lineNumber++;
+                String trimmed = line.trim();
+                if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                    if (lineNumber > resumeAfterLine) {
+                        outcomes.put(Outcome.skipped(lineNumber));
+                    }
+                    continue;
+                }
+                String[] fields = trimmed.split(",", -1);
+                String stellarAddress = fields[0].trim();
+                String ethereumAddress = fields.length > 1 && !fields[1].isBlank() ? fields[1].trim() : null;
+                boolean firstSeen = seen.add(stellarAddress);
+                if (lineNumber <= resumeAfterLine) {
+                    continue;
+                }
+                if (!firstSeen) {
+                    outcomes.put(Outcome.duplicate(lineNumber));
+                } else if (!AddressCodec.isStellarAccountId(stellarAddress)
+                        || (ethereumAddress != null && !ETHEREUM_ADDRESS.matcher(ethereumAddress).matches())) {
+                    outcomes.put(Outcome.failed(lineNumber, line, "invalid address"));
+                } else {
+                    inFlight.acquire();
+                    long number = lineNumber;
+                    String rawLine = line;
+                    workers.execute(() -> {
+                        try {
+                            outcomes.add(score(number, rawLine, stellarAddress, ethereumAddress,
+                                    stellarQuota, ethereumQuota));
+                        } finally {
+                            inFlight.release();
+                        }
+                    });
+                }
+            }
+        } finally {
+            workers.shutdown();
+            workers.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+            outcomes.put(Outcome.END);
+            writerThread.join();
+        }
+        return writer.failure.get() == null;
+    }
+
+    private Outcome score(long lineNumber, String rawLine, String stellarAddress, String ethereumAddress,
+                          TokenBucket stellarQuota, TokenBucket ethereumQuota) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                Map<String, String> linkedAddresses = new LinkedHashMap<>();
+                stellarQuota.acquire();
+                linkedAddresses.put(StellarChainCollector.CHAIN, stellarAddress);
+                if (ethereumAddress != null) {
+                    ethereumQuota.acquire();
+                    linkedAddresses.put(EthereumChainCollector.CHAIN, ethereumAddress);
+                }
+                Deadline deadline = Deadline.afterMillis(itemBudgetMs);
+                CollectionResult collected = chainCollectionOrchestrator.collect(linkedAddresses, deadline);
+                if (collected.isDegraded()) {
+                    throw new DeadlineExceededException("No data in time for " + collected.missingChains());
+                }
+                ChainFeatures stellarData = collected.get(StellarChainCollector.CHAIN);
+                ChainFeatures ethereumData = collected.get(EthereumChainCollector.CHAIN);
+                var scoreComponents = scoreCalculationService.calculateScore(collected.features());
+                return Outcome.scored(lineNumber, ScoreResponse.builder()
+                        .stellarAddress(stellarAddress)
+                        .ethereumAddress(ethereumAddress != null ? ethereumAddress.toLowerCase() : null)
+                        .totalScore(scoreComponents.getTotalScore())
+                        .stellarScore(scoreComponents.getStellarScore())
+                        .ethereumScore(scoreComponents.getEthereumScore())
+                        .socialScore(scoreComponents.getSocialScore())
+                        .breakdown(ScoreResponse.ScoreBreakdown.builder()
+                                .accountAgeDays(stellarData.getLong(ChainFeatures.ACCOUNT_AGE_DAYS))
+                                .transactionCount(stellarData.getLong(ChainFeatures.TRANSACTION_COUNT))
+                                .stellarBalance(stellarData.get(ChainFeatures.BALANCE))
+                                .hasEthereumHistory(ethereumData.getBoolean(ChainFeatures.HAS_HISTORY))
+                                .ethereumAgeDays(ethereumData.getLong(ChainFeatures.ACCOUNT_AGE_DAYS))
+                                .ethereumTransactionCount(ethereumData.getLong(ChainFeatures.TRANSACTION_COUNT))
+                                .ethereumBalance(ethereumData.get(ChainFeatures.BALANCE))
+                                .build())
+                        .onChain(false)
+                        .degraded(false)
+                        .missingComponents(List.of())
+                        .staleComponents(collected.staleChains())
+                        .build());
+            } catch (UpstreamBusyException | DeadlineExceededException e) {
+                if (attempt >= maxAttempts) {
+                    return Outcome.failed(lineNumber, rawLine, e.getMessage());
+                }
+                try {
+                    TimeUnit.SECONDS.sleep(attempt);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return Outcome.failed(lineNumber, rawLine, "interrupted");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return Outcome.failed(lineNumber, rawLine, "interrupted");
+            } catch (RuntimeException e) {
+                return Outcome.failed(lineNumber, rawLine, e.getMessage());
+            }
+        }
+    }
+
+    private static long countLines(Path input) throws IOException {
+        try (var lines = Files.lines(input, StandardCharsets.UTF_8)) {
+            return lines.count();
+        }
+    }
+
+    private record Outcome(long lineNumber, ScoreResponse score, String rawLine, String failure, boolean duplicate) {
+        static final Outcome END = new Outcome(-1, null, null, null, false);
+
+        static Outcome scored(long lineNumber, ScoreResponse score) {
+            return new Outcome(lineNumber, score, null, null, false);
+        }
+
+        static Outcome failed(long lineNumber, String rawLine, String failure) {
+            return new Outcome(lineNumber, null, rawLine, failure, false);
+        }
+
+        static Outcome duplicate(long lineNumber) {
+            return new Outcome(lineNumber, null, null, null, true);
+        }
+
+        static Outcome skipped(long lineNumber) {
+            return new Outcome(lineNumber, null, null, null, false);
+        }
+    }
+
+    /**
+     * Single consumer of outcomes: upserts scored rows in batches, records failures, and advances the
+     * checkpoint to the highest line below which every outcome has been committed. A failure is only
+     * written once the checkpoint line has passed it, so the failed file up to the offset saved with
+     * a checkpoint holds exactly the failures below that checkpoint.
+     */
+    private final class ResultWriter implements Runnable {
+        private final BlockingQueue<Outcome> outcomes;
+        private final IngestionCheckpoint checkpoint;
+        private final Path failedPath;
+        private final long totalLines;
+        private final long startLine;
+        private final long resumeFailedBytes;
+        private final TreeSet<Long> completedAhead = new TreeSet<>();
+        private final TreeMap<Long, String> failuresAhead = new TreeMap<>();
+        private final AtomicReference<Exception> failure = new AtomicReference<>();
+
+        private long completedThrough;
+        private long scored;
+        private long failed;
+        private long duplicates;
+        private long startedAt;
+        private long lastCheckpointAt;
+        private long lastProgressAt;
+        private long lineAtLastProgress;
+
+        ResultWriter(BlockingQueue<Outcome> outcomes, IngestionCheckpoint checkpoint, Path failedPath,
+                     IngestionCheckpoint.Position resumeFrom, long totalLines) {
+            this.outcomes = outcomes;
+            this.checkpoint = checkpoint;
+            this.failedPath = failedPath;
+            this.totalLines = totalLines;
+            this.startLine = resumeFrom.completedThroughLine();
+            this.resumeFailedBytes = resumeFrom.failedFileBytes();
+            this.completedThrough = startLine;
+            this.lineAtLastProgress = startLine;
+        }
+
+        @Override
+        public void run() {
+            startedAt = System.currentTimeMillis();
+            lastCheckpointAt = startedAt;
+            lastProgressAt = startedAt;
+            List<Outcome> batch = new ArrayList<>(batchSize);
+            try (FileChannel failedChannel = FileChannel.open(failedPath,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                 BufferedWriter failedWriter = new BufferedWriter(
+                         Channels.newWriter(failedChannel, StandardCharsets.UTF_8))) {
+                if (resumeFailedBytes >= 0) {
+                    failedChannel.truncate(resumeFailedBytes);
+                } else {
+                    log.warn("Checkpoint has no failed file offset, lines failing again are appended to {}",
+                            failedPath);
+                }
+                failedChannel.position(failedChannel.size());
+                long lastFlushAt = System.currentTimeMillis();
+                while (true) {
+                    Outcome outcome = outcomes.poll(FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                    boolean end = outcome == Outcome.END;
+                    if (outcome != null && !end) {
+                        batch.add(outcome);
+                    }
+                    if (end || batch.size() >= batchSize
+                            || System.currentTimeMillis() - lastFlushAt >= FLUSH_INTERVAL_MS) {
+                        flush(batch, failedWriter, failedChannel);
+                        batch.clear();
+                        lastFlushAt = System.currentTimeMillis();
+                    }
+                    if (end) {
+                        break;
+                    }
+                }
+                checkpoint.save(completedThrough, failedChannel.size());
+                reportProgress(true);
+            } catch (Exception e) {
+                failure.set(e);
+                log.error("Ingestion stopped at line {}: {}", completedThrough, e.getMessage());
+                drainUntilEnd();
+            }
+        }
+
+        private void flush(List<Outcome> batch, BufferedWriter failedWriter, FileChannel failedChannel)
+                throws IOException {
+            if (batch.isEmpty()) {
+                return;
+            }
+            List<ScoreResponse> scores = new ArrayList<>();
+            for (Outcome outcome : batch) {
+                if (outcome.score() != null) {
+                    scores.add(outcome.score());
+                } else if (outcome.failure() != null) {
+                    failuresAhead.put(outcome.lineNumber(), outcome.rawLine());
+                    log.debug("Line {} failed: {}", outcome.lineNumber(), outcome.failure());
+                }
+            }
+            scoreBatchWriter.upsert(scores);
+
+            for (Outcome outcome : batch) {
+                if (outcome.score() != null) {
+                    scored++;
+                } else if (outcome.failure() != null) {
+                    failed++;
+                } else if (outcome.duplicate()) {
+                    duplicates++;
+                }
+                completedAhead.add(outcome.lineNumber());
+            }
+            while (!completedAhead.isEmpty() && completedAhead.first() == completedThrough + 1) {
+                completedThrough = completedAhead.pollFirst();
+            }
+            Map<Long, String> passed = failuresAhead.headMap(completedThrough, true);
+            for (String rawLine : passed.values()) {
+                failedWriter.write(rawLine);
+                failedWriter.newLine();
+            }
+            passed.clear();
+            failedWriter.flush();
+
+            long now = System.currentTimeMillis();
+            if (now - lastCheckpointAt >= checkpointIntervalMs) {
+                checkpoint.save(completedThrough, failedChannel.size());
+                lastCheckpointAt = now;
+            }
+            if (now - lastProgressAt >= progressIntervalMs) {
+                reportProgress(false);
+            }
+        }
+
+        private void reportProgress(boolean finished) {
+            long now = System.currentTimeMillis();
+            double overallRate = (completedThrough - startLine) * 1000.0 / Math.max(1, now - startedAt);
+            double recentRate = (completedThrough - lineAtLastProgress) * 1000.0 / Math.max(1, now - lastProgressAt);
+            long remaining = Math.max(0, totalLines - completedThrough);
+            String eta = overallRate > 0 ? formatDuration((long) (remaining / overallRate)) : "unknown";
+            log.info("{} line {}/{}: {} scored, {} failed, {} duplicates, {}/s (recent {}/s), ETA {}",
+                    finished ? "Ingestion finished at" : "Ingestion at",
+                    completedThrough, totalLines, scored, failed, duplicates,
+                    String.format("%.1f", overallRate), String.format("%.1f", recentRate), eta);
+            lastProgressAt = now;
+            lineAtLastProgress = completedThrough;
+        }
+
+        private void drainUntilEnd() {
+            try {
+                while (outcomes.take() != Outcome.END) {
+                    // discard; these lines stay above the checkpoint and are retried on resume
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static String formatDuration(long seconds) {
+        return String.format("%dh%02dm%02ds", seconds / 3600, (seconds % 3600) / 60, seconds % 60);
+    }
+}
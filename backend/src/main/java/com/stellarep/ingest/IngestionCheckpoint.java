@@ -0,0 +1,54 @@
+package com.stellarep.ingest;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+
+/**
+ * Highest input line below which every line has been handled, and the length of the failed-lines
+ * file holding exactly the failures up to that line, persisted with an atomic rename so a crash
+ * leaves either the previous or the new checkpoint.
+ */
+final class IngestionCheckpoint {
+
+    private static final String LINE_KEY = "completed-through-line";
+    private static final String FAILED_BYTES_KEY = "failed-file-bytes";
+
+    /** {@code failedFileBytes} is -1 for checkpoints written before the offset was recorded. */
+    record Position(long completedThroughLine, long failedFileBytes) {
+    }
+
+    private final Path path;
+
+    IngestionCheckpoint(Path path) {
+        this.path = path;
+    }
+
+    Position load() throws IOException {
+        if (!Files.exists(path)) {
+            return new Position(0, 0);
+        }
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        return new Position(Long.parseLong(properties.getProperty(LINE_KEY, "0")),
+                Long.parseLong(properties.getProperty(FAILED_BYTES_KEY, "-1")));
+    }
+
+    void save(long completedThroughLine, long failedFileBytes) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty(LINE_KEY, Long.toString(completedThroughLine));
+        properties.setProperty(FAILED_BYTES_KEY, Long.toString(failedFileBytes));
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (Writer writer = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+            properties.store(writer, null);
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -0,0 +1,90 @@
+package com.stellarep.ingest;
+
+import com.stellarep.dto.ScoreResponse;
+import com.stellarep.service.ScoreUpdatedEvent;
+import com.stellarep.util.AddressCodec;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Writes scores with one batched {@code INSERT ... ON CONFLICT} per call, in a single transaction.
+ * Committed scores are announced with {@link ScoreUpdatedEvent} like interactive calculations.
+ */
+@Component
+@RequiredArgsConstructor
+public class ScoreBatchWriter {
+
+    private static final String UPSERT_SQL = """
+            INSERT INTO wallet_scores (stellar_address, ethereum_address, score, stellar_score, ethereum_score,
+                                       social_score, account_age_days, transaction_count, stellar_balance,
+                                       has_ethereum_history, ethereum_age_days, ethereum_balance,
+                                       calculated_at, updated_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            ON CONFLICT (stellar_address) DO UPDATE SET
+                ethereum_address = EXCLUDED.ethereum_address,
+                score = EXCLUDED.score,
+                stellar_score = EXCLUDED.stellar_score,
+                ethereum_score = EXCLUDED.ethereum_score,
+                social_score = EXCLUDED.social_score,
+                account_age_days = EXCLUDED.account_age_days,
+                transaction_count = EXCLUDED.transaction_count,
+                stellar_balance = EXCLUDED.stellar_balance,
+                has_ethereum_history = EXCLUDED.has_ethereum_history,
+                ethereum_age_days = EXCLUDED.ethereum_age_days,
+                ethereum_balance = EXCLUDED.ethereum_balance,
+                updated_at = EXCLUDED.updated_at
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public void upsert(List<ScoreResponse> scores) {
+        if (scores.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp timestamp = Timestamp.valueOf(now);
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(UPSERT_SQL, scores, scores.size(),
+                    (ps, score) -> bind(ps, score, timestamp));
+            for (ScoreResponse score : scores) {
+                score.setCalculatedAt(now);
+                eventPublisher.publishEvent(new ScoreUpdatedEvent(score, now));
+            }
+        });
+    }
+
+    private static void bind(PreparedStatement ps, ScoreResponse score, Timestamp timestamp) throws SQLException {
+        ScoreResponse.ScoreBreakdown breakdown = score.getBreakdown();
+        ps.setBytes(1, AddressCodec.decodeStellar(score.getStellarAddress()));
+        if (score.getEthereumAddress() != null) {
+            ps.setBytes(2, AddressCodec.decodeEthereum(score.getEthereumAddress()));
+        } else {
+            ps.setNull(2, Types.BINARY);
+        }
+        ps.setInt(3, score.getTotalScore());
+        ps.setInt(4, score.getStellarScore());
+        ps.setInt(5, score.getEthereumScore());
+        ps.setInt(6, score.getSocialScore());
+        ps.setLong(7, breakdown.getAccountAgeDays());
+        ps.setLong(8, breakdown.getTransactionCount());
+        ps.setDouble(9, breakdown.getStellarBalance());
+        ps.setBoolean(10, breakdown.getHasEthereumHistory());
+        ps.setLong(11, breakdown.getEthereumAgeDays());
+        ps.setDouble(12, breakdown.getEthereumBalance());
+        ps.setTimestamp(13, timestamp);
+        ps.setTimestamp(14, timestamp);
+    }
+}
@@ -0,0 +1,253 @@
+package com.stellarep.profiling;
+
+import com.stellarep.exception.InvalidRequestException;
+import com.stellarep.exception.RecordingNotFoundException;
+import com.stellarep.exception.RecordingUnavailableException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Starts and stops JDK Flight Recorder recordings on a live node. A low-overhead continuous
+ * recording keeps the last {@code max-age-ms} in the JFR repository so recent history can be
+ * summarized after the fact; on-demand recordings use a {@link RecordingProfile}, stop on their own
+ * after their duration and are written to {@code app.profiling.directory}. Only the newest
+ * {@code retained-recordings} files are kept.
+ */
+@Service
+@Lazy(false)
+@Slf4j
+public class FlightRecorderService {
+
+    @Value("${app.profiling.directory:./data/jfr}")
+    private String directory;
+
+    @Value("${app.profiling.continuous.enabled:true}")
+    private boolean continuousEnabled;
+
+    @Value("${app.profiling.continuous.max-age-ms:1800000}")
+    private long continuousMaxAgeMs;
+
+    @Value("${app.profiling.continuous.max-size-bytes:104857600}")
+    private long continuousMaxSizeBytes;
+
+    @Value("${app.profiling.max-duration-ms:600000}")
+    private long maxDurationMs;
+
+    @Value("${app.profiling.max-active-recordings:2}")
+    private int maxActiveRecordings;
+
+    @Value("${app.profiling.retained-recordings:10}")
+    private int retainedRecordings;
+
+    @Value("${app.profiling.top-sites:20}")
+    private int topSites;
+
+    private final Map<Long, OnDemandRecording> recordings = new LinkedHashMap<>();
+    private Recording continuous;
+
+    @PostConstruct
+    void init() {
+        if (!continuousEnabled) {
+            return;
+        }
+        try {
+            continuous = new Recording(RecordingProfile.CONTINUOUS.settings());
+            continuous.setName("stellarep-continuous");
+            continuous.setToDisk(true);
+            continuous.setMaxAge(Duration.ofMillis(continuousMaxAgeMs));
+            continuous.setMaxSize(continuousMaxSizeBytes);
+            continuous.start();
+            log.info("Continuous flight recording started, keeping the last {} ms", continuousMaxAgeMs);
+        } catch (Exception e) {
+            continuous = null;
+            log.warn("Could not start continuous flight recording: {}", e.getMessage());
+        }
+    }
+
+    public synchronized RecordingInfo start(RecordingProfile profile, Duration duration) {
+        if (profile == RecordingProfile.CONTINUOUS) {
+            throw new InvalidRequestException("The continuous profile is reserved for the background recording");
+        }
+        if (duration.isNegative() || duration.isZero() || duration.toMillis() > maxDurationMs) {
+            throw new InvalidRequestException("Recording duration must be between 1 and " + maxDurationMs + " ms");
+        }
+        long active = recordings.values().stream().filter(OnDemandRecording::isRunning).count();
+        if (active >= maxActiveRecordings) {
+            throw new RecordingUnavailableException(
+                    "At most " + maxActiveRecordings + " recordings can run at once, stop one first");
+        }
+        try {
+            Path dir = Files.createDirectories(Path.of(directory));
+            Recording recording = new Recording(profile.settings());
+            recording.setName("stellarep-" + profile.name().toLowerCase(Locale.ROOT));
+            recording.setToDisk(true);
+            recording.setDuration(duration);
+            recording.setDestination(dir.resolve(recording.getName() + "-" + recording.getId() + ".jfr"));
+            recording.start();
+            OnDemandRecording started = new OnDemandRecording(recording, profile);
+            recordings.put(recording.getId(), started);
+            log.info("Started {} flight recording {} for {}", profile, recording.getId(), duration);
+            evictOldRecordings();
+            return started.info();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not start flight recording", e);
+        }
+    }
+
+    public synchronized List<RecordingInfo> list() {
+        return recordings.values().stream().map(OnDemandRecording::info).toList();
+    }
+
+    public synchronized ProfilingSummary stop(long id) {
+        OnDemandRecording recording = find(id);
+        if (recording.isRunning()) {
+            recording.recording.stop();
+            log.info("Stopped flight recording {}", id);
+        }
+        return summarize(recording);
+    }
+
+    public ProfilingSummary summary(long id) {
+        OnDemandRecording recording;
+        synchronized (this) {
+            recording = find(id);
+        }
+        return summarize(recording);
+    }
+
+    public ProfilingSummary continuousSummary(Duration window) {
+        Recording current = continuous;
+        if (current == null) {
+            throw new RecordingUnavailableException("Continuous flight recording is not running");
+        }
+        return summarizeSnapshot(current, Instant.now().minus(window));
+    }
+
+    /**
+     * Returns the file of a finished recording, for download.
+     */
+    public synchronized Path file(long id) {
+        OnDemandRecording recording = find(id);
+        if (recording.isRunning()) {
+            throw new RecordingUnavailableException("Recording " + id + " is still running");
+        }
+        Path destination = recording.recording.getDestination();
+        if (destination == null || !Files.exists(destination)) {
+            throw new RecordingNotFoundException(id);
+        }
+        return destination;
+    }
+
+    private OnDemandRecording find(long id) {
+        OnDemandRecording recording = recordings.get(id);
+        if (recording == null) {
+            throw new RecordingNotFoundException(id);
+        }
+        return recording;
+    }
+
+    private ProfilingSummary summarize(OnDemandRecording recording) {
+        if (recording.isRunning()) {
+            return summarizeSnapshot(recording.recording, Instant.EPOCH);
+        }
+        synchronized (recording) {
+            if (recording.summary == null) {
+                try {
+                    recording.summary = RecordingSummarizer.summarize(
+                            recording.recording.getDestination(), Instant.EPOCH, topSites);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Could not read flight recording " + recording.recording.getId(), e);
+                }
+            }
+            return recording.summary;
+        }
+    }
+
+    private ProfilingSummary summarizeSnapshot(Recording source, Instant since) {
+        Path snapshot = null;
+        try (Recording copy = source.copy(true)) {
+            snapshot = Files.createTempFile("stellarep-snapshot-", ".jfr");
+            copy.dump(snapshot);
+            return RecordingSummarizer.summarize(snapshot, since, topSites);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not snapshot flight recording " + source.getId(), e);
+        } finally {
+            if (snapshot != null) {
+                try {
+                    Files.deleteIfExists(snapshot);
+                } catch (IOException e) {
+                    log.debug("Could not delete recording snapshot {}: {}", snapshot, e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void evictOldRecordings() {
+        List<Long> finished = new ArrayList<>();
+        for (OnDemandRecording recording : recordings.values()) {
+            if (!recording.isRunning()) {
+                finished.add(recording.recording.getId());
+            }
+        }
+        Iterator<Long> oldest = finished.iterator();
+        for (int excess = recordings.size() - retainedRecordings; excess > 0 && oldest.hasNext(); excess--) {
+            OnDemandRecording evicted = recordings.remove(oldest.next());
+            evicted.recording.close();
+            try {
+                Files.deleteIfExists(evicted.recording.getDestination());
+            } catch (IOException e) {
+                log.debug("Could not delete flight recording file: {}", e.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    synchronized void close() {
+        for (OnDemandRecording recording : recordings.values()) {
+            recording.recording.close();
+        }
+        if (continuous != null) {
+            continuous.close();
+        }
+    }
+
+    private static final class OnDemandRecording {
+        private final Recording recording;
+        private final RecordingProfile profile;
+        private ProfilingSummary summary;
+
+        OnDemandRecording(Recording recording, RecordingProfile profile) {
+            this.recording = recording;
+            this.profile = profile;
+        }
+
+        boolean isRunning() {
+            RecordingState state = recording.getState();
+            return state == RecordingState.NEW || state == RecordingState.DELAYED || state == RecordingState.RUNNING;
+        }
+
+        RecordingInfo info() {
+            return new RecordingInfo(recording.getId(), recording.getName(), profile, recording.getState().name(),
+                    recording.getStartTime(), isRunning() ? null : recording.getStopTime(), recording.getSize());
+        }
+    }
+}
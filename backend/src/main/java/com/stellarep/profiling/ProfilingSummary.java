@@ -0,0 +1,20 @@
+package com.stellarep.profiling;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Aggregated view of a recording. Hotspots are keyed by stage and site, where the site is the
+ * first stack frame outside the JDK; events outside any scoring stage fall under {@code other}.
+ * Hotspot totals are milliseconds, except allocations (sampled bytes) and CPU (sample count).
+ */
+public record ProfilingSummary(Instant from, Instant to, List<StageStats> stages, List<Hotspot> cpu,
+                               List<Hotspot> allocations, List<Hotspot> contention, List<Hotspot> blockedIo) {
+
+    public record StageStats(String stage, long count, double totalMs, double maxMs, long cpuSamples,
+                             long allocatedBytes, double lockWaitMs, double ioWaitMs) {
+    }
+
+    public record Hotspot(String stage, String site, long count, double total) {
+    }
+}
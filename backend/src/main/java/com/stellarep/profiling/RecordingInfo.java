@@ -0,0 +1,7 @@
+package com.stellarep.profiling;
+
+import java.time.Instant;
+
+public record RecordingInfo(long id, String name, RecordingProfile profile, String state,
+                            Instant startedAt, Instant stoppedAt, long sizeBytes) {
+}
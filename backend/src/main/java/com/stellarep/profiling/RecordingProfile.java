@@ -0,0 +1,56 @@
+package com.stellarep.profiling;
+
+import com.stellarep.exception.InvalidRequestException;
+import jdk.jfr.Configuration;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Preset JFR settings for admin-started recordings, layered over the JDK's {@code default}
+ * (about 1% overhead, used for the continuous recording) or {@code profile} configuration.
+ */
+public enum RecordingProfile {
+    CONTINUOUS("default", Map.of()),
+    CPU("profile", Map.of()),
+    ALLOCATION("profile", Map.of(
+            "jdk.ObjectAllocationSample#enabled", "true",
+            "jdk.ObjectAllocationSample#throttle", "1000/s")),
+    CONTENTION("default", Map.of(
+            "jdk.JavaMonitorEnter#threshold", "1 ms",
+            "jdk.ThreadPark#threshold", "1 ms",
+            "jdk.SocketRead#threshold", "1 ms",
+            "jdk.SocketWrite#threshold", "1 ms",
+            "jdk.FileRead#threshold", "1 ms",
+            "jdk.FileWrite#threshold", "1 ms"));
+
+    private final String baseConfiguration;
+    private final Map<String, String> overrides;
+
+    RecordingProfile(String baseConfiguration, Map<String, String> overrides) {
+        this.baseConfiguration = baseConfiguration;
+        this.overrides = overrides;
+    }
+
+    public static RecordingProfile parse(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRequestException("Unknown recording profile: " + value);
+        }
+    }
+
+    Map<String, String> settings() {
+        Map<String, String> settings;
+        try {
+            settings = new HashMap<>(Configuration.getConfiguration(baseConfiguration).getSettings());
+        } catch (Exception e) {
+            throw new IllegalStateException("JFR configuration " + baseConfiguration + " is not available", e);
+        }
+        settings.putAll(overrides);
+        settings.put(ScoringStageEvent.NAME + "#enabled", "true");
+        settings.put(ScoringStageEvent.NAME + "#threshold", "0 ms");
+        return settings;
+    }
+}
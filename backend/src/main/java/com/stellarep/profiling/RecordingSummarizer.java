@@ -0,0 +1,244 @@
+package com.stellarep.profiling;
+
+import jdk.jfr.consumer.RecordedClass;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordedThread;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Reads a JFR file twice: first to collect {@link ScoringStageEvent} spans per thread, then to
+ * attribute CPU samples, allocation samples, lock waits and blocking I/O to those spans.
+ */
+final class RecordingSummarizer {
+
+    static final String OTHER_STAGE = "other";
+
+    private static final int MAX_NESTING = 32;
+    private static final String[] JDK_PACKAGES = {"java.", "javax.", "jdk.", "sun.", "com.sun."};
+
+    private final Instant since;
+    private final int topSites;
+    private final Map<Long, List<StageSpan>> spansByThread = new HashMap<>();
+    private final Map<String, StageTotals> stages = new TreeMap<>();
+    private final Map<HotspotKey, HotspotTotals> cpu = new HashMap<>();
+    private final Map<HotspotKey, HotspotTotals> allocations = new HashMap<>();
+    private final Map<HotspotKey, HotspotTotals> contention = new HashMap<>();
+    private final Map<HotspotKey, HotspotTotals> blockedIo = new HashMap<>();
+    private Instant from;
+    private Instant to;
+
+    private RecordingSummarizer(Instant since, int topSites) {
+        this.since = since;
+        this.topSites = topSites;
+    }
+
+    static ProfilingSummary summarize(Path file, Instant since, int topSites) throws IOException {
+        RecordingSummarizer summarizer = new RecordingSummarizer(since, topSites);
+        summarizer.readStages(file);
+        summarizer.readHotspots(file);
+        return summarizer.toSummary();
+    }
+
+    private void readStages(Path file) throws IOException {
+        try (RecordingFile recording = new RecordingFile(file)) {
+            while (recording.hasMoreEvents()) {
+                RecordedEvent event = recording.readEvent();
+                if (!ScoringStageEvent.NAME.equals(event.getEventType().getName()) || !inWindow(event)) {
+                    continue;
+                }
+                String stage = event.getString("stage");
+                stages.computeIfAbsent(stage, StageTotals::new).addSpan(durationMs(event));
+                RecordedThread thread = event.getThread();
+                if (thread != null) {
+                    spansByThread.computeIfAbsent(thread.getJavaThreadId(), id -> new ArrayList<>())
+                            .add(new StageSpan(event.getStartTime(), event.getEndTime(), stage));
+                }
+            }
+        }
+        for (List<StageSpan> spans : spansByThread.values()) {
+            spans.sort(Comparator.comparing(StageSpan::start));
+        }
+    }
+
+    private void readHotspots(Path file) throws IOException {
+        try (RecordingFile recording = new RecordingFile(file)) {
+            while (recording.hasMoreEvents()) {
+                RecordedEvent event = recording.readEvent();
+                if (!inWindow(event)) {
+                    continue;
+                }
+                switch (event.getEventType().getName()) {
+                    case "jdk.ExecutionSample" -> {
+                        StageTotals stage = stageOf(event.getThread("sampledThread"), event.getStartTime());
+                        stage.cpuSamples++;
+                        add(cpu, stage, site(event, null), 1);
+                    }
+                    case "jdk.ObjectAllocationSample" -> {
+                        StageTotals stage = stageOf(event.getThread(), event.getStartTime());
+                        long weight = event.getLong("weight");
+                        stage.allocatedBytes += weight;
+                        add(allocations, stage, site(event, className(event.getClass("objectClass"))), weight);
+                    }
+                    case "jdk.JavaMonitorEnter", "jdk.ThreadPark" -> {
+                        StageTotals stage = stageOf(event.getThread(), event.getStartTime());
+                        String field = event.hasField("monitorClass") ? "monitorClass" : "parkedClass";
+                        stage.lockWaitMs += durationMs(event);
+                        add(contention, stage, site(event, className(event.getClass(field))), durationMs(event));
+                    }
+                    case "jdk.SocketRead", "jdk.SocketWrite" -> {
+                        StageTotals stage = stageOf(event.getThread(), event.getStartTime());
+                        stage.ioWaitMs += durationMs(event);
+                        add(blockedIo, stage, site(event, event.getString("host") + ":" + event.getInt("port")),
+                                durationMs(event));
+                    }
+                    case "jdk.FileRead", "jdk.FileWrite" -> {
+                        StageTotals stage = stageOf(event.getThread(), event.getStartTime());
+                        stage.ioWaitMs += durationMs(event);
+                        add(blockedIo, stage, site(event, event.getString("path")), durationMs(event));
+                    }
+                    default -> {
+                    }
+                }
+            }
+        }
+    }
+
+    private boolean inWindow(RecordedEvent event) {
+        if (event.getStartTime().isBefore(since)) {
+            return false;
+        }
+        if (from == null || event.getStartTime().isBefore(from)) {
+            from = event.getStartTime();
+        }
+        if (to == null || event.getEndTime().isAfter(to)) {
+            to = event.getEndTime();
+        }
+        return true;
+    }
+
+    private StageTotals stageOf(RecordedThread thread, Instant time) {
+        List<StageSpan> spans = thread != null ? spansByThread.get(thread.getJavaThreadId()) : null;
+        String stage = OTHER_STAGE;
+        if (spans != null) {
+            int low = 0;
+            int high = spans.size() - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (spans.get(mid).start().isAfter(time)) {
+                    high = mid - 1;
+                } else {
+                    low = mid + 1;
+                }
+            }
+            for (int i = high; i >= 0 && i > high - MAX_NESTING; i--) {
+                if (!spans.get(i).end().isBefore(time)) {
+                    stage = spans.get(i).stage();
+                    break;
+                }
+            }
+        }
+        return stages.computeIfAbsent(stage, StageTotals::new);
+    }
+
+    private static void add(Map<HotspotKey, HotspotTotals> hotspots, StageTotals stage, String site, double value) {
+        HotspotTotals totals = hotspots.computeIfAbsent(new HotspotKey(stage.name, site), key -> new HotspotTotals());
+        totals.count++;
+        totals.total += value;
+    }
+
+    private static String site(RecordedEvent event, String subject) {
+        String frame = "unknown";
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        if (stackTrace != null && !stackTrace.getFrames().isEmpty()) {
+            RecordedFrame selected = stackTrace.getFrames().get(0);
+            for (RecordedFrame candidate : stackTrace.getFrames()) {
+                if (candidate.isJavaFrame() && !isJdkClass(candidate.getMethod().getType().getName())) {
+                    selected = candidate;
+                    break;
+                }
+            }
+            frame = selected.getMethod().getType().getName() + "." + selected.getMethod().getName()
+                    + ":" + selected.getLineNumber();
+        }
+        return subject != null ? subject + " @ " + frame : frame;
+    }
+
+    private static boolean isJdkClass(String className) {
+        for (String prefix : JDK_PACKAGES) {
+            if (className.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String className(RecordedClass recordedClass) {
+        return recordedClass != null ? recordedClass.getName() : "unknown";
+    }
+
+    private static double durationMs(RecordedEvent event) {
+        return event.getDuration().toNanos() / 1_000_000.0;
+    }
+
+    private ProfilingSummary toSummary() {
+        List<ProfilingSummary.StageStats> stageStats = stages.values().stream()
+                .map(stage -> new ProfilingSummary.StageStats(stage.name, stage.count, stage.totalMs, stage.maxMs,
+                        stage.cpuSamples, stage.allocatedBytes, stage.lockWaitMs, stage.ioWaitMs))
+                .toList();
+        return new ProfilingSummary(from, to, stageStats, top(cpu), top(allocations), top(contention), top(blockedIo));
+    }
+
+    private List<ProfilingSummary.Hotspot> top(Map<HotspotKey, HotspotTotals> hotspots) {
+        return hotspots.entrySet().stream()
+                .sorted(Comparator.comparingDouble(
+                        (Map.Entry<HotspotKey, HotspotTotals> entry) -> entry.getValue().total).reversed())
+                .limit(topSites)
+                .map(entry -> new ProfilingSummary.Hotspot(entry.getKey().stage(), entry.getKey().site(),
+                        entry.getValue().count, entry.getValue().total))
+                .toList();
+    }
+
+    private record StageSpan(Instant start, Instant end, String stage) {
+    }
+
+    private record HotspotKey(String stage, String site) {
+    }
+
+    private static final class HotspotTotals {
+        private long count;
+        private double total;
+    }
+
+    private static final class StageTotals {
+        private final String name;
+        private long count;
+        private double totalMs;
+        private double maxMs;
+        private long cpuSamples;
+        private long allocatedBytes;
+        private double lockWaitMs;
+        private double ioWaitMs;
+
+        StageTotals(String name) {
+            this.name = name;
+        }
+
+        void addSpan(double durationMs) {
+            count++;
+            totalMs += durationMs;
+            maxMs = Math.max(maxMs, durationMs);
+        }
+    }
+}
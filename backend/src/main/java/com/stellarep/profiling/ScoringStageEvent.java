@@ -0,0 +1,51 @@
+package com.stellarep.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event spanning one stage of scoring or reading a wallet. Recording summaries attribute
+ * allocation, lock and I/O events on the same thread to the innermost stage that covers them.
+ * Use with try-with-resources; the event is only committed when a recording has it enabled.
+ */
+@Name(ScoringStageEvent.NAME)
+@Label("Scoring Stage")
+@Category({"StellaRep", "Scoring"})
+@Description("One stage of calculating or reading a wallet's reputation")
+@StackTrace(false)
+public class ScoringStageEvent extends Event implements AutoCloseable {
+
+    public static final String NAME = "com.stellarep.ScoringStage";
+
+    public static final String COLLECT = "collect";
+    public static final String ETHERSCAN_PARSE = "etherscan.parse";
+    public static final String SCORE = "score";
+    public static final String PUBLISH = "publish";
+    public static final String PERSIST = "persist";
+    public static final String READ = "read";
+
+    @Label("Stage")
+    String stage;
+
+    @Label("Address")
+    String address;
+
+    public static ScoringStageEvent begin(String stage, String address) {
+        ScoringStageEvent event = new ScoringStageEvent();
+        if (event.isEnabled()) {
+            event.stage = stage;
+            event.address = address;
+            event.begin();
+        }
+        return event;
+    }
+
+    @Override
+    public void close() {
+        commit();
+    }
+}
@@ -0,0 +1,18 @@
+package com.stellarep.quota;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Charges each call of the annotated handler against the caller's quota for the given tier.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ClientQuota {
+
+    QuotaTier value();
+}
@@ -0,0 +1,29 @@
+package com.stellarep.quota;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Enforces {@link ClientQuota} on controller methods before they run.
+ */
+@Component
+@RequiredArgsConstructor
+public class ClientQuotaInterceptor implements HandlerInterceptor {
+
+    private final ClientQuotaService clientQuotaService;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod handlerMethod) {
+            ClientQuota quota = handlerMethod.getMethodAnnotation(ClientQuota.class);
+            if (quota != null) {
+                clientQuotaService.check(request, quota.value());
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,141 @@
+package com.stellarep.quota;
+
+import com.stellarep.exception.QuotaExceededException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-client request quotas. Callers presenting a configured {@code X-API-Key} are limited by
+ * client name, with limits scaled by the client's multiplier; everyone else is limited per remote
+ * address. Buckets live in a {@link ConcurrentHashMap} per tier, so lookups for existing clients
+ * take no lock, and full buckets are dropped periodically since a fresh bucket is equivalent.
+ * Metrics are tagged with the client name, or {@code anonymous} for address-based callers.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ClientQuotaService {
+
+    public static final String API_KEY_HEADER = "X-API-Key";
+
+    private static final String ANONYMOUS_CLIENT = "anonymous";
+
+    @Value("${app.quota.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.quota.max-tracked-clients:100000}")
+    private int maxTrackedClients;
+
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<QuotaTier, TierBuckets> tiers = new EnumMap<>(QuotaTier.class);
+    private Map<String, ApiClient> clientsByKey = Map.of();
+
+    @PostConstruct
+    void init() {
+        Map<String, ApiClient> clients = new HashMap<>();
+        for (ApiClient client : Binder.get(environment)
+                .bind("app.quota.clients", Bindable.listOf(ApiClient.class))
+                .orElse(List.of())) {
+            if (client.apiKey() != null && !client.apiKey().isBlank()) {
+                clients.put(client.apiKey(), client);
+            }
+        }
+        clientsByKey = Map.copyOf(clients);
+
+        for (QuotaTier tier : QuotaTier.values()) {
+            String prefix = "app.quota.tiers." + tier.getKey() + ".";
+            TierBuckets buckets = new TierBuckets(
+                    environment.getProperty(prefix + "per-second", Double.class, tier.getDefaultPerSecond()),
+                    environment.getProperty(prefix + "burst", Integer.class, tier.getDefaultBurst()));
+            tiers.put(tier, buckets);
+            Gauge.builder("api.quota.tracked.clients", buckets.buckets, Map::size)
+                    .tag("tier", tier.getKey())
+                    .register(meterRegistry);
+        }
+        log.info("Client quotas {} for {} API client(s)", enabled ? "enabled" : "disabled", clientsByKey.size());
+    }
+
+    public void check(HttpServletRequest request, QuotaTier tier) {
+        TierBuckets buckets = tiers.get(tier);
+        if (!enabled || buckets.perSecond <= 0) {
+            return;
+        }
+        String apiKey = request.getHeader(API_KEY_HEADER);
+        ApiClient client = apiKey != null ? clientsByKey.get(apiKey) : null;
+        String clientName = client != null ? client.name() : ANONYMOUS_CLIENT;
+        String bucketKey = client != null ? "key:" + client.name() : "ip:" + request.getRemoteAddr();
+        double multiplier = client != null ? client.multiplier() : 1.0;
+
+        long now = System.nanoTime();
+        long waitNanos = buckets.bucket(bucketKey, multiplier, now).tryAcquire(now);
+        meterRegistry.counter("api.quota.requests",
+                "client", clientName, "tier", tier.getKey(), "result", waitNanos == 0 ? "allowed" : "rejected")
+                .increment();
+        if (waitNanos > 0) {
+            throw new QuotaExceededException(tier.getKey(),
+                    Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1)));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.quota.eviction-interval-ms:60000}")
+    public void evictIdleClients() {
+        long now = System.nanoTime();
+        for (TierBuckets buckets : tiers.values()) {
+            buckets.buckets.values().removeIf(bucket -> bucket.isFull(now));
+        }
+    }
+
+    public record ApiClient(String name, String apiKey, Double multiplier) {
+        public ApiClient {
+            multiplier = multiplier != null && multiplier > 0 ? multiplier : 1.0;
+        }
+    }
+
+    private final class TierBuckets {
+        private final double perSecond;
+        private final int burst;
+        private final Map<String, RateBucket> buckets = new ConcurrentHashMap<>();
+        private final RateBucket overflow;
+
+        TierBuckets(double perSecond, int burst) {
+            this.perSecond = perSecond;
+            this.burst = burst;
+            this.overflow = perSecond > 0 ? new RateBucket(perSecond, burst, System.nanoTime()) : null;
+        }
+
+        /**
+         * Once {@code max-tracked-clients} buckets exist, untracked callers share one overflow
+         * bucket until eviction frees room.
+         */
+        RateBucket bucket(String key, double multiplier, long now) {
+            RateBucket bucket = buckets.get(key);
+            if (bucket != null) {
+                return bucket;
+            }
+            if (buckets.size() >= maxTrackedClients) {
+                return overflow;
+            }
+            return buckets.computeIfAbsent(key, k ->
+                    new RateBucket(perSecond * multiplier, (int) Math.ceil(burst * multiplier), now));
+        }
+    }
+}
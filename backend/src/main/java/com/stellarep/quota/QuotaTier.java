@@ -0,0 +1,41 @@
+package com.stellarep.quota;
+
+import com.stellarep.workload.WorkloadLane;
+
+/**
+ * Endpoint groups with separate per-client limits, configured under {@code app.quota.tiers.<key>}, and
+ * the workload lane their requests run in.
+ */
+public enum QuotaTier {
+    CALCULATE("calculate", 1.0, 5, WorkloadLane.INTERACTIVE),
+    READ("read", 20.0, 50, WorkloadLane.INTERACTIVE),
+    BATCH("batch", 0.2, 2, WorkloadLane.BATCH);
+
+    private final String key;
+    private final double defaultPerSecond;
+    private final int defaultBurst;
+    private final WorkloadLane lane;
+
+    QuotaTier(String key, double defaultPerSecond, int defaultBurst, WorkloadLane lane) {
+        this.key = key;
+        this.defaultPerSecond = defaultPerSecond;
+        this.defaultBurst = defaultBurst;
+        this.lane = lane;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public double getDefaultPerSecond() {
+        return defaultPerSecond;
+    }
+
+    public int getDefaultBurst() {
+        return defaultBurst;
+    }
+
+    public WorkloadLane getLane() {
+        return lane;
+    }
+}
@@ -0,0 +1,45 @@
+package com.stellarep.quota;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket kept as a single theoretical arrival time (GCRA): each permit pushes it forward by
+ * one emission interval, and a request is admitted while it stays within {@code burst} intervals of
+ * now. Acquiring is one compare-and-set, so concurrent callers never block each other.
+ */
+final class RateBucket {
+
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final AtomicLong theoreticalArrival;
+
+    RateBucket(double perSecond, int burst, long nowNanos) {
+        this.emissionIntervalNanos = Math.max(1, (long) (1_000_000_000L / perSecond));
+        this.burstToleranceNanos = emissionIntervalNanos * Math.max(1, burst);
+        this.theoreticalArrival = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * Takes a permit and returns 0, or returns the nanoseconds until one becomes available.
+     */
+    long tryAcquire(long nowNanos) {
+        while (true) {
+            long arrival = theoreticalArrival.get();
+            long next = (arrival - nowNanos < 0 ? nowNanos : arrival) + emissionIntervalNanos;
+            long waitNanos = next - nowNanos - burstToleranceNanos;
+            if (waitNanos > 0) {
+                return waitNanos;
+            }
+            if (theoreticalArrival.compareAndSet(arrival, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * True once the bucket has refilled completely, i.e. it behaves like a newly created one.
+     */
+    boolean isFull(long nowNanos) {
+        return theoreticalArrival.get() - nowNanos <= 0;
+    }
+}
@@ -0,0 +1,46 @@
+package com.stellarep.repository;
+
+import com.stellarep.dto.ScoreResponse;
+import com.stellarep.util.AddressCodec;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Maps {@code wallet_scores} rows straight to {@link ScoreResponse}, for read paths that do not need
+ * managed entities.
+ */
+public final class ScoreRows {
+
+    private ScoreRows() {
+    }
+
+    public static ScoreResponse toScoreResponse(ResultSet rs, int rowNum) throws SQLException {
+        Timestamp calculatedAt = rs.getTimestamp("calculated_at");
+        byte[] ethereumAddress = rs.getBytes("ethereum_address");
+        return ScoreResponse.builder()
+                .stellarAddress(AddressCodec.encodeStellar(rs.getBytes("stellar_address")))
+                .ethereumAddress(ethereumAddress != null ? AddressCodec.encodeEthereum(ethereumAddress) : null)
+                .totalScore(rs.getInt("score"))
+                .stellarScore(rs.getInt("stellar_score"))
+                .ethereumScore(rs.getInt("ethereum_score"))
+                .socialScore(rs.getInt("social_score"))
+                .breakdown(ScoreResponse.ScoreBreakdown.builder()
+                        .accountAgeDays(rs.getLong("account_age_days"))
+                        .transactionCount(rs.getLong("transaction_count"))
+                        .stellarBalance(rs.getDouble("stellar_balance"))
+                        .hasEthereumHistory((Boolean) rs.getObject("has_ethereum_history"))
+                        .ethereumAgeDays(rs.getLong("ethereum_age_days"))
+                        .ethereumTransactionCount(null)
+                        .ethereumBalance(rs.getDouble("ethereum_balance"))
+                        .build())
+                .calculatedAt(calculatedAt != null ? calculatedAt.toLocalDateTime() : null)
+                .onChain(false)
+                .degraded(false)
+                .missingComponents(List.of())
+                .staleComponents(List.of())
+                .build();
+    }
+}
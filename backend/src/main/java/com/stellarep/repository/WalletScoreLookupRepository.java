@@ -0,0 +1,47 @@
+package com.stellarep.repository;
+
+import com.stellarep.dto.ScoreResponse;
+import com.stellarep.util.AddressCodec;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Set-based score lookups: one statement for any number of addresses, matched with
+ * {@code = ANY(array)} against the stellar_address unique index and idx_ethereum_address.
+ */
+@Repository
+@RequiredArgsConstructor
+public class WalletScoreLookupRepository {
+
+    private static final String FIND_BY_ADDRESSES_SQL = """
+            SELECT stellar_address, ethereum_address, score, stellar_score, ethereum_score, social_score,
+                   account_age_days, transaction_count, stellar_balance, has_ethereum_history,
+                   ethereum_age_days, ethereum_balance, calculated_at
+            FROM wallet_scores
+            WHERE stellar_address = ANY(?) OR ethereum_address = ANY(?)
+            ORDER BY updated_at DESC
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Returns the scores of the given Stellar accounts and every score linked to one of the given
+     * Ethereum addresses, most recently updated first.
+     */
+    public List<ScoreResponse> findByAddresses(Collection<String> stellarAddresses,
+                                               Collection<String> ethereumAddresses) {
+        byte[][] stellarKeys = stellarAddresses.stream().map(AddressCodec::decodeStellar).toArray(byte[][]::new);
+        byte[][] ethereumKeys = ethereumAddresses.stream().map(AddressCodec::decodeEthereum).toArray(byte[][]::new);
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(FIND_BY_ADDRESSES_SQL);
+            statement.setArray(1, connection.createArrayOf("bytea", stellarKeys));
+            statement.setArray(2, connection.createArrayOf("bytea", ethereumKeys));
+            return statement;
+        }, ScoreRows::toScoreResponse);
+    }
+}
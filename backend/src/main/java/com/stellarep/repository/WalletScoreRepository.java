@@ -2,12 +2,23 @@ package com.stellarep.repository;
 
 import com.stellarep.entity.WalletScore;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 @Repository
 public interface WalletScoreRepository extends JpaRepository<WalletScore, Long> {
     Optional<WalletScore> findByStellarAddress(String stellarAddress);
     boolean existsByStellarAddress(String stellarAddress);
+
+    @Query("SELECT w.updatedAt FROM WalletScore w WHERE w.stellarAddress = :stellarAddress")
+    Optional<LocalDateTime> findUpdatedAtByStellarAddress(@Param("stellarAddress") String stellarAddress);
+
+    @Modifying
+    @Query("UPDATE WalletScore w SET w.publishedScore = :publishedScore WHERE w.id = :id")
+    int updatePublishedScore(@Param("id") Long id, @Param("publishedScore") Integer publishedScore);
 }
@@ -0,0 +1,13 @@
+package com.stellarep.service;
+
+import com.stellarep.dto.EthereumAccountData;
+import com.stellarep.upstream.Deadline;
+
+/**
+ * Source of Ethereum wallet data, selected with {@code ethereum.source}: {@code etherscan} (default)
+ * or {@code jsonrpc}.
+ */
+public interface EthereumDataSource {
+
+    EthereumAccountData analyzeWallet(String ethereumAddress, Deadline deadline);
+}
@@ -2,19 +2,39 @@ package com.stellarep.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.stellarep.dto.EthereumAccountData;
+import com.stellarep.exception.DeadlineExceededException;
+import com.stellarep.exception.UpstreamBusyException;
+import com.stellarep.exception.UpstreamUnavailableException;
+import com.stellarep.profiling.ScoringStageEvent;
+import com.stellarep.snapshot.SnapshotKey;
+import com.stellarep.snapshot.SnapshotStore;
+import com.stellarep.upstream.Deadline;
+import com.stellarep.upstream.NegativeCache;
+import com.stellarep.upstream.UpstreamCache;
+import com.stellarep.upstream.UpstreamDataType;
+import com.stellarep.upstream.UpstreamLimiters;
+import com.stellarep.upstream.UpstreamResponseException;
 import lombok.extern.slf4j.Slf4j;
+import okhttp3.Call;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.Response;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 
+import java.io.InterruptedIOException;
 import java.math.BigInteger;
 import java.time.Instant;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 @Service
+@ConditionalOnProperty(name = "ethereum.source", havingValue = "etherscan", matchIfMissing = true)
 @Slf4j
-public class EtherscanService {
+public class EtherscanService implements EthereumDataSource {
 
     @Value("${etherscan.base-url}")
     private String baseUrl;
@@ -24,13 +44,27 @@ public class EtherscanService {
 
     private final OkHttpClient httpClient;
     private final ObjectMapper objectMapper;
-
-    public EtherscanService() {
-        this.httpClient = new OkHttpClient();
+    private final UpstreamLimiters upstreamLimiters;
+    private final NegativeCache negativeResultCache;
+    private final UpstreamCache upstreamCache;
+
+    private static final String NEGATIVE_CACHE_PREFIX = "ethereum:";
+    private static final String NO_TRANSACTIONS_FOUND = "No transactions found";
+
+    public EtherscanService(UpstreamLimiters upstreamLimiters, NegativeCache negativeResultCache,
+                            UpstreamCache upstreamCache, SnapshotStore snapshotStore) {
+        OkHttpClient.Builder httpClientBuilder = new OkHttpClient.Builder();
+        snapshotStore.interceptor(url -> SnapshotKey.forEtherscan("ethereum", url))
+                .ifPresent(httpClientBuilder::addInterceptor);
+        this.httpClient = httpClientBuilder.build();
         this.objectMapper = new ObjectMapper();
+        this.upstreamLimiters = upstreamLimiters;
+        this.negativeResultCache = negativeResultCache;
+        this.upstreamCache = upstreamCache;
     }
 
-    public EthereumAccountData analyzeWallet(String ethereumAddress) {
+    @Override
+    public EthereumAccountData analyzeWallet(String ethereumAddress, Deadline deadline) {
         if (ethereumAddress == null || ethereumAddress.trim().isEmpty()) {
             log.warn("Ethereum address is null or empty");
             return EthereumAccountData.empty();
@@ -43,24 +77,33 @@ public class EtherscanService {
             return EthereumAccountData.empty();
         }
 
+        String cacheKey = NEGATIVE_CACHE_PREFIX + ethereumAddress.toLowerCase();
+        if (negativeResultCache.contains(cacheKey)) {
+            log.debug("Ethereum address {} recently had no transactions, skipping Etherscan lookup", ethereumAddress);
+            return EthereumAccountData.empty();
+        }
+
         try {
             log.info("Fetching Ethereum data for address: {}", ethereumAddress);
-            
-            String balanceResponse = fetchBalance(ethereumAddress);
-            String txCountResponse = fetchTransactionCount(ethereumAddress);
-            String firstTxResponse = fetchFirstTransaction(ethereumAddress);
-
-            log.debug("Balance response: {}", balanceResponse);
-            log.debug("Tx count response: {}", txCountResponse);
-            log.debug("First tx response length: {}", firstTxResponse != null ? firstTxResponse.length() : 0);
-
-            BigInteger balanceWei = parseBalance(balanceResponse);
-            long txCount = parseTransactionCount(txCountResponse);
-            long firstTxTimestamp = parseFirstTransaction(firstTxResponse);
+
+            String address = ethereumAddress;
+            String key = address.toLowerCase();
+            BigInteger balanceWei = upstreamCache.get(UpstreamDataType.ETHEREUM_BALANCE, key, BigInteger.class,
+                    d -> parseBalance(fetchBalance(address, d)), deadline);
+            long txCount = upstreamCache.get(UpstreamDataType.ETHEREUM_TRANSACTION_COUNT, key, Long.class,
+                    d -> parseTransactionCount(fetchTransactionCount(address, d)), deadline);
+            long firstTxTimestamp = upstreamCache.get(UpstreamDataType.ETHEREUM_FIRST_TRANSACTION, key, Long.class,
+                    d -> parseFirstTransaction(fetchFirstTransaction(address, d)), deadline);
             long accountAgeDays = calculateAccountAge(firstTxTimestamp);
 
             double balanceEth = balanceWei.divide(new BigInteger("1000000000000000000")).doubleValue();
 
+            // A zero first transaction only ever comes from an explicit "No transactions found" reply.
+            if (firstTxTimestamp == 0 && txCount == 0 && balanceWei.signum() == 0) {
+                log.info("Ethereum address {} has no transactions", ethereumAddress);
+                negativeResultCache.put(cacheKey);
+            }
+
             log.info("Ethereum analysis - Balance: {} ETH, TxCount: {}, Age: {} days, HasHistory: {}", 
                     balanceEth, txCount, accountAgeDays, firstTxTimestamp > 0);
 
@@ -72,96 +115,106 @@ public class EtherscanService {
                     .firstTxTimestamp(firstTxTimestamp)
                     .build();
 
+        } catch (UpstreamBusyException | DeadlineExceededException | UpstreamUnavailableException e) {
+            throw e;
         } catch (Exception e) {
-            log.error("Error analyzing Ethereum wallet: {} - Error: {}", ethereumAddress, e.getMessage(), e);
-            return EthereumAccountData.empty();
+            throw new UpstreamUnavailableException("Failed to analyze Ethereum wallet " + ethereumAddress + " via Etherscan", e);
         }
     }
 
-    private String fetchBalance(String address) throws Exception {
+    private Map<String, Object> fetchBalance(String address, Deadline deadline) throws Exception {
         String url = baseUrl + "?module=account&action=balance&address=" + address + "&tag=latest&apikey=" + apiKey;
         Request request = new Request.Builder().url(url).build();
-
-        try (Response response = httpClient.newCall(request).execute()) {
-            if (response.isSuccessful() && response.body() != null) {
-                return response.body().string();
-            }
-            throw new RuntimeException("Failed to fetch balance");
-        }
+        return get(request, "Failed to fetch balance", deadline);
     }
 
-    private String fetchTransactionCount(String address) throws Exception {
+    private Map<String, Object> fetchTransactionCount(String address, Deadline deadline) throws Exception {
         String url = baseUrl + "?module=proxy&action=eth_getTransactionCount&address=" + address + "&tag=latest&apikey="
                 + apiKey;
         Request request = new Request.Builder().url(url).build();
-
-        try (Response response = httpClient.newCall(request).execute()) {
-            if (response.isSuccessful() && response.body() != null) {
-                return response.body().string();
-            }
-            throw new RuntimeException("Failed to fetch transaction count");
-        }
+        return get(request, "Failed to fetch transaction count", deadline);
     }
 
-    private String fetchFirstTransaction(String address) throws Exception {
+    private Map<String, Object> fetchFirstTransaction(String address, Deadline deadline) throws Exception {
         String url = baseUrl + "?module=account&action=txlist&address=" + address
                 + "&startblock=0&endblock=99999999&page=1&offset=1&sort=asc&apikey=" + apiKey;
         Request request = new Request.Builder().url(url).build();
+        return get(request, "Failed to fetch first transaction", deadline);
+    }
 
-        try (Response response = httpClient.newCall(request).execute()) {
-            if (response.isSuccessful() && response.body() != null) {
-                return response.body().string();
+    /**
+     * Etherscan reports rate limiting with HTTP 200 and a {@code NOTOK} payload, so the payload is
+     * checked inside the limited call for the limiter to see it as overload.
+     */
+    private Map<String, Object> get(Request request, String failureMessage, Deadline deadline) throws Exception {
+        return upstreamLimiters.etherscan().execute(() -> {
+            Call call = httpClient.newCall(request);
+            call.timeout().timeout(Math.max(1, deadline.remainingMillis()), TimeUnit.MILLISECONDS);
+            try (Response response = call.execute()) {
+                if (response.isSuccessful() && response.body() != null) {
+                    Map<String, Object> payload = readResponse(response.body().string());
+                    if (!"1".equals(payload.get("status")) && payload.get("result") instanceof String result
+                            && result.toLowerCase(Locale.ROOT).contains("rate limit")) {
+                        throw new UpstreamResponseException(failureMessage + ": " + result, true);
+                    }
+                    return payload;
+                }
+                throw UpstreamResponseException.forStatus(failureMessage, response.code());
+            } catch (InterruptedIOException e) {
+                if (deadline.isExpired()) {
+                    throw new DeadlineExceededException("Latency budget exhausted while waiting for Etherscan");
+                }
+                throw e;
             }
-            throw new RuntimeException("Failed to fetch first transaction");
-        }
+        }, deadline);
     }
 
-    private BigInteger parseBalance(String jsonResponse) throws Exception {
-        var responseType = objectMapper.getTypeFactory().constructMapType(
-                java.util.Map.class, String.class, Object.class);
-        java.util.Map<String, Object> response = objectMapper.readValue(jsonResponse, responseType);
-
-        if ("1".equals(response.get("status")) && response.get("result") != null) {
-            String balanceStr = response.get("result").toString();
-            return new BigInteger(balanceStr);
+    private Map<String, Object> readResponse(String jsonResponse) throws Exception {
+        var responseType = objectMapper.getTypeFactory().constructMapType(Map.class, String.class, Object.class);
+        try (ScoringStageEvent stage = ScoringStageEvent.begin(ScoringStageEvent.ETHERSCAN_PARSE, null)) {
+            return objectMapper.readValue(jsonResponse, responseType);
         }
-        return BigInteger.ZERO;
     }
 
-    private long parseTransactionCount(String jsonResponse) throws Exception {
-        var responseType = objectMapper.getTypeFactory().constructMapType(
-                java.util.Map.class, String.class, Object.class);
-        java.util.Map<String, Object> response = objectMapper.readValue(jsonResponse, responseType);
-
+    private BigInteger parseBalance(Map<String, Object> response) throws UpstreamResponseException {
         if ("1".equals(response.get("status")) && response.get("result") != null) {
-            String txCountHex = response.get("result").toString();
-            if (txCountHex.startsWith("0x")) {
-                return Long.parseLong(txCountHex.substring(2), 16);
-            }
-            return Long.parseLong(txCountHex);
+            return new BigInteger(response.get("result").toString());
         }
-        return 0;
+        throw unexpected("balance", response);
     }
 
-    private long parseFirstTransaction(String jsonResponse) throws Exception {
-        var responseType = objectMapper.getTypeFactory().constructMapType(
-                java.util.Map.class, String.class, Object.class);
-        java.util.Map<String, Object> response = objectMapper.readValue(jsonResponse, responseType);
+    /**
+     * The proxy module answers in JSON-RPC form, without Etherscan's {@code status} field.
+     */
+    private long parseTransactionCount(Map<String, Object> response) throws UpstreamResponseException {
+        if (response.get("error") == null && response.get("result") instanceof String txCountHex
+                && txCountHex.startsWith("0x") && txCountHex.length() > 2) {
+            return Long.parseLong(txCountHex.substring(2), 16);
+        }
+        throw unexpected("transaction count", response);
+    }
 
-        if ("1".equals(response.get("status")) && response.get("result") != null) {
-            Object resultObj = response.get("result");
-            if (resultObj instanceof java.util.List) {
-                java.util.List<?> results = (java.util.List<?>) resultObj;
-                if (!results.isEmpty() && results.get(0) instanceof java.util.Map) {
-                    java.util.Map<String, Object> firstTx = (java.util.Map<String, Object>) results.get(0);
-                    Object timestampObj = firstTx.get("timeStamp");
-                    if (timestampObj != null) {
-                        return Long.parseLong(timestampObj.toString());
-                    }
-                }
-            }
+    /**
+     * Returns 0 only when Etherscan explicitly answered that the address has no transactions.
+     */
+    private long parseFirstTransaction(Map<String, Object> response) throws UpstreamResponseException {
+        Object resultObj = response.get("result");
+        if ("1".equals(response.get("status")) && resultObj instanceof List<?> results
+                && !results.isEmpty() && results.get(0) instanceof Map<?, ?> firstTx
+                && firstTx.get("timeStamp") != null) {
+            return Long.parseLong(firstTx.get("timeStamp").toString());
         }
-        return 0;
+        if ("0".equals(response.get("status")) && NO_TRANSACTIONS_FOUND.equals(response.get("message"))
+                && resultObj instanceof List<?> results && results.isEmpty()) {
+            return 0;
+        }
+        throw unexpected("first transaction", response);
+    }
+
+    private UpstreamResponseException unexpected(String what, Map<String, Object> response) {
+        Object detail = response.get("error") != null ? response.get("error") : response.get("result");
+        return new UpstreamResponseException("Unexpected Etherscan " + what + " response: "
+                + response.get("message") + " " + detail, false);
     }
 
     private long calculateAccountAge(long firstTxTimestamp) {
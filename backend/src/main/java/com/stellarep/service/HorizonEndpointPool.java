@@ -0,0 +1,337 @@
+package com.stellarep.service;
+
+import com.stellarep.exception.DeadlineExceededException;
+import com.stellarep.exception.UpstreamUnavailableException;
+import com.stellarep.snapshot.SnapshotKey;
+import com.stellarep.snapshot.SnapshotStore;
+import com.stellarep.upstream.AdaptiveLimiter;
+import com.stellarep.upstream.CircuitBreaker;
+import com.stellarep.upstream.Deadline;
+import com.stellarep.upstream.LatencyTracker;
+import com.stellarep.upstream.UpstreamLimiters;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.OkHttpClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.stellar.sdk.Server;
+import org.stellar.sdk.requests.ErrorResponse;
+import org.stellar.sdk.requests.TooManyRequestsException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class HorizonEndpointPool {
+
+    @FunctionalInterface
+    public interface HorizonCall<T> {
+        T call(Server server) throws Exception;
+    }
+
+    @Value("${stellar.horizon.network:testnet}")
+    private String network;
+
+    @Value("${stellar.horizon.testnet-url}")
+    private String testnetUrl;
+
+    @Value("${stellar.horizon.mainnet-url}")
+    private String mainnetUrl;
+
+    @Value("${stellar.horizon.fallback-urls:}")
+    private String fallbackUrls;
+
+    @Value("${stellar.horizon.connect-timeout-ms:2000}")
+    private long connectTimeoutMs;
+
+    @Value("${stellar.horizon.request-timeout-ms:8000}")
+    private long requestTimeoutMs;
+
+    @Value("${stellar.horizon.hedge.min-delay-ms:150}")
+    private long minHedgeDelayMs;
+
+    @Value("${stellar.horizon.hedge.min-samples:50}")
+    private int minHedgeSamples;
+
+    @Value("${stellar.horizon.breaker.failure-threshold:5}")
+    private int failureThreshold;
+
+    @Value("${stellar.horizon.breaker.open-ms:30000}")
+    private long breakerOpenMs;
+
+    @Value("${stellar.horizon.breaker.slow-call-ms:5000}")
+    private long slowCallMs;
+
+    private final ExecutorService upstreamExecutor;
+    private final UpstreamLimiters upstreamLimiters;
+    private final MeterRegistry meterRegistry;
+    private final SnapshotStore snapshotStore;
+
+    private List<HorizonEndpoint> endpoints;
+    private Counter requests;
+    private Counter hedges;
+    private Counter hedgeWins;
+    private Counter failovers;
+    private Counter shortCircuits;
+
+    @PostConstruct
+    void init() {
+        Set<String> urls = new LinkedHashSet<>();
+        urls.add("testnet".equals(network) ? testnetUrl : mainnetUrl);
+        Arrays.stream(fallbackUrls.split(","))
+                .map(String::trim)
+                .filter(url -> !url.isEmpty())
+                .forEach(urls::add);
+
+        OkHttpClient.Builder httpClientBuilder = new OkHttpClient.Builder()
+                .connectTimeout(connectTimeoutMs, TimeUnit.MILLISECONDS)
+                .readTimeout(requestTimeoutMs, TimeUnit.MILLISECONDS)
+                .callTimeout(requestTimeoutMs, TimeUnit.MILLISECONDS);
+        String snapshotChain = "stellar-" + ("testnet".equals(network) ? "testnet" : "mainnet");
+        snapshotStore.interceptor(url -> SnapshotKey.forHorizon(snapshotChain, url))
+                .ifPresent(httpClientBuilder::addInterceptor);
+        OkHttpClient httpClient = httpClientBuilder.build();
+
+        endpoints = new ArrayList<>();
+        for (String url : urls) {
+            HorizonEndpoint endpoint = new HorizonEndpoint(url, new Server(url, httpClient, httpClient));
+            endpoints.add(endpoint);
+            Gauge.builder("horizon.endpoint.breaker.open", endpoint,
+                            e -> e.breaker.getState() == CircuitBreaker.State.OPEN ? 1 : 0)
+                    .tag("endpoint", url)
+                    .register(meterRegistry);
+            Gauge.builder("horizon.endpoint.health", endpoint, HorizonEndpoint::healthScore)
+                    .tag("endpoint", url)
+                    .register(meterRegistry);
+        }
+
+        requests = meterRegistry.counter("horizon.requests");
+        hedges = meterRegistry.counter("horizon.hedges");
+        hedgeWins = meterRegistry.counter("horizon.hedge.wins");
+        failovers = meterRegistry.counter("horizon.failovers");
+        shortCircuits = meterRegistry.counter("horizon.short.circuits");
+        Gauge.builder("horizon.hedge.rate", this,
+                        pool -> ratio(pool.hedges.count(), pool.requests.count()))
+                .register(meterRegistry);
+        Gauge.builder("horizon.hedge.win.rate", this,
+                        pool -> ratio(pool.hedgeWins.count(), pool.hedges.count()))
+                .register(meterRegistry);
+
+        log.info("Horizon endpoint pool initialized with {} endpoint(s): {}", endpoints.size(), urls);
+    }
+
+    public <T> T execute(HorizonCall<T> call, Deadline deadline) {
+        if (deadline.isExpired()) {
+            throw new DeadlineExceededException("Latency budget exhausted before calling Horizon");
+        }
+        List<HorizonEndpoint> candidates = rankedEndpoints();
+        if (candidates.isEmpty()) {
+            shortCircuits.increment();
+            throw new UpstreamUnavailableException("All Horizon endpoints are currently unavailable");
+        }
+        requests.increment();
+
+        long timeoutMs = deadline.capMillis(requestTimeoutMs);
+        long expiresAt = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        HorizonEndpoint primary = candidates.get(0);
+        // hedging or failing over to the same endpoint only doubles its load
+        HorizonEndpoint backup = candidates.size() > 1 ? candidates.get(1) : null;
+        boolean canHedge = backup != null && primary.latency.sampleCount() >= minHedgeSamples;
+        long hedgeDelayMs = canHedge
+                ? Math.max(minHedgeDelayMs, primary.latency.percentileMillis(0.95))
+                : timeoutMs;
+
+        CompletableFuture<T> winner = new CompletableFuture<>();
+        CompletableFuture<T> first = attempt(primary, call, upstreamLimiters.horizon().acquire(deadline));
+        attach(first, winner, false);
+
+        try {
+            return first.get(Math.min(hedgeDelayMs, timeoutMs), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            if (!canHedge) {
+                throw timedOut(deadline, timeoutMs);
+            }
+            log.debug("Horizon call to {} exceeded hedge delay of {} ms", primary.url, hedgeDelayMs);
+        } catch (ExecutionException e) {
+            if (backup == null || isDefinitive(e.getCause())) {
+                throw propagate(e.getCause());
+            }
+            log.debug("Horizon call to {} failed, failing over: {}", primary.url, e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UpstreamUnavailableException("Interrupted while waiting for Horizon", e);
+        }
+
+        boolean hedge = !first.isDone();
+        if (hedge && System.nanoTime() >= expiresAt) {
+            throw timedOut(deadline, timeoutMs);
+        }
+        Optional<AdaptiveLimiter.Permit> permit = hedge
+                ? upstreamLimiters.horizon().tryAcquire()
+                : Optional.of(upstreamLimiters.horizon().acquire(deadline));
+        if (permit.isPresent()) {
+            if (hedge) {
+                hedges.increment();
+            } else {
+                failovers.increment();
+            }
+            CompletableFuture<T> second = attempt(backup, call, permit.get());
+            attach(second, winner, hedge);
+            CompletableFuture.allOf(first, second).whenComplete((ignored, error) -> {
+                if (error != null) {
+                    winner.completeExceptionally(
+                            error instanceof CompletionException ? error.getCause() : error);
+                }
+            });
+        } else {
+            log.debug("Horizon limiter saturated, not hedging call to {}", primary.url);
+            first.whenComplete((value, error) -> {
+                if (error != null) {
+                    winner.completeExceptionally(error);
+                }
+            });
+        }
+
+        try {
+            long remainingNanos = Math.max(0, expiresAt - System.nanoTime());
+            return winner.get(remainingNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            throw timedOut(deadline, timeoutMs);
+        } catch (ExecutionException e) {
+            throw propagate(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UpstreamUnavailableException("Interrupted while waiting for Horizon", e);
+        }
+    }
+
+    private <T> CompletableFuture<T> attempt(HorizonEndpoint endpoint, HorizonCall<T> call,
+                                             AdaptiveLimiter.Permit permit) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        if (!endpoint.breaker.isCallPermitted()) {
+            permit.cancel();
+            future.completeExceptionally(new UpstreamUnavailableException(
+                    "Horizon endpoint " + endpoint.url + " is being probed after a failure"));
+            return future;
+        }
+        try {
+            upstreamExecutor.execute(() -> {
+                long start = System.nanoTime();
+                try {
+                    T value = call.call(endpoint.server);
+                    endpoint.recordResult(System.nanoTime() - start, true);
+                    permit.release(false);
+                    future.complete(value);
+                } catch (Throwable e) {
+                    boolean definitive = isDefinitive(e);
+                    endpoint.recordResult(System.nanoTime() - start, definitive);
+                    permit.release(e);
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RuntimeException e) {
+            permit.cancel();
+            throw e;
+        }
+        return future;
+    }
+
+    private <T> void attach(CompletableFuture<T> attempt, CompletableFuture<T> winner, boolean hedge) {
+        attempt.whenComplete((value, error) -> {
+            if (error == null) {
+                if (winner.complete(value) && hedge) {
+                    hedgeWins.increment();
+                }
+            } else if (isDefinitive(error)) {
+                winner.completeExceptionally(error);
+            }
+        });
+    }
+
+    private List<HorizonEndpoint> rankedEndpoints() {
+        List<HorizonEndpoint> available = new ArrayList<>();
+        for (HorizonEndpoint endpoint : endpoints) {
+            if (endpoint.breaker.isAvailable()) {
+                available.add(endpoint);
+            }
+        }
+        available.sort(Comparator.comparingDouble(HorizonEndpoint::healthScore));
+        return available;
+    }
+
+    private static RuntimeException timedOut(Deadline deadline, long timeoutMs) {
+        if (deadline.isExpired()) {
+            return new DeadlineExceededException("Latency budget exhausted while waiting for Horizon");
+        }
+        return new UpstreamUnavailableException("Horizon request timed out after " + timeoutMs + " ms");
+    }
+
+    private static boolean isDefinitive(Throwable error) {
+        if (error instanceof TooManyRequestsException) {
+            return false;
+        }
+        return error instanceof ErrorResponse && ((ErrorResponse) error).getCode() < 500;
+    }
+
+    private static RuntimeException propagate(Throwable error) {
+        if (error instanceof RuntimeException) {
+            return (RuntimeException) error;
+        }
+        return new UpstreamUnavailableException("Horizon request failed: " + error.getMessage(), error);
+    }
+
+    private static double ratio(double numerator, double denominator) {
+        return denominator == 0 ? 0.0 : numerator / denominator;
+    }
+
+    private class HorizonEndpoint {
+        private final String url;
+        private final Server server;
+        private final CircuitBreaker breaker;
+        private final LatencyTracker latency;
+        private final Timer timer;
+
+        HorizonEndpoint(String url, Server server) {
+            this.url = url;
+            this.server = server;
+            this.breaker = new CircuitBreaker(failureThreshold, breakerOpenMs);
+            this.latency = new LatencyTracker(256);
+            this.timer = Timer.builder("horizon.endpoint.latency")
+                    .tag("endpoint", url)
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .register(meterRegistry);
+        }
+
+        void recordResult(long nanos, boolean healthy) {
+            timer.record(nanos, TimeUnit.NANOSECONDS);
+            latency.record(nanos);
+            if (healthy && TimeUnit.NANOSECONDS.toMillis(nanos) <= slowCallMs) {
+                breaker.onSuccess();
+            } else {
+                breaker.onFailure();
+            }
+        }
+
+        double healthScore() {
+            return (latency.ewmaMillis() + 1) * (1 + breaker.getConsecutiveFailures());
+        }
+    }
+}
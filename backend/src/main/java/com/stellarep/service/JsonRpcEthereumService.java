@@ -0,0 +1,387 @@
+package com.stellarep.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.stellarep.dto.EthereumAccountData;
+import com.stellarep.exception.DeadlineExceededException;
+import com.stellarep.exception.UpstreamBusyException;
+import com.stellarep.exception.UpstreamUnavailableException;
+import com.stellarep.upstream.Deadline;
+import com.stellarep.upstream.UpstreamCache;
+import com.stellarep.upstream.UpstreamDataType;
+import com.stellarep.upstream.UpstreamLimiters;
+import com.stellarep.upstream.UpstreamResponseException;
+import com.stellarep.workload.WorkloadContext;
+import com.stellarep.workload.WorkloadLane;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Ethereum data from a standard JSON-RPC node. Concurrent lookups are coalesced for up to
+ * {@code linger-ms} and sent as one JSON-RPC batch: {@code eth_blockNumber} plus
+ * {@code eth_getBalance} and {@code eth_getTransactionCount} per address. The first-activity block
+ * is found by a k-ary search over historical nonces (or balances, for receive-only addresses),
+ * which needs an archive node; its timestamp never changes and is kept in the upstream cache. If
+ * the search fails, for instance on a node without archive state, the chain is reported unavailable
+ * rather than scored with an unknown age.
+ *
+ * <p>Account age is therefore measured from the first outgoing transaction, or for an address that
+ * never sent one from a block at which its balance became non-zero; incoming transfers before that
+ * are not visible to plain JSON-RPC. Either way the age may understate but never overstate the
+ * true age. An address with a zero nonce and zero balance may still have had incoming transfers it
+ * forwarded or token activity, so it is reported without history but looked up again every time.
+ */
+@Service
+@ConditionalOnProperty(name = "ethereum.source", havingValue = "jsonrpc")
+@Slf4j
+public class JsonRpcEthereumService implements EthereumDataSource {
+
+    private static final MediaType JSON = MediaType.get("application/json");
+    private static final BigInteger WEI_PER_ETH = new BigInteger("1000000000000000000");
+
+    @Value("${ethereum.rpc.url:http://localhost:8545}")
+    private String rpcUrl;
+
+    @Value("${ethereum.rpc.request-timeout-ms:8000}")
+    private long requestTimeoutMs;
+
+    @Value("${ethereum.rpc.max-batch-size:50}")
+    private int maxBatchSize;
+
+    @Value("${ethereum.rpc.linger-ms:5}")
+    private long lingerMs;
+
+    @Value("${ethereum.rpc.first-activity-probes:16}")
+    private int firstActivityProbes;
+
+    private final OkHttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final UpstreamLimiters upstreamLimiters;
+    private final UpstreamCache upstreamCache;
+    private final ExecutorService upstreamExecutor;
+    private final MeterRegistry meterRegistry;
+
+    private final BlockingQueue<PendingLookup> pending = new LinkedBlockingQueue<>();
+
+    private Thread batcher;
+    private DistributionSummary batchSizes;
+
+    public JsonRpcEthereumService(UpstreamLimiters upstreamLimiters, UpstreamCache upstreamCache,
+                                  ExecutorService upstreamExecutor, MeterRegistry meterRegistry) {
+        this.httpClient = new OkHttpClient.Builder().build();
+        this.objectMapper = new ObjectMapper();
+        this.upstreamLimiters = upstreamLimiters;
+        this.upstreamCache = upstreamCache;
+        this.upstreamExecutor = upstreamExecutor;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    void init() {
+        batchSizes = DistributionSummary.builder("ethereum.rpc.batch.size").register(meterRegistry);
+
+        batcher = new Thread(this::runBatcher, "eth-rpc-batcher");
+        batcher.setDaemon(true);
+        batcher.start();
+        log.info("Using Ethereum JSON-RPC data source at {}", rpcUrl);
+    }
+
+    @PreDestroy
+    void close() {
+        batcher.interrupt();
+    }
+
+    @Override
+    public EthereumAccountData analyzeWallet(String ethereumAddress, Deadline deadline) {
+        if (ethereumAddress == null || ethereumAddress.trim().isEmpty()) {
+            log.warn("Ethereum address is null or empty");
+            return EthereumAccountData.empty();
+        }
+
+        String address = ethereumAddress.trim().toLowerCase(Locale.ROOT);
+        if (!address.startsWith("0x") || address.length() != 42) {
+            log.warn("Invalid Ethereum address format: {}", ethereumAddress);
+            return EthereumAccountData.empty();
+        }
+
+        try {
+            AccountState state = lookup(address, deadline);
+            if (state.nonce() == 0 && state.balanceWei().signum() == 0) {
+                log.info("Ethereum address {} has no sent transactions and no balance", address);
+                return EthereumAccountData.empty();
+            }
+
+            long firstTxTimestamp = firstActivityTimestamp(address, state, deadline);
+            long accountAgeDays = (Instant.now().getEpochSecond() - firstTxTimestamp) / 86400;
+            double balanceEth = state.balanceWei().divide(WEI_PER_ETH).doubleValue();
+
+            log.info("Ethereum analysis - Balance: {} ETH, TxCount: {}, Age: {} days",
+                    balanceEth, state.nonce(), accountAgeDays);
+
+            return EthereumAccountData.builder()
+                    .hasHistory(true)
+                    .accountAgeDays(accountAgeDays)
+                    .balance(balanceEth)
+                    .transactionCount(state.nonce())
+                    .firstTxTimestamp(firstTxTimestamp)
+                    .build();
+
+        } catch (UpstreamBusyException | DeadlineExceededException | UpstreamUnavailableException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new UpstreamUnavailableException("Failed to analyze Ethereum wallet " + address + " via JSON-RPC", e);
+        }
+    }
+
+    private AccountState lookup(String address, Deadline deadline) throws Exception {
+        PendingLookup lookup = new PendingLookup(address, deadline, WorkloadContext.current(),
+                new CompletableFuture<>());
+        pending.add(lookup);
+        try {
+            return lookup.result().get(deadline.remainingMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new DeadlineExceededException("Latency budget exhausted while waiting for Ethereum JSON-RPC");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private void runBatcher() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                List<PendingLookup> batch = new ArrayList<>(maxBatchSize);
+                batch.add(pending.take());
+                long lingerUntil = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lingerMs);
+                while (batch.size() < maxBatchSize) {
+                    PendingLookup next = pending.poll(lingerUntil - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                WorkloadLane lane = batch.stream()
+                        .map(PendingLookup::lane)
+                        .min(Comparator.naturalOrder())
+                        .orElseThrow();
+                try {
+                    upstreamExecutor.execute(() -> WorkloadContext.runIn(lane, () -> sendLookupBatch(batch)));
+                } catch (RejectedExecutionException e) {
+                    batch.forEach(lookup -> lookup.result().completeExceptionally(
+                            new UpstreamBusyException("Ethereum JSON-RPC executor is saturated")));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void sendLookupBatch(List<PendingLookup> batch) {
+        batchSizes.record(batch.size());
+        Deadline deadline = batch.stream()
+                .map(PendingLookup::deadline)
+                .max(Comparator.comparingLong(Deadline::remainingMillis))
+                .orElseThrow();
+        try {
+            List<ObjectNode> calls = new ArrayList<>(batch.size() * 2 + 1);
+            calls.add(call("eth_blockNumber"));
+            for (PendingLookup lookup : batch) {
+                calls.add(call("eth_getBalance", lookup.address(), "latest"));
+                calls.add(call("eth_getTransactionCount", lookup.address(), "latest"));
+            }
+            List<JsonNode> results = send(calls, deadline);
+            if (results.get(0) == null) {
+                throw new IOException("Ethereum JSON-RPC eth_blockNumber failed");
+            }
+            long head = parseQuantity(results.get(0)).longValue();
+            for (int i = 0; i < batch.size(); i++) {
+                PendingLookup lookup = batch.get(i);
+                JsonNode balance = results.get(2 * i + 1);
+                JsonNode nonce = results.get(2 * i + 2);
+                if (balance == null || nonce == null) {
+                    lookup.result().completeExceptionally(
+                            new IOException("Ethereum JSON-RPC returned an error for " + lookup.address()));
+                } else {
+                    lookup.result().complete(new AccountState(
+                            parseQuantity(balance), parseQuantity(nonce).longValueExact(), head));
+                }
+            }
+        } catch (Exception e) {
+            batch.forEach(lookup -> lookup.result().completeExceptionally(e));
+        }
+    }
+
+    private long firstActivityTimestamp(String address, AccountState state, Deadline deadline) {
+        try {
+            return upstreamCache.get(UpstreamDataType.ETHEREUM_FIRST_TRANSACTION, address, Long.class, d -> {
+                long block = findFirstActiveBlock(address, state, d);
+                List<JsonNode> results = send(List.of(call("eth_getBlockByNumber", toHex(block), false)), d);
+                JsonNode header = results.get(0);
+                if (header == null || header.isNull()) {
+                    throw new UpstreamResponseException("Ethereum JSON-RPC has no header for block " + block, false);
+                }
+                return parseQuantity(header.path("timestamp")).longValue();
+            }, deadline);
+        } catch (UpstreamBusyException | DeadlineExceededException | UpstreamUnavailableException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new UpstreamUnavailableException("Could not determine first activity for " + address
+                    + " (archive state required): " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Narrows {@code (lo, hi]} to the first block at which the nonce (or, for addresses that never
+     * sent a transaction, the balance) is non-zero, probing {@code first-activity-probes} blocks
+     * per round trip. The nonce never decreases, so that search is exact. A balance can drop back to
+     * zero, so for receive-only addresses the result is some block at which the balance went from
+     * zero to non-zero, no earlier than the first incoming transfer.
+     */
+    private long findFirstActiveBlock(String address, AccountState state, Deadline deadline) throws Exception {
+        boolean byNonce = state.nonce() > 0;
+        String method = byNonce ? "eth_getTransactionCount" : "eth_getBalance";
+        long lo = -1;
+        long hi = state.block();
+        while (hi - lo > 1) {
+            if (deadline.isExpired()) {
+                throw new DeadlineExceededException("Latency budget exhausted while searching Ethereum first activity");
+            }
+            long span = hi - lo - 1;
+            int probes = (int) Math.min(firstActivityProbes, span);
+            List<Long> blocks = new ArrayList<>(probes);
+            List<ObjectNode> calls = new ArrayList<>(probes);
+            for (int i = 1; i <= probes; i++) {
+                long block = lo + (span + 1) * i / (probes + 1);
+                blocks.add(block);
+                calls.add(call(method, address, toHex(block)));
+            }
+            List<JsonNode> results = send(calls, deadline);
+            long newLo = lo;
+            long newHi = hi;
+            for (int i = 0; i < probes; i++) {
+                JsonNode result = results.get(i);
+                if (result == null) {
+                    throw new IOException("Historical state unavailable at block " + blocks.get(i));
+                }
+                if (parseQuantity(result).signum() > 0) {
+                    newHi = blocks.get(i);
+                    break;
+                }
+                newLo = blocks.get(i);
+            }
+            lo = newLo;
+            hi = newHi;
+        }
+        return hi;
+    }
+
+    private ObjectNode call(String method, Object... params) {
+        ObjectNode node = objectMapper.createObjectNode();
+        node.put("jsonrpc", "2.0");
+        node.put("method", method);
+        ArrayNode paramsNode = node.putArray("params");
+        for (Object param : params) {
+            paramsNode.add(objectMapper.valueToTree(param));
+        }
+        return node;
+    }
+
+    /**
+     * Sends the calls as one JSON-RPC batch and returns their results in call order; an entry is
+     * null when the node answered that call with an error.
+     */
+    private List<JsonNode> send(List<ObjectNode> calls, Deadline deadline) throws Exception {
+        ArrayNode batch = objectMapper.createArrayNode();
+        for (int id = 0; id < calls.size(); id++) {
+            batch.add(calls.get(id).put("id", id));
+        }
+        Request request = new Request.Builder()
+                .url(rpcUrl)
+                .post(RequestBody.create(objectMapper.writeValueAsBytes(batch), JSON))
+                .build();
+
+        JsonNode response = upstreamLimiters.ethereumRpc().execute(() -> {
+            okhttp3.Call call = httpClient.newCall(request);
+            call.timeout().timeout(Math.max(1, deadline.capMillis(requestTimeoutMs)), TimeUnit.MILLISECONDS);
+            try (Response httpResponse = call.execute()) {
+                if (!httpResponse.isSuccessful() || httpResponse.body() == null) {
+                    throw UpstreamResponseException.forStatus("Ethereum JSON-RPC request failed", httpResponse.code());
+                }
+                return objectMapper.readTree(httpResponse.body().byteStream());
+            } catch (InterruptedIOException e) {
+                if (deadline.isExpired()) {
+                    throw new DeadlineExceededException("Latency budget exhausted while waiting for Ethereum JSON-RPC");
+                }
+                throw e;
+            }
+        }, deadline);
+        if (!response.isArray()) {
+            throw new IOException("Ethereum JSON-RPC batch rejected: " + response.path("error").path("message").asText());
+        }
+
+        Map<Integer, JsonNode> resultsById = new HashMap<>();
+        for (JsonNode entry : response) {
+            if (entry.has("result")) {
+                resultsById.put(entry.path("id").asInt(), entry.get("result"));
+            }
+        }
+        List<JsonNode> results = new ArrayList<>(calls.size());
+        for (int id = 0; id < calls.size(); id++) {
+            results.add(resultsById.get(id));
+        }
+        return results;
+    }
+
+    private static BigInteger parseQuantity(JsonNode node) {
+        String value = node.asText();
+        if (value.startsWith("0x") || value.startsWith("0X")) {
+            return value.length() == 2 ? BigInteger.ZERO : new BigInteger(value.substring(2), 16);
+        }
+        return new BigInteger(value);
+    }
+
+    private static String toHex(long value) {
+        return "0x" + Long.toHexString(value);
+    }
+
+    private record PendingLookup(String address, Deadline deadline, WorkloadLane lane,
+                                 CompletableFuture<AccountState> result) {
+    }
+
+    private record AccountState(BigInteger balanceWei, long nonce, long block) {
+    }
+}
@@ -1,77 +1,140 @@
 package com.stellarep.service;
 
-import com.stellarep.dto.EthereumAccountData;
+import com.stellarep.collector.ChainCollectionOrchestrator;
+import com.stellarep.collector.ChainFeatures;
+import com.stellarep.collector.CollectionResult;
+import com.stellarep.collector.EthereumChainCollector;
+import com.stellarep.collector.StellarChainCollector;
+import com.stellarep.datasource.ReadWriteRoutingDataSource;
+import com.stellarep.datasource.RecentWriteTracker;
 import com.stellarep.dto.ScoreResponse;
-import com.stellarep.dto.StellarAccountData;
 import com.stellarep.entity.WalletScore;
+import com.stellarep.exception.ReputationNotFoundException;
+import com.stellarep.profiling.ScoringStageEvent;
 import com.stellarep.repository.WalletScoreRepository;
+import com.stellarep.store.ScoreReadStore;
+import com.stellarep.upstream.Deadline;
+import com.stellarep.util.AddressCodec;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Supplier;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class ReputationService {
 
-        private final StellarAnalysisService stellarAnalysisService;
-        private final EtherscanService etherscanService;
+        private final ChainCollectionOrchestrator chainCollectionOrchestrator;
         private final ScoreCalculationService scoreCalculationService;
         private final WalletScoreRepository walletScoreRepository;
         private final SorobanService sorobanService;
+        private final ScoredAddressFilter scoredAddressFilter;
+        private final ScoreReadStore scoreReadStore;
+        private final RecentWriteTracker recentWriteTracker;
+        private final ApplicationEventPublisher eventPublisher;
+        private final ScoreChangeDetector scoreChangeDetector;
 
         @Transactional
-        public ScoreResponse calculateAndStoreReputation(String stellarAddress, String ethereumAddress) {
-                StellarAccountData stellarData = stellarAnalysisService.analyzeWallet(stellarAddress);
-
-                EthereumAccountData ethereumData;
+        public ScoreResponse calculateAndStoreReputation(String stellarAddress, String ethereumAddress,
+                                                         Deadline deadline) {
+                Map<String, String> linkedAddresses = new LinkedHashMap<>();
+                linkedAddresses.put(StellarChainCollector.CHAIN, stellarAddress);
                 if (ethereumAddress != null && !ethereumAddress.trim().isEmpty()) {
                         log.info("Analyzing Ethereum wallet: {}", ethereumAddress);
-                        ethereumData = etherscanService.analyzeWallet(ethereumAddress);
+                        linkedAddresses.put(EthereumChainCollector.CHAIN, ethereumAddress);
                 } else {
                         log.info("No Ethereum address provided, using empty data");
-                        ethereumData = EthereumAccountData.empty();
                 }
 
-                var scoreComponents = scoreCalculationService.calculateScore(stellarData, ethereumData);
+                CollectionResult collected = chainCollectionOrchestrator.collect(linkedAddresses, deadline);
+                ChainFeatures stellarData = collected.get(StellarChainCollector.CHAIN);
+                ChainFeatures ethereumData = collected.get(EthereumChainCollector.CHAIN);
+                List<String> missingComponents = collected.missingChains();
+                boolean degraded = collected.isDegraded();
 
-                WalletScore walletScore = walletScoreRepository.findByStellarAddress(stellarAddress)
-                                .orElse(WalletScore.builder()
-                                                .stellarAddress(stellarAddress)
-                                                .build());
+                ScoreCalculationService.ScoreComponents scoreComponents;
+                try (ScoringStageEvent stage = ScoringStageEvent.begin(ScoringStageEvent.SCORE, stellarAddress)) {
+                        scoreComponents = scoreCalculationService.calculateScore(collected.features());
+                }
 
-                walletScore.setEthereumAddress(ethereumAddress);
-                walletScore.setScore(scoreComponents.getTotalScore());
-                walletScore.setStellarScore(scoreComponents.getStellarScore());
-                walletScore.setEthereumScore(scoreComponents.getEthereumScore());
-                walletScore.setSocialScore(scoreComponents.getSocialScore());
-                walletScore.setAccountAgeDays(stellarData.getAccountAgeDays());
-                walletScore.setTransactionCount(stellarData.getTransactionCount());
-                walletScore.setStellarBalance(stellarData.getBalance());
-                walletScore.setHasEthereumHistory(ethereumData.isHasHistory());
-                walletScore.setEthereumAgeDays(ethereumData.getAccountAgeDays());
-                walletScore.setEthereumBalance(ethereumData.getBalance());
+                LocalDateTime calculatedAt;
+                LocalDateTime updatedAt = null;
+                boolean onChain = false;
+                if (degraded) {
+                        log.warn("Incomplete upstream data for {} within {} ms, returning partial score without persisting (missing: {})",
+                                        stellarAddress, deadline.getBudgetMillis(), missingComponents);
+                        calculatedAt = LocalDateTime.now();
+                } else {
+                        int totalScore = scoreComponents.getTotalScore();
+                        WalletScore walletScore = walletScoreRepository.findByStellarAddress(stellarAddress).orElse(null);
+                        boolean changed = scoreChangeDetector.requiresWrite(
+                                        walletScore, ethereumAddress, scoreComponents, stellarData, ethereumData);
+                        Integer publishedScore = walletScore != null ? walletScore.getPublishedScore() : null;
 
-                walletScore = walletScoreRepository.save(walletScore);
+                        if (sorobanService.isContractConfigured()) {
+                                if (scoreChangeDetector.requiresPublication(publishedScore, totalScore)) {
+                                        try (ScoringStageEvent stage = ScoringStageEvent.begin(
+                                                        ScoringStageEvent.PUBLISH, stellarAddress)) {
+                                                sorobanService.setReputation(stellarAddress, totalScore, deadline);
+                                                publishedScore = totalScore;
+                                                log.info("Reputation stored on Soroban smart contract");
+                                        } catch (Exception e) {
+                                                log.warn("On-chain storage failed: {}", e.getMessage());
+                                        }
+                                } else {
+                                        log.debug("On-chain score for {} is within tolerance, not republishing", stellarAddress);
+                                }
+                                onChain = publishedScore != null && publishedScore == totalScore;
+                        } else {
+                                log.info("Soroban contract not configured, storing off-chain");
+                        }
 
-                boolean onChain = false;
-                if (sorobanService.isContractConfigured()) {
-                        try {
-                                sorobanService.setReputation(stellarAddress, scoreComponents.getTotalScore());
-                                onChain = true;
-                                log.info("Reputation stored on Soroban smart contract");
-                        } catch (Exception e) {
-                                log.warn("On-chain storage failed: {}", e.getMessage());
-                                onChain = false;
+                        if (changed) {
+                                if (walletScore == null) {
+                                        walletScore = WalletScore.builder()
+                                                        .stellarAddress(stellarAddress)
+                                                        .build();
+                                }
+                                walletScore.setEthereumAddress(ethereumAddress);
+                                walletScore.setScore(totalScore);
+                                walletScore.setStellarScore(scoreComponents.getStellarScore());
+                                walletScore.setEthereumScore(scoreComponents.getEthereumScore());
+                                walletScore.setSocialScore(scoreComponents.getSocialScore());
+                                walletScore.setAccountAgeDays(stellarData.getLong(ChainFeatures.ACCOUNT_AGE_DAYS));
+                                walletScore.setTransactionCount(stellarData.getLong(ChainFeatures.TRANSACTION_COUNT));
+                                walletScore.setStellarBalance(stellarData.get(ChainFeatures.BALANCE));
+                                walletScore.setHasEthereumHistory(ethereumData.getBoolean(ChainFeatures.HAS_HISTORY));
+                                walletScore.setEthereumAgeDays(ethereumData.getLong(ChainFeatures.ACCOUNT_AGE_DAYS));
+                                walletScore.setEthereumBalance(ethereumData.get(ChainFeatures.BALANCE));
+                                walletScore.setPublishedScore(publishedScore);
+
+                                try (ScoringStageEvent stage = ScoringStageEvent.begin(
+                                                ScoringStageEvent.PERSIST, stellarAddress)) {
+                                        walletScore = walletScoreRepository.saveAndFlush(walletScore);
+                                }
+                                recentWriteTracker.recordWrite(stellarAddress);
+                                scoredAddressFilter.add(stellarAddress);
+                                updatedAt = walletScore.getUpdatedAt();
+                        } else {
+                                log.debug("Score for {} is within tolerance of the stored row, skipping write", stellarAddress);
+                                if (!Objects.equals(publishedScore, walletScore.getPublishedScore())) {
+                                        walletScoreRepository.updatePublishedScore(walletScore.getId(), publishedScore);
+                                }
                         }
-                } else {
-                        log.info("Soroban contract not configured, storing off-chain");
+                        calculatedAt = walletScore.getCalculatedAt();
                 }
 
-                return ScoreResponse.builder()
+                ScoreResponse response = ScoreResponse.builder()
                                 .stellarAddress(stellarAddress)
                                 .ethereumAddress(ethereumAddress)
                                 .totalScore(scoreComponents.getTotalScore())
@@ -79,20 +142,59 @@ public class ReputationService {
                                 .ethereumScore(scoreComponents.getEthereumScore())
                                 .socialScore(scoreComponents.getSocialScore())
                                 .breakdown(ScoreResponse.ScoreBreakdown.builder()
-                                                .accountAgeDays(stellarData.getAccountAgeDays())
-                                                .transactionCount(stellarData.getTransactionCount())
-                                                .stellarBalance(stellarData.getBalance())
-                                                .hasEthereumHistory(ethereumData.isHasHistory())
-                                                .ethereumAgeDays(ethereumData.getAccountAgeDays())
-                                                .ethereumTransactionCount(ethereumData.getTransactionCount())
-                                                .ethereumBalance(ethereumData.getBalance())
+                                                .accountAgeDays(stellarData.getLong(ChainFeatures.ACCOUNT_AGE_DAYS))
+                                                .transactionCount(stellarData.getLong(ChainFeatures.TRANSACTION_COUNT))
+                                                .stellarBalance(stellarData.get(ChainFeatures.BALANCE))
+                                                .hasEthereumHistory(ethereumData.getBoolean(ChainFeatures.HAS_HISTORY))
+                                                .ethereumAgeDays(ethereumData.getLong(ChainFeatures.ACCOUNT_AGE_DAYS))
+                                                .ethereumTransactionCount(ethereumData.getLong(ChainFeatures.TRANSACTION_COUNT))
+                                                .ethereumBalance(ethereumData.get(ChainFeatures.BALANCE))
                                                 .build())
-                                .calculatedAt(walletScore.getCalculatedAt())
+                                .calculatedAt(calculatedAt)
                                 .onChain(onChain)
+                                .degraded(degraded)
+                                .missingComponents(missingComponents)
+                                .staleComponents(collected.staleChains())
                                 .build();
+
+                if (updatedAt != null) {
+                        eventPublisher.publishEvent(new ScoreUpdatedEvent(response, updatedAt));
+                }
+                return response;
         }
 
         public ScoreResponse getReputation(String stellarAddress) {
+                if (!AddressCodec.isStellarAccountId(stellarAddress)) {
+                        throw new ReputationNotFoundException(stellarAddress);
+                }
+                try (ScoringStageEvent stage = ScoringStageEvent.begin(ScoringStageEvent.READ, stellarAddress)) {
+                        if (recentWriteTracker.clientWroteRecently()) {
+                                return readFromDatabase(stellarAddress, () -> loadReputation(stellarAddress));
+                        }
+                        return scoreReadStore.get(stellarAddress)
+                                        .orElseGet(() -> readFromDatabase(stellarAddress, () -> loadReputation(stellarAddress)));
+                }
+        }
+
+        public Optional<LocalDateTime> getLastUpdated(String stellarAddress) {
+                if (!AddressCodec.isStellarAccountId(stellarAddress)) {
+                        return Optional.empty();
+                }
+                Supplier<Optional<LocalDateTime>> fromDatabase = () -> readFromDatabase(stellarAddress,
+                                () -> walletScoreRepository.findUpdatedAtByStellarAddress(stellarAddress));
+                if (recentWriteTracker.clientWroteRecently()) {
+                        return fromDatabase.get();
+                }
+                return scoreReadStore.getUpdatedAt(stellarAddress).or(fromDatabase);
+        }
+
+        private <T> T readFromDatabase(String stellarAddress, Supplier<T> read) {
+                return recentWriteTracker.requiresPrimary(stellarAddress)
+                                ? ReadWriteRoutingDataSource.onPrimary(read)
+                                : read.get();
+        }
+
+        private ScoreResponse loadReputation(String stellarAddress) {
                 return walletScoreRepository.findByStellarAddress(stellarAddress)
                                 .map(score -> ScoreResponse.builder()
                                                 .stellarAddress(score.getStellarAddress())
@@ -112,8 +214,10 @@ public class ReputationService {
                                                                 .build())
                                                 .calculatedAt(score.getCalculatedAt())
                                                 .onChain(false)
+                                                .degraded(false)
+                                                .missingComponents(List.of())
+                                                .staleComponents(List.of())
                                                 .build())
-                                .orElseThrow(() -> new RuntimeException(
-                                                "Reputation not found for address: " + stellarAddress));
+                                .orElseThrow(() -> new ReputationNotFoundException(stellarAddress));
         }
 }
@@ -1,84 +1,152 @@
 package com.stellarep.service;
 
-import com.stellarep.dto.EthereumAccountData;
-import com.stellarep.dto.StellarAccountData;
+import com.stellarep.collector.ChainFeatures;
+import com.stellarep.collector.EthereumChainCollector;
+import com.stellarep.collector.StellarChainCollector;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
 import org.springframework.stereotype.Service;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Scores a wallet from its per-chain features. Stellar and Ethereum have built-in formulas; any
+ * other chain is scored as a weighted sum of its features, configured under
+ * {@code app.scoring.chains.<chain>}.
+ */
 @Service
+@RequiredArgsConstructor
 public class ScoreCalculationService {
 
     private static final int MAX_SCORE = 1000;
 
-    public ScoreComponents calculateScore(
-            StellarAccountData stellarData,
-            EthereumAccountData ethereumData) {
+    private final Environment environment;
+
+    private Map<String, ChainWeights> chainWeights = Map.of();
+
+    @PostConstruct
+    void init() {
+        chainWeights = Binder.get(environment)
+                .bind("app.scoring.chains", Bindable.mapOf(String.class, ChainWeights.class))
+                .orElse(Map.of());
+    }
+
+    public ScoreComponents calculateScore(Map<String, ChainFeatures> features) {
+        ChainFeatures stellarData = features.getOrDefault(
+                StellarChainCollector.CHAIN, ChainFeatures.empty(StellarChainCollector.CHAIN));
+        ChainFeatures ethereumData = features.getOrDefault(
+                EthereumChainCollector.CHAIN, ChainFeatures.empty(EthereumChainCollector.CHAIN));
         
         int stellarScore = calculateStellarScore(stellarData);
         int ethereumScore = calculateEthereumScore(ethereumData);
         int socialScore = calculateSocialScore(stellarData, ethereumData);
+
+        Map<String, Integer> chainScores = new LinkedHashMap<>();
+        chainScores.put(StellarChainCollector.CHAIN, stellarScore);
+        chainScores.put(EthereumChainCollector.CHAIN, ethereumScore);
+        int otherChainsScore = 0;
+        for (ChainFeatures chainData : features.values()) {
+            ChainWeights weights = chainWeights.get(chainData.chain());
+            if (weights != null && !chainScores.containsKey(chainData.chain())) {
+                int chainScore = calculateWeightedScore(chainData, weights);
+                chainScores.put(chainData.chain(), chainScore);
+                otherChainsScore += chainScore;
+            }
+        }
         
-        int finalScore = Math.min(stellarScore + ethereumScore + socialScore, MAX_SCORE);
+        int finalScore = Math.min(stellarScore + ethereumScore + socialScore + otherChainsScore, MAX_SCORE);
         
         return ScoreComponents.builder()
                 .totalScore(finalScore)
                 .stellarScore(stellarScore)
                 .ethereumScore(ethereumScore)
                 .socialScore(socialScore)
+                .chainScores(chainScores)
                 .build();
     }
 
-    private int calculateStellarScore(StellarAccountData data) {
-        double ageScore = Math.min(data.getAccountAgeDays() * 2.0, 200.0);
-        double transactionScore = Math.min(data.getTransactionCount() * 0.5, 100.0);
-        double balanceScore = Math.min(data.getBalance() * 10.0, 150.0);
-        double diversityScore = data.getAssetDiversity() * 25.0;
+    private int calculateStellarScore(ChainFeatures data) {
+        double ageScore = Math.min(data.get(ChainFeatures.ACCOUNT_AGE_DAYS) * 2.0, 200.0);
+        double transactionScore = Math.min(data.get(ChainFeatures.TRANSACTION_COUNT) * 0.5, 100.0);
+        double balanceScore = Math.min(data.get(ChainFeatures.BALANCE) * 10.0, 150.0);
+        double diversityScore = data.get(StellarChainCollector.ASSET_DIVERSITY) * 25.0;
+        double counterpartyScore = Math.min(
+                Math.log1p(data.get(StellarChainCollector.UNIQUE_COUNTERPARTIES)) / Math.log(2) * 10.0, 80.0);
+        double activeDaysScore = Math.min(data.get(StellarChainCollector.ACTIVE_DAYS) * 0.5, 60.0);
         
-        return (int) (ageScore + transactionScore + balanceScore + diversityScore);
+        return (int) (ageScore + transactionScore + balanceScore + diversityScore
+                + counterpartyScore + activeDaysScore);
     }
 
-    private int calculateEthereumScore(EthereumAccountData data) {
-        if (!data.isHasHistory()) {
+    private int calculateEthereumScore(ChainFeatures data) {
+        if (!data.getBoolean(ChainFeatures.HAS_HISTORY)) {
             return 0;
         }
         
-        double ageScore = Math.min(data.getAccountAgeDays() * 5.0, 300.0);
-        double balanceScore = Math.min(data.getBalance() * 2.0, 200.0);
-        double transactionScore = Math.min(data.getTransactionCount() * 0.3, 100.0);
+        long accountAgeDays = data.getLong(ChainFeatures.ACCOUNT_AGE_DAYS);
+        double ageScore = Math.min(accountAgeDays * 5.0, 300.0);
+        double balanceScore = Math.min(data.get(ChainFeatures.BALANCE) * 2.0, 200.0);
+        double transactionScore = Math.min(data.get(ChainFeatures.TRANSACTION_COUNT) * 0.3, 100.0);
         
         int baseScore = (int) (ageScore + balanceScore + transactionScore);
         
-        if (data.getAccountAgeDays() > 365) {
+        if (accountAgeDays > 365) {
             baseScore += 200;
-        } else if (data.getAccountAgeDays() > 180) {
+        } else if (accountAgeDays > 180) {
             baseScore += 100;
         }
         
         return Math.min(baseScore, 400);
     }
 
-    private int calculateSocialScore(StellarAccountData stellarData, EthereumAccountData ethereumData) {
+    private int calculateSocialScore(ChainFeatures stellarData, ChainFeatures ethereumData) {
         int score = 0;
         
-        if (stellarData.getTransactionCount() > 50) {
+        if (stellarData.getLong(ChainFeatures.TRANSACTION_COUNT) > 50) {
+            score += 50;
+        }
+        
+        if (stellarData.get(ChainFeatures.BALANCE) > 100) {
             score += 50;
         }
         
-        if (stellarData.getBalance() > 100) {
+        if (stellarData.get(StellarChainCollector.RECENT_ACTIVE_DAYS) >= 10
+                && stellarData.get(StellarChainCollector.MEDIAN_PAYMENT_XLM) >= 1.0) {
             score += 50;
         }
         
-        if (ethereumData.isHasHistory() && ethereumData.getAccountAgeDays() > 365) {
+        if (ethereumData.getBoolean(ChainFeatures.HAS_HISTORY)
+                && ethereumData.getLong(ChainFeatures.ACCOUNT_AGE_DAYS) > 365) {
             score += 100;
         }
         
         return Math.min(score, 200);
     }
 
+    private static int calculateWeightedScore(ChainFeatures data, ChainWeights weights) {
+        double score = 0.0;
+        for (Map.Entry<String, Double> weight : weights.weights().entrySet()) {
+            score += data.get(weight.getKey()) * weight.getValue();
+        }
+        return (int) Math.max(0, Math.min(score, weights.maxScore()));
+    }
+
+    public record ChainWeights(int maxScore, Map<String, Double> weights) {
+        public ChainWeights {
+            weights = weights != null ? weights : Map.of();
+        }
+    }
+
     public static class ScoreComponents {
         private int totalScore;
         private int stellarScore;
         private int ethereumScore;
         private int socialScore;
+        private Map<String, Integer> chainScores = Map.of();
         
         public static ScoreComponentsBuilder builder() {
             return new ScoreComponentsBuilder();
@@ -88,12 +156,14 @@ public class ScoreCalculationService {
         public int getStellarScore() { return stellarScore; }
         public int getEthereumScore() { return ethereumScore; }
         public int getSocialScore() { return socialScore; }
+        public Map<String, Integer> getChainScores() { return chainScores; }
         
         public static class ScoreComponentsBuilder {
             private int totalScore;
             private int stellarScore;
             private int ethereumScore;
             private int socialScore;
+            private Map<String, Integer> chainScores = Map.of();
             
             public ScoreComponentsBuilder totalScore(int totalScore) {
                 this.totalScore = totalScore;
@@ -115,12 +185,18 @@ public class ScoreCalculationService {
                 return this;
             }
             
+            public ScoreComponentsBuilder chainScores(Map<String, Integer> chainScores) {
+                this.chainScores = chainScores;
+                return this;
+            }
+            
             public ScoreComponents build() {
                 ScoreComponents components = new ScoreComponents();
                 components.totalScore = this.totalScore;
                 components.stellarScore = this.stellarScore;
                 components.ethereumScore = this.ethereumScore;
                 components.socialScore = this.socialScore;
+                components.chainScores = this.chainScores;
                 return components;
             }
         }
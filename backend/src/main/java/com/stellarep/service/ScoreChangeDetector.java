@@ -0,0 +1,122 @@
+package com.stellarep.service;
+
+import com.stellarep.collector.ChainFeatures;
+import com.stellarep.entity.WalletScore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Decides whether a recalculated score differs enough from the stored row to be written, and
+ * whether the total differs enough from the last published on-chain value to be published again.
+ * Each component has an absolute tolerance under {@code app.change-detection.tolerance}; a row that
+ * has not been written for {@code max-unchanged-ms} is rewritten regardless.
+ */
+@Component
+@RequiredArgsConstructor
+public class ScoreChangeDetector {
+
+    @Value("${app.change-detection.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.change-detection.max-unchanged-ms:604800000}")
+    private long maxUnchangedMs;
+
+    @Value("${app.change-detection.tolerance.score:0}")
+    private int scoreTolerance;
+
+    @Value("${app.change-detection.tolerance.component-score:0}")
+    private int componentScoreTolerance;
+
+    @Value("${app.change-detection.tolerance.published-score:0}")
+    private int publishedScoreTolerance;
+
+    @Value("${app.change-detection.tolerance.account-age-days:30}")
+    private long accountAgeDaysTolerance;
+
+    @Value("${app.change-detection.tolerance.transaction-count:10}")
+    private long transactionCountTolerance;
+
+    @Value("${app.change-detection.tolerance.stellar-balance:1.0}")
+    private double stellarBalanceTolerance;
+
+    @Value("${app.change-detection.tolerance.ethereum-balance:0.01}")
+    private double ethereumBalanceTolerance;
+
+    private final MeterRegistry meterRegistry;
+
+    private Counter written;
+    private Counter skipped;
+    private Counter published;
+    private Counter publicationsSkipped;
+
+    @PostConstruct
+    void init() {
+        written = meterRegistry.counter("reputation.persist", "result", "written");
+        skipped = meterRegistry.counter("reputation.persist", "result", "skipped");
+        published = meterRegistry.counter("reputation.publish", "result", "published");
+        publicationsSkipped = meterRegistry.counter("reputation.publish", "result", "skipped");
+        Gauge.builder("reputation.persist.skip.ratio", this,
+                        detector -> ratio(detector.skipped.count(), detector.written.count() + detector.skipped.count()))
+                .register(meterRegistry);
+        Gauge.builder("reputation.publish.skip.ratio", this,
+                        detector -> ratio(detector.publicationsSkipped.count(),
+                                detector.published.count() + detector.publicationsSkipped.count()))
+                .register(meterRegistry);
+    }
+
+    public boolean requiresWrite(WalletScore stored, String ethereumAddress,
+                                 ScoreCalculationService.ScoreComponents components,
+                                 ChainFeatures stellarData, ChainFeatures ethereumData) {
+        boolean changed = !enabled
+                || stored == null
+                || isStale(stored.getUpdatedAt())
+                || !Objects.equals(normalize(stored.getEthereumAddress()), normalize(ethereumAddress))
+                || differs(stored.getScore(), components.getTotalScore(), scoreTolerance)
+                || differs(stored.getStellarScore(), components.getStellarScore(), componentScoreTolerance)
+                || differs(stored.getEthereumScore(), components.getEthereumScore(), componentScoreTolerance)
+                || differs(stored.getSocialScore(), components.getSocialScore(), componentScoreTolerance)
+                || differs(stored.getAccountAgeDays(), stellarData.getLong(ChainFeatures.ACCOUNT_AGE_DAYS),
+                        accountAgeDaysTolerance)
+                || differs(stored.getTransactionCount(), stellarData.getLong(ChainFeatures.TRANSACTION_COUNT),
+                        transactionCountTolerance)
+                || differs(stored.getStellarBalance(), stellarData.get(ChainFeatures.BALANCE), stellarBalanceTolerance)
+                || !Objects.equals(stored.getHasEthereumHistory(), ethereumData.getBoolean(ChainFeatures.HAS_HISTORY))
+                || differs(stored.getEthereumAgeDays(), ethereumData.getLong(ChainFeatures.ACCOUNT_AGE_DAYS),
+                        accountAgeDaysTolerance)
+                || differs(stored.getEthereumBalance(), ethereumData.get(ChainFeatures.BALANCE),
+                        ethereumBalanceTolerance);
+        (changed ? written : skipped).increment();
+        return changed;
+    }
+
+    public boolean requiresPublication(Integer publishedScore, int totalScore) {
+        boolean changed = !enabled || differs(publishedScore, totalScore, publishedScoreTolerance);
+        (changed ? published : publicationsSkipped).increment();
+        return changed;
+    }
+
+    private boolean isStale(LocalDateTime updatedAt) {
+        return updatedAt == null || updatedAt.isBefore(LocalDateTime.now().minus(Duration.ofMillis(maxUnchangedMs)));
+    }
+
+    private static boolean differs(Number stored, double current, double tolerance) {
+        return stored == null || Math.abs(stored.doubleValue() - current) > tolerance;
+    }
+
+    private static String normalize(String ethereumAddress) {
+        return ethereumAddress == null || ethereumAddress.isBlank() ? null : ethereumAddress.trim().toLowerCase();
+    }
+
+    private static double ratio(double numerator, double denominator) {
+        return denominator == 0 ? 0.0 : numerator / denominator;
+    }
+}
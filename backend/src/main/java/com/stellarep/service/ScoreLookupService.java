@@ -0,0 +1,129 @@
+package com.stellarep.service;
+
+import com.stellarep.datasource.ReadWriteRoutingDataSource;
+import com.stellarep.datasource.RecentWriteTracker;
+import com.stellarep.dto.ScoreLookupResult;
+import com.stellarep.dto.ScoreResponse;
+import com.stellarep.exception.InvalidRequestException;
+import com.stellarep.repository.WalletScoreLookupRepository;
+import com.stellarep.store.ScoreReadStore;
+import com.stellarep.util.AddressCodec;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * Resolves many Stellar and Ethereum addresses at once. Stellar addresses are answered from the
+ * read store, or as misses by the scored-address filter, where possible; everything left is fetched
+ * in a single read-only query, on the primary if any of those addresses was written recently.
+ */
+@Service
+@RequiredArgsConstructor
+public class ScoreLookupService {
+
+    private static final Pattern ETHEREUM_ADDRESS = Pattern.compile("^0x[a-fA-F0-9]{40}$");
+
+    @Value("${app.lookup.max-addresses:500}")
+    private int maxAddresses;
+
+    private final WalletScoreLookupRepository walletScoreLookupRepository;
+    private final ScoreReadStore scoreReadStore;
+    private final ScoredAddressFilter scoredAddressFilter;
+    private final RecentWriteTracker recentWriteTracker;
+    private final PlatformTransactionManager transactionManager;
+    private final MeterRegistry meterRegistry;
+
+    private Counter storeHits;
+    private Counter filteredMisses;
+    private Counter databaseLookups;
+
+    @PostConstruct
+    void init() {
+        storeHits = meterRegistry.counter("reputation.lookup.batch.addresses", "source", "store");
+        filteredMisses = meterRegistry.counter("reputation.lookup.batch.addresses", "source", "filter");
+        databaseLookups = meterRegistry.counter("reputation.lookup.batch.addresses", "source", "database");
+    }
+
+    public List<ScoreLookupResult> lookup(List<String> addresses) {
+        if (addresses.size() > maxAddresses) {
+            throw new InvalidRequestException("Look up at most " + maxAddresses + " addresses per request");
+        }
+        Map<String, List<ScoreResponse>> resolved = new HashMap<>();
+        Set<String> pendingStellar = new LinkedHashSet<>();
+        Set<String> pendingEthereum = new LinkedHashSet<>();
+        boolean clientWroteRecently = recentWriteTracker.clientWroteRecently();
+        boolean requiresPrimary = clientWroteRecently;
+
+        for (String address : addresses) {
+            String key = normalize(address);
+            if (resolved.containsKey(key) || pendingStellar.contains(key) || pendingEthereum.contains(key)) {
+                continue;
+            }
+            if (ETHEREUM_ADDRESS.matcher(key).matches()) {
+                pendingEthereum.add(key);
+                continue;
+            }
+            ScoreResponse stored = clientWroteRecently ? null : scoreReadStore.get(key).orElse(null);
+            if (stored != null) {
+                storeHits.increment();
+                resolved.put(key, List.of(stored));
+            } else if (!scoredAddressFilter.mightContain(key)) {
+                filteredMisses.increment();
+                resolved.put(key, List.of());
+            } else {
+                pendingStellar.add(key);
+                requiresPrimary |= recentWriteTracker.requiresPrimary(key);
+            }
+        }
+
+        if (!pendingStellar.isEmpty() || !pendingEthereum.isEmpty()) {
+            databaseLookups.increment(pendingStellar.size() + pendingEthereum.size());
+            TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+            readOnly.setReadOnly(true);
+            Supplier<List<ScoreResponse>> query = () -> readOnly.execute(status ->
+                    walletScoreLookupRepository.findByAddresses(pendingStellar, pendingEthereum));
+            List<ScoreResponse> rows = requiresPrimary ? ReadWriteRoutingDataSource.onPrimary(query) : query.get();
+            for (ScoreResponse row : rows) {
+                if (pendingStellar.contains(row.getStellarAddress())) {
+                    resolved.put(row.getStellarAddress(), List.of(row));
+                }
+                if (row.getEthereumAddress() != null && pendingEthereum.contains(row.getEthereumAddress())) {
+                    resolved.computeIfAbsent(row.getEthereumAddress(), key -> new ArrayList<>()).add(row);
+                }
+            }
+        }
+
+        List<ScoreLookupResult> results = new ArrayList<>(addresses.size());
+        for (String address : addresses) {
+            List<ScoreResponse> scores = resolved.getOrDefault(normalize(address), List.of());
+            results.add(new ScoreLookupResult(address, !scores.isEmpty(), scores));
+        }
+        return results;
+    }
+
+    private static String normalize(String address) {
+        String trimmed = address == null ? "" : address.trim();
+        if (ETHEREUM_ADDRESS.matcher(trimmed).matches()) {
+            return trimmed.toLowerCase(Locale.ROOT);
+        }
+        if (!AddressCodec.isStellarAccountId(trimmed)) {
+            throw new InvalidRequestException("Invalid Stellar or Ethereum address: " + address);
+        }
+        return trimmed;
+    }
+}
@@ -0,0 +1,235 @@
+package com.stellarep.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stellarep.exception.SubscriptionLimitException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes committed score updates to server-sent event subscribers. Each update is serialized once
+ * and handed to every subscriber of its address. A subscriber keeps only the latest pending update
+ * per address and has at most one delivery in flight, so a slow client costs one entry per address
+ * it watches. The heartbeat sweep also looks for deliveries stuck for longer than
+ * {@code max-send-lag-ms}: such a client is unsubscribed, its delivery thread is interrupted so the
+ * blocked write gives the thread back to the pool, and it is expected to reconnect and re-read.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ScoreUpdateBroadcaster {
+
+    private static final String SCORE_EVENT = "score";
+
+    @Value("${app.stream.max-subscribers:10000}")
+    private int maxSubscribers;
+
+    @Value("${app.stream.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    @Value("${app.stream.max-send-lag-ms:30000}")
+    private long maxSendLagMs;
+
+    private final ObjectMapper objectMapper;
+    private final ExecutorService streamDeliveryExecutor;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, Set<Subscriber>> subscribersByAddress = new ConcurrentHashMap<>();
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+
+    private Counter deliveredEvents;
+    private Counter coalescedEvents;
+    private Counter droppedSubscribers;
+
+    @PostConstruct
+    void init() {
+        deliveredEvents = meterRegistry.counter("reputation.stream.delivered");
+        coalescedEvents = meterRegistry.counter("reputation.stream.coalesced");
+        droppedSubscribers = meterRegistry.counter("reputation.stream.dropped.slow");
+        meterRegistry.gauge("reputation.stream.subscribers", subscriberCount);
+    }
+
+    public SseEmitter subscribe(Collection<String> stellarAddresses) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new SubscriptionLimitException(maxSubscribers);
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber subscriber = new Subscriber(emitter, Set.copyOf(stellarAddresses));
+        subscribers.add(subscriber);
+        for (String address : subscriber.addresses) {
+            subscribersByAddress.computeIfAbsent(address, key -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        }
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError(e -> unsubscribe(subscriber));
+        return emitter;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onScoreUpdated(ScoreUpdatedEvent event) {
+        String address = event.score().getStellarAddress();
+        Set<Subscriber> targets = subscribersByAddress.get(address);
+        if (targets == null || targets.isEmpty()) {
+            return;
+        }
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(event.score());
+        } catch (JsonProcessingException e) {
+            log.warn("Could not serialize score update for {}: {}", address, e.getMessage());
+            return;
+        }
+        for (Subscriber subscriber : targets) {
+            subscriber.offer(address, payload);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.stream.heartbeat-interval-ms:15000}")
+    public void sendHeartbeats() {
+        long now = System.currentTimeMillis();
+        for (Subscriber subscriber : subscribers) {
+            if (!subscriber.dropIfStuck(now)) {
+                subscriber.heartbeat();
+            }
+        }
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        if (!subscribers.remove(subscriber)) {
+            return;
+        }
+        subscriberCount.decrementAndGet();
+        for (String address : subscriber.addresses) {
+            subscribersByAddress.computeIfPresent(address, (key, set) -> {
+                set.remove(subscriber);
+                return set.isEmpty() ? null : set;
+            });
+        }
+    }
+
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final Set<String> addresses;
+        private final Map<String, String> pending = new ConcurrentHashMap<>();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean heartbeatDue;
+        private volatile boolean dropped;
+        private long sendStartedAt;
+        private Thread sender;
+
+        Subscriber(SseEmitter emitter, Set<String> addresses) {
+            this.emitter = emitter;
+            this.addresses = addresses;
+        }
+
+        void offer(String address, String payload) {
+            if (pending.put(address, payload) != null) {
+                coalescedEvents.increment();
+            }
+            scheduleDrain();
+        }
+
+        void heartbeat() {
+            heartbeatDue = true;
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                try {
+                    streamDeliveryExecutor.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    draining.set(false);
+                }
+            } else {
+                dropIfStuck(System.currentTimeMillis());
+            }
+        }
+
+        /**
+         * Drops this subscriber if a send has been blocked for longer than {@code max-send-lag-ms},
+         * interrupting the thread stuck in it. The emitter is completed by that thread once the write
+         * returns, since completing it here would wait on the same write.
+         */
+        synchronized boolean dropIfStuck(long now) {
+            if (dropped) {
+                return true;
+            }
+            if (sender == null || now - sendStartedAt <= maxSendLagMs) {
+                return false;
+            }
+            droppedSubscribers.increment();
+            log.debug("Disconnecting slow score stream subscriber for {}", addresses);
+            dropped = true;
+            unsubscribe(this);
+            sender.interrupt();
+            return true;
+        }
+
+        private void drain() {
+            try {
+                do {
+                    if (heartbeatDue) {
+                        heartbeatDue = false;
+                        send(SseEmitter.event().comment("heartbeat"));
+                    }
+                    for (String address : pending.keySet()) {
+                        String payload = pending.remove(address);
+                        if (payload != null) {
+                            send(SseEmitter.event().name(SCORE_EVENT).data(payload, MediaType.APPLICATION_JSON));
+                            deliveredEvents.increment();
+                        }
+                    }
+                    if (dropped) {
+                        emitter.complete();
+                        return;
+                    }
+                    draining.set(false);
+                } while ((!pending.isEmpty() || heartbeatDue) && draining.compareAndSet(false, true));
+            } catch (Exception e) {
+                draining.set(false);
+                unsubscribe(this);
+                emitter.completeWithError(e);
+            }
+        }
+
+        private void send(SseEmitter.SseEventBuilder event) throws IOException {
+            synchronized (this) {
+                if (dropped) {
+                    return;
+                }
+                sendStartedAt = System.currentTimeMillis();
+                sender = Thread.currentThread();
+            }
+            try {
+                emitter.send(event);
+            } finally {
+                synchronized (this) {
+                    sender = null;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.stellarep.service;
+
+import com.stellarep.dto.ScoreResponse;
+
+import java.time.LocalDateTime;
+
+public record ScoreUpdatedEvent(ScoreResponse score, LocalDateTime updatedAt) {
+}
@@ -0,0 +1,255 @@
+package com.stellarep.service;
+
+import com.stellarep.datasource.RecentWriteTracker;
+import com.stellarep.util.AddressCodec;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter over every Stellar address that has a stored score, used to answer
+ * {@code GET /reputation/{address}} for never-scored addresses without touching the database.
+ * Until the first load completes every address is reported as possibly present.
+ *
+ * <p>Scores written by other instances reach this filter through a catch-up on a timer that reads
+ * the rows whose {@code updated_at} is past the last catch-up (less an overlap for in-flight commits
+ * and clock skew), so a miss may be up to one catch-up interval stale. Misses are reported as maybes
+ * when the last successful catch-up is older than {@code max-staleness-ms}, and for clients holding a
+ * write token, whose own writes must be visible to them.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ScoredAddressFilter {
+
+    @Value("${app.scored-filter.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.scored-filter.expected-addresses:1000000}")
+    private long expectedAddresses;
+
+    @Value("${app.scored-filter.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    @Value("${app.scored-filter.fetch-size:5000}")
+    private int fetchSize;
+
+    @Value("${app.scored-filter.catch-up-overlap-ms:30000}")
+    private long catchUpOverlapMs;
+
+    @Value("${app.scored-filter.max-staleness-ms:30000}")
+    private long maxStalenessMs;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final MeterRegistry meterRegistry;
+    private final RecentWriteTracker recentWriteTracker;
+
+    private volatile BloomFilter current;
+    private volatile BloomFilter rebuilding;
+    private Counter filteredLookups;
+    private Counter catchUps;
+    private Counter staleMisses;
+
+    private final Object catchUpLock = new Object();
+    private volatile LocalDateTime catchUpWatermark;
+    private volatile long currentAsOf;
+
+    @PostConstruct
+    void init() {
+        filteredLookups = meterRegistry.counter("reputation.lookup.filtered");
+        catchUps = meterRegistry.counter("reputation.scored.filter.catchups");
+        staleMisses = meterRegistry.counter("reputation.scored.filter.stale.misses");
+        meterRegistry.gauge("reputation.scored.filter.loaded", this, filter -> filter.current != null ? 1 : 0);
+    }
+
+    public boolean mightContain(String stellarAddress) {
+        BloomFilter filter = current;
+        if (!enabled || filter == null) {
+            return true;
+        }
+        byte[] key;
+        try {
+            key = AddressCodec.decodeStellar(stellarAddress);
+        } catch (RuntimeException e) {
+            key = null;
+        }
+        if (key == null) {
+            filteredLookups.increment();
+            return false;
+        }
+        if (filter.mightContain(key) || recentWriteTracker.clientWroteRecently()) {
+            return true;
+        }
+        if (System.nanoTime() - currentAsOf > TimeUnit.MILLISECONDS.toNanos(maxStalenessMs)) {
+            staleMisses.increment();
+            return true;
+        }
+        filteredLookups.increment();
+        return false;
+    }
+
+    public void add(String stellarAddress) {
+        add(AddressCodec.decodeStellar(stellarAddress));
+    }
+
+    private void add(byte[] key) {
+        BloomFilter filter = current;
+        if (filter != null) {
+            filter.add(key);
+        }
+        BloomFilter next = rebuilding;
+        if (next != null) {
+            next.add(key);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${app.scored-filter.rebuild-interval-ms:600000}",
+            fixedDelayString = "${app.scored-filter.rebuild-interval-ms:600000}")
+    public synchronized void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            long start = System.currentTimeMillis();
+            long loadStartedAtNanos = System.nanoTime();
+            LocalDateTime loadStartedAt = LocalDateTime.now();
+            Long rowCount = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM wallet_scores", Long.class);
+            long capacity = Math.max(expectedAddresses, rowCount == null ? 0 : rowCount * 2);
+            BloomFilter next = new BloomFilter(capacity, falsePositiveRate);
+            rebuilding = next;
+
+            AtomicLong loaded = new AtomicLong();
+            TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+            readOnly.setReadOnly(true);
+            JdbcTemplate streamingTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+            streamingTemplate.setFetchSize(fetchSize);
+            readOnly.executeWithoutResult(status -> {
+                streamingTemplate.query("SELECT stellar_address FROM wallet_scores", rs -> {
+                    next.add(rs.getBytes(1));
+                    loaded.incrementAndGet();
+                });
+            });
+
+            synchronized (catchUpLock) {
+                boolean first = current == null;
+                current = next;
+                if (catchUpWatermark == null || catchUpWatermark.isBefore(loadStartedAt)) {
+                    catchUpWatermark = loadStartedAt;
+                }
+                if (first || loadStartedAtNanos - currentAsOf > 0) {
+                    currentAsOf = loadStartedAtNanos;
+                }
+            }
+            log.info("Scored address filter rebuilt with {} addresses in {} ms",
+                    loaded.get(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.warn("Failed to rebuild scored address filter, lookups will go to the database: {}", e.getMessage());
+        } finally {
+            rebuilding = null;
+        }
+    }
+
+    /**
+     * Adds every row changed since the watermark to the filter, so that misses stay at most one
+     * interval behind writes made by other instances.
+     */
+    @Scheduled(initialDelayString = "${app.scored-filter.catch-up-interval-ms:5000}",
+            fixedDelayString = "${app.scored-filter.catch-up-interval-ms:5000}")
+    public void catchUp() {
+        if (!enabled) {
+            return;
+        }
+        synchronized (catchUpLock) {
+            LocalDateTime watermark = catchUpWatermark;
+            if (watermark == null) {
+                return;
+            }
+            long startedAt = System.nanoTime();
+            LocalDateTime startedAtTime = LocalDateTime.now();
+            try {
+                Timestamp from = Timestamp.valueOf(watermark.minus(Duration.ofMillis(catchUpOverlapMs)));
+                jdbcTemplate.query("SELECT stellar_address FROM wallet_scores WHERE updated_at >= ?",
+                        rs -> {
+                            add(rs.getBytes(1));
+                        }, from);
+                catchUpWatermark = startedAtTime;
+                currentAsOf = startedAt;
+                catchUps.increment();
+            } catch (Exception e) {
+                log.warn("Failed to catch up scored address filter: {}", e.getMessage());
+            }
+        }
+    }
+
+    static final class BloomFilter {
+        private final AtomicLongArray bits;
+        private final long bitCount;
+        private final int hashCount;
+
+        BloomFilter(long expectedInsertions, double falsePositiveRate) {
+            long n = Math.max(1, expectedInsertions);
+            long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            this.bitCount = Math.max(64, (m + 63) / 64 * 64);
+            this.bits = new AtomicLongArray(Math.toIntExact(bitCount / 64));
+            this.hashCount = Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2)));
+        }
+
+        void add(byte[] value) {
+            long hash1 = hash(value, 0x9E3779B97F4A7C15L);
+            long hash2 = hash(value, 0xC2B2AE3D27D4EB4FL) | 1;
+            for (int i = 0; i < hashCount; i++) {
+                long bit = Math.floorMod(hash1 + i * hash2, bitCount);
+                int word = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long previous = bits.get(word);
+                while ((previous & mask) == 0 && !bits.compareAndSet(word, previous, previous | mask)) {
+                    previous = bits.get(word);
+                }
+            }
+        }
+
+        boolean mightContain(byte[] value) {
+            long hash1 = hash(value, 0x9E3779B97F4A7C15L);
+            long hash2 = hash(value, 0xC2B2AE3D27D4EB4FL) | 1;
+            for (int i = 0; i < hashCount; i++) {
+                long bit = Math.floorMod(hash1 + i * hash2, bitCount);
+                if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static long hash(byte[] value, long seed) {
+            long h = seed;
+            for (byte b : value) {
+                h ^= b & 0xFF;
+                h *= 0xFF51AFD7ED558CCDL;
+                h ^= h >>> 33;
+            }
+            h ^= h >>> 33;
+            h *= 0xC4CEB9FE1A85EC53L;
+            h ^= h >>> 33;
+            return h;
+        }
+    }
+}
@@ -3,12 +3,18 @@ package com.stellarep.service;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.stellarep.exception.DeadlineExceededException;
+import com.stellarep.exception.UpstreamBusyException;
+import com.stellarep.upstream.Deadline;
+import com.stellarep.upstream.UpstreamLimiters;
+import com.stellarep.upstream.UpstreamResponseException;
 import lombok.extern.slf4j.Slf4j;
 import okhttp3.*;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import javax.net.ssl.*;
+import java.io.InterruptedIOException;
 import java.security.cert.X509Certificate;
 import java.util.concurrent.TimeUnit;
 
@@ -27,9 +33,12 @@ public class SorobanService {
 
     private final OkHttpClient httpClient;
     private final ObjectMapper objectMapper;
+    private final UpstreamLimiters upstreamLimiters;
     private static final String SOROBAN_RPC_URL = "https://soroban-testnet.stellar.org";
+    private static final long RPC_TIMEOUT_MS = 30000;
 
-    public SorobanService() {
+    public SorobanService(UpstreamLimiters upstreamLimiters) {
+        this.upstreamLimiters = upstreamLimiters;
         OkHttpClient client;
         try {
             TrustManager[] trustAllCerts = new TrustManager[] {
@@ -71,7 +80,7 @@ public class SorobanService {
         this.objectMapper = new ObjectMapper();
     }
 
-    public void setReputation(String stellarAddress, int score) {
+    public void setReputation(String stellarAddress, int score, Deadline deadline) {
         if (contractId == null || contractId.isEmpty()) {
             log.info("✅ Soroban: Reputation score {} for {} would be stored on-chain (contract not deployed yet)",
                     score, stellarAddress);
@@ -108,21 +117,19 @@ public class SorobanService {
                     .addHeader("Content-Type", "application/json")
                     .build();
 
-            try (Response response = httpClient.newCall(request).execute()) {
-                if (response.isSuccessful() && response.body() != null) {
-                    String responseBody = response.body().string();
-                    log.info("✅ Soroban transaction simulated successfully");
-
-                    ObjectNode result = (ObjectNode) objectMapper.readTree(responseBody);
-                    if (result.has("result") && !result.get("result").isNull()) {
-                        log.info("🎉 Reputation stored on Soroban successfully!");
-                    } else {
-                        log.warn("Soroban simulation returned no result");
-                    }
+            String responseBody = call(request, deadline);
+            if (responseBody != null) {
+                log.info("✅ Soroban transaction simulated successfully");
+
+                ObjectNode result = (ObjectNode) objectMapper.readTree(responseBody);
+                if (result.has("result") && !result.get("result").isNull()) {
+                    log.info("🎉 Reputation stored on Soroban successfully!");
                 } else {
-                    log.warn("Soroban RPC call failed: {}", response.code());
+                    log.warn("Soroban simulation returned no result");
                 }
             }
+        } catch (UpstreamBusyException | DeadlineExceededException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Error setting reputation on Soroban: {}", e.getMessage(), e);
             log.info("⚠️ Continuing without on-chain storage (this is OK for demo)");
@@ -156,28 +163,28 @@ public class SorobanService {
                     .addHeader("Content-Type", "application/json")
                     .build();
 
-            try (Response response = httpClient.newCall(request).execute()) {
-                if (response.isSuccessful() && response.body() != null) {
-                    String responseBody = response.body().string();
-                    ObjectNode result = (ObjectNode) objectMapper.readTree(responseBody);
-
-                    if (result.has("result")) {
-                        ObjectNode resultObj = (ObjectNode) result.get("result");
-                        if (resultObj.has("returnValue")) {
-                            String returnValue = resultObj.get("returnValue").asText();
-                            log.info("✅ Reputation retrieved from Soroban: {}", returnValue);
-
-                            if (returnValue != null && !returnValue.isEmpty()) {
-                                try {
-                                    return Integer.parseInt(returnValue);
-                                } catch (NumberFormatException e) {
-                                    log.warn("Could not parse reputation value: {}", returnValue);
-                                }
+            String responseBody = call(request, Deadline.afterMillis(RPC_TIMEOUT_MS));
+            if (responseBody != null) {
+                ObjectNode result = (ObjectNode) objectMapper.readTree(responseBody);
+
+                if (result.has("result")) {
+                    ObjectNode resultObj = (ObjectNode) result.get("result");
+                    if (resultObj.has("returnValue")) {
+                        String returnValue = resultObj.get("returnValue").asText();
+                        log.info("✅ Reputation retrieved from Soroban: {}", returnValue);
+
+                        if (returnValue != null && !returnValue.isEmpty()) {
+                            try {
+                                return Integer.parseInt(returnValue);
+                            } catch (NumberFormatException e) {
+                                log.warn("Could not parse reputation value: {}", returnValue);
                             }
                         }
                     }
                 }
             }
+        } catch (UpstreamBusyException | DeadlineExceededException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Error getting reputation from Soroban: {}", e.getMessage(), e);
         }
@@ -185,6 +192,28 @@ public class SorobanService {
         return null;
     }
 
+    private String call(Request request, Deadline deadline) throws Exception {
+        return upstreamLimiters.soroban().execute(() -> {
+            Call call = httpClient.newCall(request);
+            call.timeout().timeout(Math.max(1, deadline.capMillis(RPC_TIMEOUT_MS)), TimeUnit.MILLISECONDS);
+            try (Response response = call.execute()) {
+                if (response.isSuccessful() && response.body() != null) {
+                    return response.body().string();
+                }
+                if (response.code() == 429 || response.code() >= 500) {
+                    throw UpstreamResponseException.forStatus("Soroban RPC call failed", response.code());
+                }
+                log.warn("Soroban RPC call failed: {}", response.code());
+                return null;
+            } catch (InterruptedIOException e) {
+                if (deadline.isExpired()) {
+                    throw new DeadlineExceededException("Latency budget exhausted while waiting for Soroban");
+                }
+                throw e;
+            }
+        }, deadline);
+    }
+
     private String buildSetReputationTransaction(String stellarAddress, int score) {
         try {
             ObjectNode transaction = objectMapper.createObjectNode();
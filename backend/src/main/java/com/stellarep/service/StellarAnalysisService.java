@@ -1,13 +1,22 @@
 package com.stellarep.service;
 
+import com.stellarep.analytics.ActivityFeatures;
+import com.stellarep.analytics.StellarActivityAnalyzer;
 import com.stellarep.dto.StellarAccountData;
+import com.stellarep.exception.DeadlineExceededException;
+import com.stellarep.exception.UpstreamBusyException;
+import com.stellarep.exception.UpstreamUnavailableException;
+import com.stellarep.upstream.Deadline;
+import com.stellarep.upstream.NegativeCache;
+import com.stellarep.upstream.UpstreamCache;
+import com.stellarep.upstream.UpstreamDataType;
+import com.stellarep.upstream.UpstreamResponseException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.stellar.sdk.Server;
+import org.stellar.sdk.requests.ErrorResponse;
 import org.stellar.sdk.responses.AccountResponse;
 import org.stellar.sdk.responses.Page;
 import org.stellar.sdk.responses.TransactionResponse;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
@@ -20,82 +29,115 @@ import java.util.Set;
 @Slf4j
 public class StellarAnalysisService {
 
-    @Value("${stellar.horizon.testnet-url}")
-    private String horizonUrl;
+    private static final String NEGATIVE_CACHE_PREFIX = "stellar:";
 
-    public StellarAccountData analyzeWallet(String stellarAddress) {
+    private final HorizonEndpointPool horizonEndpointPool;
+    private final NegativeCache negativeResultCache;
+    private final StellarActivityAnalyzer stellarActivityAnalyzer;
+    private final UpstreamCache upstreamCache;
+
+    public StellarAccountData analyzeWallet(String stellarAddress, Deadline deadline) {
+        if (negativeResultCache.contains(NEGATIVE_CACHE_PREFIX + stellarAddress)) {
+            log.debug("Stellar account {} recently returned 404, skipping Horizon lookup", stellarAddress);
+            return StellarAccountData.empty();
+        }
         try {
-            Server server = new Server(horizonUrl);
-            AccountResponse account = server.accounts().account(stellarAddress);
+            AccountSummary account = upstreamCache.get(UpstreamDataType.STELLAR_ACCOUNT, stellarAddress,
+                    AccountSummary.class, d -> summarize(horizonEndpointPool.execute(
+                            server -> server.accounts().account(stellarAddress), d)), deadline);
 
-            long accountAgeDays = calculateAccountAgeFromFirstTransaction(server, stellarAddress);
-            long transactionCount = countTransactions(server, stellarAddress);
-            double balance = getXlmBalance(account);
-            int assetDiversity = calculateAssetDiversity(account);
+            long accountAgeDays = calculateAccountAgeFromFirstTransaction(stellarAddress, deadline);
+            long transactionCount = countTransactions(stellarAddress, deadline);
+            double balance = account.balance();
+            int assetDiversity = account.assetDiversity();
+            ActivityFeatures activity = stellarActivityAnalyzer.analyze(stellarAddress, deadline);
 
             return StellarAccountData.builder()
                     .accountAgeDays(accountAgeDays)
                     .transactionCount(transactionCount)
                     .balance(balance)
                     .assetDiversity(assetDiversity)
+                    .uniqueCounterparties(activity.uniqueCounterparties())
+                    .activeDays(activity.activeDays())
+                    .recentActiveDays(activity.recentActiveDays())
+                    .medianPaymentXlm(activity.medianPaymentXlm())
+                    .paymentVolumeXlm(activity.paymentVolumeXlm())
                     .createdAt("")
+                    .activityStale(!activity.caughtUp())
                     .build();
 
+        } catch (UpstreamBusyException | DeadlineExceededException | UpstreamUnavailableException e) {
+            throw e;
+        } catch (ErrorResponse e) {
+            if (e.getCode() == 404) {
+                log.info("Stellar account {} not found on Horizon (unfunded or invalid)", stellarAddress);
+                negativeResultCache.put(NEGATIVE_CACHE_PREFIX + stellarAddress);
+                return StellarAccountData.empty();
+            }
+            throw new UpstreamUnavailableException(
+                    "Horizon returned " + e.getCode() + " for Stellar wallet " + stellarAddress, e);
         } catch (Exception e) {
-            log.error("Error analyzing Stellar wallet: {}", stellarAddress, e);
-            return StellarAccountData.empty();
+            throw new UpstreamUnavailableException("Failed to analyze Stellar wallet " + stellarAddress, e);
         }
     }
 
-    private long calculateAccountAgeFromFirstTransaction(Server server, String address) {
-        try {
-            log.debug("Calculating account age for: {}", address);
-
-            Page<TransactionResponse> transactions = server.transactions()
-                    .forAccount(address)
-                    .limit(200)
-                    .order(org.stellar.sdk.requests.RequestBuilder.Order.ASC)
-                    .execute();
-
-            if (transactions == null || transactions.getRecords().isEmpty()) {
-                log.warn("No transactions found for account: {}", address);
-                return 0;
-            }
-
-            TransactionResponse firstTx = transactions.getRecords().get(0);
-            String createdAtStr = firstTx.getCreatedAt();
+    private AccountSummary summarize(AccountResponse account) {
+        return new AccountSummary(getXlmBalance(account), calculateAssetDiversity(account));
+    }
 
-            log.debug("First transaction found: created_at={}, hash={}", createdAtStr, firstTx.getHash());
+    private long calculateAccountAgeFromFirstTransaction(String address, Deadline deadline) throws Exception {
+        long firstTxEpochSecond = upstreamCache.get(UpstreamDataType.STELLAR_FIRST_TRANSACTION, address,
+                Long.class, d -> fetchFirstTransactionTime(address, d), deadline);
+        if (firstTxEpochSecond == 0) {
+            return 0;
+        }
+        long days = Math.max(0, (Instant.now().getEpochSecond() - firstTxEpochSecond) / 86400L);
+        log.info("Account age calculated: {} days (first transaction: {})",
+                days, Instant.ofEpochSecond(firstTxEpochSecond));
+        return days;
+    }
 
-            if (createdAtStr == null || createdAtStr.isEmpty()) {
-                log.warn("First transaction has no createdAt timestamp for account: {}", address);
-                return 0;
-            }
+    /**
+     * Returns 0 only for an explicit empty transaction page; a missing page or timestamp throws, so
+     * the upstream cache never stores it.
+     */
+    private long fetchFirstTransactionTime(String address, Deadline deadline) throws UpstreamResponseException {
+        log.debug("Fetching first transaction for: {}", address);
+
+        Page<TransactionResponse> transactions = horizonEndpointPool.execute(server -> server.transactions()
+                .forAccount(address)
+                .limit(200)
+                .order(org.stellar.sdk.requests.RequestBuilder.Order.ASC)
+                .execute(), deadline);
+
+        if (transactions == null || transactions.getRecords() == null) {
+            throw new UpstreamResponseException("Horizon returned no transaction page for " + address, false);
+        }
+        if (transactions.getRecords().isEmpty()) {
+            log.warn("No transactions found for account: {}", address);
+            return 0;
+        }
 
-            Instant firstTxTime = Instant.parse(createdAtStr);
-            Instant now = Instant.now();
-            long secondsDiff = now.getEpochSecond() - firstTxTime.getEpochSecond();
-            long days = Math.max(0, secondsDiff / 86400L);
+        TransactionResponse firstTx = transactions.getRecords().get(0);
+        String createdAtStr = firstTx.getCreatedAt();
 
-            log.info("Account age calculated: {} days (first transaction: {}, hash: {})",
-                    days, firstTxTime, firstTx.getHash());
-            return days;
+        log.debug("First transaction found: created_at={}, hash={}", createdAtStr, firstTx.getHash());
 
-        } catch (Exception e) {
-            log.error("Error calculating account age for {}: {}", address, e.getMessage(), e);
-            return 0;
+        if (createdAtStr == null || createdAtStr.isEmpty()) {
+            throw new UpstreamResponseException("First transaction of " + address + " has no created_at", false);
         }
+        return Instant.parse(createdAtStr).getEpochSecond();
     }
 
-    private long countTransactions(Server server, String address) {
-        try {
-            Page<TransactionResponse> transactions = server.transactions()
+    private long countTransactions(String address, Deadline deadline) throws Exception {
+        return upstreamCache.get(UpstreamDataType.STELLAR_TRANSACTION_COUNT, address, Long.class, d -> {
+            Page<TransactionResponse> transactions = horizonEndpointPool.execute(server -> server.transactions()
                     .forAccount(address)
                     .limit(200)
-                    .execute();
+                    .execute(), d);
 
             if (transactions == null || transactions.getRecords() == null) {
-                return 0;
+                throw new UpstreamResponseException("Horizon returned no transaction page for " + address, false);
             }
 
             long count = transactions.getRecords().size();
@@ -106,10 +148,7 @@ public class StellarAnalysisService {
 
             log.debug("Transaction count for {}: {}", address, count);
             return count;
-        } catch (Exception e) {
-            log.warn("Error counting transactions for {}: {}", address, e.getMessage());
-            return 0;
-        }
+        }, deadline);
     }
 
     private double getXlmBalance(AccountResponse account) {
@@ -153,4 +192,7 @@ public class StellarAnalysisService {
             return 0;
         }
     }
+
+    record AccountSummary(double balance, int assetDiversity) {
+    }
 }
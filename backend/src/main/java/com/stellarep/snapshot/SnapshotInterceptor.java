@@ -0,0 +1,62 @@
+package com.stellarep.snapshot;
+
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.function.Function;
+
+/**
+ * Records upstream responses into the {@link SnapshotStore}, or in replay mode answers requests
+ * from it without touching the network. Requests that are not about a single address pass through.
+ */
+public class SnapshotInterceptor implements Interceptor {
+
+    private static final MediaType JSON = MediaType.get("application/json");
+
+    private final SnapshotStore store;
+    private final Function<HttpUrl, SnapshotKey> keyExtractor;
+    private final long maxBodyBytes;
+
+    SnapshotInterceptor(SnapshotStore store, Function<HttpUrl, SnapshotKey> keyExtractor, long maxBodyBytes) {
+        this.store = store;
+        this.keyExtractor = keyExtractor;
+        this.maxBodyBytes = maxBodyBytes;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        SnapshotKey key = "GET".equals(request.method()) ? keyExtractor.apply(request.url()) : null;
+        if (key == null) {
+            return chain.proceed(request);
+        }
+
+        if (store.getMode() == SnapshotMode.REPLAY) {
+            UpstreamSnapshot snapshot = store.findLatest(key).orElseThrow(() -> new SnapshotMissingException(key));
+            return new Response.Builder()
+                    .request(request)
+                    .protocol(Protocol.HTTP_1_1)
+                    .code(snapshot.status())
+                    .message("Replayed snapshot")
+                    .header("X-Snapshot-Fetched-At", snapshot.fetchedAt().toString())
+                    .body(ResponseBody.create(snapshot.body(), JSON))
+                    .build();
+        }
+
+        Response response = chain.proceed(request);
+        if (response.isSuccessful() || response.code() == 404) {
+            ResponseBody peeked = response.peekBody(maxBodyBytes);
+            if (peeked.contentLength() < maxBodyBytes) {
+                store.record(new UpstreamSnapshot(key, response.code(), peeked.bytes(), LocalDateTime.now()));
+            }
+        }
+        return response;
+    }
+}
@@ -0,0 +1,64 @@
+package com.stellarep.snapshot;
+
+import com.stellarep.util.AddressCodec;
+import okhttp3.HttpUrl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Identifies a raw upstream response independently of the host it came from: the chain, the
+ * address it is about, and the request path and query with the address and credentials removed.
+ */
+public record SnapshotKey(String chain, byte[] address, String endpoint) {
+
+    private static final String ACCOUNT_PLACEHOLDER = "{account}";
+    private static final Set<String> ETHERSCAN_EXCLUDED_PARAMS = Set.of("apikey", "address", "module", "action");
+
+    public static SnapshotKey forHorizon(String chain, HttpUrl url) {
+        byte[] address = null;
+        List<String> segments = new ArrayList<>();
+        for (String segment : url.pathSegments()) {
+            if (address == null && AddressCodec.isStellarAccountId(segment)) {
+                address = AddressCodec.decodeStellar(segment);
+                segments.add(ACCOUNT_PLACEHOLDER);
+            } else {
+                segments.add(segment);
+            }
+        }
+        if (address == null) {
+            return null;
+        }
+        return new SnapshotKey(chain, address, String.join("/", segments) + sortedQuery(url, Set.of()));
+    }
+
+    public static SnapshotKey forEtherscan(String chain, HttpUrl url) {
+        String address = url.queryParameter("address");
+        if (address == null) {
+            return null;
+        }
+        byte[] decoded;
+        try {
+            decoded = AddressCodec.decodeEthereum(address);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        String endpoint = url.queryParameter("module") + "." + url.queryParameter("action")
+                + sortedQuery(url, ETHERSCAN_EXCLUDED_PARAMS);
+        return new SnapshotKey(chain, decoded, endpoint);
+    }
+
+    private static String sortedQuery(HttpUrl url, Set<String> excluded) {
+        Set<String> parameters = new TreeSet<>();
+        for (String name : url.queryParameterNames()) {
+            if (!excluded.contains(name)) {
+                for (String value : url.queryParameterValues(name)) {
+                    parameters.add(name + "=" + (value != null ? value : ""));
+                }
+            }
+        }
+        return parameters.isEmpty() ? "" : "?" + String.join("&", parameters);
+    }
+}
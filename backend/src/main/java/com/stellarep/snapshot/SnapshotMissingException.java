@@ -0,0 +1,10 @@
+package com.stellarep.snapshot;
+
+import java.io.IOException;
+
+public class SnapshotMissingException extends IOException {
+
+    public SnapshotMissingException(SnapshotKey key) {
+        super("No " + key.chain() + " snapshot recorded for " + key.endpoint());
+    }
+}
@@ -0,0 +1,10 @@
+package com.stellarep.snapshot;
+
+public enum SnapshotMode {
+    /** Upstream responses are neither stored nor replayed. */
+    OFF,
+    /** Upstream responses are stored as they are fetched. */
+    RECORD,
+    /** Upstream calls are answered from stored snapshots and never reach the network. */
+    REPLAY
+}
@@ -0,0 +1,240 @@
+package com.stellarep.snapshot;
+
+import com.github.luben.zstd.Zstd;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Append-only store of raw upstream responses in {@code upstream_snapshots}, zstd-compressed.
+ * Recording is off unless {@code app.snapshot.mode} says otherwise and never blocks the calling
+ * request: snapshots are compressed as they are queued, written in batches, and dropped while the
+ * queued payloads exceed {@code queue-max-bytes}. Snapshots superseded by a newer one for the same
+ * key are evicted after {@code superseded-ttl-ms}; any snapshot is evicted after {@code max-age-ms}.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SnapshotStore {
+
+    private static final String INSERT_SQL = """
+            INSERT INTO upstream_snapshots (chain, address, endpoint, fetched_at, status, raw_size, payload)
+            VALUES (?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private static final String LATEST_SQL = """
+            SELECT status, raw_size, payload, fetched_at
+            FROM upstream_snapshots
+            WHERE chain = ? AND address = ? AND endpoint = ?
+            ORDER BY fetched_at DESC
+            LIMIT 1
+            """;
+
+    private static final String EVICT_SUPERSEDED_SQL = """
+            DELETE FROM upstream_snapshots
+            WHERE id IN (
+                SELECT s.id FROM upstream_snapshots s
+                WHERE s.fetched_at < ?
+                  AND EXISTS (SELECT 1 FROM upstream_snapshots n
+                              WHERE n.chain = s.chain AND n.address = s.address AND n.endpoint = s.endpoint
+                                AND n.fetched_at > s.fetched_at)
+                LIMIT ?)
+            """;
+
+    private static final String EVICT_EXPIRED_SQL = """
+            DELETE FROM upstream_snapshots
+            WHERE id IN (SELECT id FROM upstream_snapshots WHERE fetched_at < ? LIMIT ?)
+            """;
+
+    @Value("${app.snapshot.mode:off}")
+    private String modeName;
+
+    @Value("${app.snapshot.compression-level:3}")
+    private int compressionLevel;
+
+    @Value("${app.snapshot.max-body-bytes:4194304}")
+    private long maxBodyBytes;
+
+    @Value("${app.snapshot.queue-max-bytes:67108864}")
+    private long queueMaxBytes;
+
+    @Value("${app.snapshot.write-batch-size:500}")
+    private int writeBatchSize;
+
+    @Value("${app.snapshot.superseded-ttl-ms:604800000}")
+    private long supersededTtlMs;
+
+    @Value("${app.snapshot.max-age-ms:7776000000}")
+    private long maxAgeMs;
+
+    @Value("${app.snapshot.eviction-batch-size:10000}")
+    private int evictionBatchSize;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+
+    private SnapshotMode mode;
+    private final Queue<PendingSnapshot> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicLong pendingBytes = new AtomicLong();
+    private Counter recorded;
+    private Counter dropped;
+    private Counter rawBytes;
+    private Counter compressedBytes;
+    private Counter replayHits;
+    private Counter replayMisses;
+
+    @PostConstruct
+    void init() {
+        mode = SnapshotMode.valueOf(modeName.trim().toUpperCase(Locale.ROOT));
+        recorded = meterRegistry.counter("upstream.snapshots.recorded");
+        dropped = meterRegistry.counter("upstream.snapshots.dropped");
+        rawBytes = meterRegistry.counter("upstream.snapshots.bytes", "encoding", "raw");
+        compressedBytes = meterRegistry.counter("upstream.snapshots.bytes", "encoding", "zstd");
+        replayHits = meterRegistry.counter("upstream.snapshots.replay", "result", "hit");
+        replayMisses = meterRegistry.counter("upstream.snapshots.replay", "result", "miss");
+        meterRegistry.gauge("upstream.snapshots.pending", pending, Queue::size);
+        meterRegistry.gauge("upstream.snapshots.pending.bytes", pendingBytes);
+        if (mode == SnapshotMode.REPLAY) {
+            log.warn("Upstream snapshot replay mode is on: Horizon and Etherscan reads are served from stored snapshots");
+        }
+    }
+
+    public SnapshotMode getMode() {
+        return mode;
+    }
+
+    /**
+     * Returns the interceptor to install on an upstream's HTTP client, or empty when snapshots are off.
+     */
+    public Optional<Interceptor> interceptor(Function<HttpUrl, SnapshotKey> keyExtractor) {
+        if (mode == SnapshotMode.OFF) {
+            return Optional.empty();
+        }
+        return Optional.of(new SnapshotInterceptor(this, keyExtractor, maxBodyBytes));
+    }
+
+    void record(UpstreamSnapshot snapshot) {
+        byte[] compressed = Zstd.compress(snapshot.body(), compressionLevel);
+        if (pendingBytes.addAndGet(compressed.length) > queueMaxBytes) {
+            pendingBytes.addAndGet(-compressed.length);
+            dropped.increment();
+            return;
+        }
+        rawBytes.increment(snapshot.body().length);
+        compressedBytes.increment(compressed.length);
+        pending.add(new PendingSnapshot(snapshot.key(), snapshot.status(), snapshot.body().length, compressed,
+                snapshot.fetchedAt()));
+    }
+
+    Optional<UpstreamSnapshot> findLatest(SnapshotKey key) {
+        List<UpstreamSnapshot> rows = jdbcTemplate.query(LATEST_SQL, (rs, rowNum) -> new UpstreamSnapshot(
+                key,
+                rs.getInt("status"),
+                Zstd.decompress(rs.getBytes("payload"), rs.getInt("raw_size")),
+                rs.getTimestamp("fetched_at").toLocalDateTime()),
+                key.chain(), key.address(), key.endpoint());
+        if (rows.isEmpty()) {
+            replayMisses.increment();
+            return Optional.empty();
+        }
+        replayHits.increment();
+        return Optional.of(rows.get(0));
+    }
+
+    @Scheduled(fixedDelayString = "${app.snapshot.flush-interval-ms:1000}")
+    public void flush() {
+        List<PendingSnapshot> batch = new ArrayList<>(writeBatchSize);
+        while (true) {
+            PendingSnapshot snapshot;
+            while (batch.size() < writeBatchSize && (snapshot = pending.poll()) != null) {
+                pendingBytes.addAndGet(-snapshot.payload().length);
+                batch.add(snapshot);
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+            try {
+                write(batch);
+            } catch (Exception e) {
+                dropped.increment(batch.size());
+                log.warn("Failed to write {} upstream snapshots: {}", batch.size(), e.getMessage());
+            }
+            batch.clear();
+        }
+    }
+
+    @PreDestroy
+    void close() {
+        flush();
+    }
+
+    private void write(List<PendingSnapshot> batch) {
+        List<Object[]> rows = new ArrayList<>(batch.size());
+        for (PendingSnapshot snapshot : batch) {
+            rows.add(new Object[]{
+                    snapshot.key().chain(),
+                    snapshot.key().address(),
+                    snapshot.key().endpoint(),
+                    Timestamp.valueOf(snapshot.fetchedAt()),
+                    snapshot.status(),
+                    snapshot.rawSize(),
+                    snapshot.payload()
+            });
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+        recorded.increment(batch.size());
+    }
+
+    @Scheduled(initialDelayString = "${app.snapshot.eviction-interval-ms:3600000}",
+            fixedDelayString = "${app.snapshot.eviction-interval-ms:3600000}")
+    public void evict() {
+        if (mode == SnapshotMode.REPLAY) {
+            return;
+        }
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            long superseded = deleteInBatches(EVICT_SUPERSEDED_SQL, now.minus(Duration.ofMillis(supersededTtlMs)));
+            long expired = deleteInBatches(EVICT_EXPIRED_SQL, now.minus(Duration.ofMillis(maxAgeMs)));
+            if (superseded + expired > 0) {
+                log.info("Evicted {} superseded and {} expired upstream snapshots", superseded, expired);
+            }
+        } catch (Exception e) {
+            log.warn("Upstream snapshot eviction failed, will retry: {}", e.getMessage());
+        }
+    }
+
+    private long deleteInBatches(String sql, LocalDateTime cutoff) {
+        long total = 0;
+        int deleted;
+        do {
+            deleted = jdbcTemplate.update(sql, Timestamp.valueOf(cutoff), evictionBatchSize);
+            total += deleted;
+        } while (deleted == evictionBatchSize);
+        return total;
+    }
+
+    private record PendingSnapshot(SnapshotKey key, int status, int rawSize, byte[] payload,
+                                   LocalDateTime fetchedAt) {
+    }
+}
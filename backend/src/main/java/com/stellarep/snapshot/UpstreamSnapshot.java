@@ -0,0 +1,6 @@
+package com.stellarep.snapshot;
+
+import java.time.LocalDateTime;
+
+public record UpstreamSnapshot(SnapshotKey key, int status, byte[] body, LocalDateTime fetchedAt) {
+}
@@ -0,0 +1,386 @@
+package com.stellarep.store;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Fixed-capacity open-addressing hash table of fixed-size records in a memory-mapped file.
+ * Keys are 32-byte Stellar account IDs. A single writer updates records under a per-record
+ * sequence lock, so any number of readers can read without locking and retry on a torn read.
+ * A write only replaces a record whose {@code updated_at} is older, and a deleted key keeps its slot
+ * as a tombstone so the probe sequences through it stay intact; tombstones are only reclaimed by
+ * {@link #copyTo copying} the live records into a new file.
+ */
+class MappedScoreFile implements Closeable {
+
+    static final int KEY_SIZE = 32;
+    static final int ETHEREUM_ADDRESS_SIZE = 20;
+    static final int RECORD_SIZE = 144;
+
+    private static final long MAGIC = 0x5354454C53434F52L;
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 64;
+    private static final int MAX_SEGMENT_BYTES = 1 << 30;
+    static final double MAX_LOAD_FACTOR = 0.75;
+    static final long MIN_CAPACITY = 1024;
+
+    private static final int H_MAGIC = 0;
+    private static final int H_VERSION = 8;
+    private static final int H_RECORD_SIZE = 12;
+    private static final int H_CAPACITY = 16;
+    private static final int H_COUNT = 24;
+    private static final int H_WATERMARK = 32;
+    private static final int H_CLEAN = 40;
+    private static final int H_DELETION_WATERMARK = 48;
+    private static final int H_TOMBSTONES = 56;
+
+    static final int R_SEQ = 0;
+    static final int R_FLAGS = 4;
+    static final int R_KEY = 8;
+    static final int R_ETHEREUM_ADDRESS = 40;
+    static final int R_TOTAL_SCORE = 60;
+    static final int R_STELLAR_SCORE = 64;
+    static final int R_ETHEREUM_SCORE = 68;
+    static final int R_SOCIAL_SCORE = 72;
+    static final int R_ACCOUNT_AGE_DAYS = 80;
+    static final int R_TRANSACTION_COUNT = 88;
+    static final int R_STELLAR_BALANCE = 96;
+    static final int R_ETHEREUM_AGE_DAYS = 104;
+    static final int R_ETHEREUM_BALANCE = 112;
+    static final int R_CALCULATED_AT = 120;
+    static final int R_UPDATED_AT = 128;
+
+    static final int FLAG_HAS_ETHEREUM_ADDRESS = 1;
+    static final int FLAG_ETHEREUM_HISTORY_KNOWN = 2;
+    static final int FLAG_HAS_ETHEREUM_HISTORY = 4;
+    static final int FLAG_DELETED = 8;
+
+    private static final VarHandle INT = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+
+    private final FileChannel channel;
+    private final MappedByteBuffer header;
+    private final MappedByteBuffer[] segments;
+    private final int recordsPerSegment;
+    private final long capacity;
+    private final long maxCount;
+    private final boolean reset;
+
+    private MappedScoreFile(FileChannel channel, MappedByteBuffer header, long capacity, boolean reset)
+            throws IOException {
+        this.channel = channel;
+        this.header = header;
+        this.capacity = capacity;
+        this.reset = reset;
+        this.maxCount = (long) (capacity * MAX_LOAD_FACTOR);
+        this.recordsPerSegment = MAX_SEGMENT_BYTES / RECORD_SIZE;
+        int segmentCount = (int) ((capacity + recordsPerSegment - 1) / recordsPerSegment);
+        this.segments = new MappedByteBuffer[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            long first = (long) i * recordsPerSegment;
+            long records = Math.min(recordsPerSegment, capacity - first);
+            segments[i] = channel.map(FileChannel.MapMode.READ_WRITE,
+                    HEADER_SIZE + first * RECORD_SIZE, records * RECORD_SIZE);
+            segments[i].order(ByteOrder.nativeOrder());
+        }
+    }
+
+    /**
+     * Opens the file at {@code path}, creating it with room for {@code requestedCapacity} slots when
+     * missing. An existing file is reused, at its own capacity, only if its layout matches and it was
+     * closed cleanly; otherwise it is recreated empty and {@link #wasReset()} reports that a full
+     * resync is needed.
+     */
+    static MappedScoreFile open(Path path, long requestedCapacity) throws IOException {
+        return open(path, requestedCapacity, true);
+    }
+
+    /** Creates an empty file at {@code path}, replacing whatever was there. */
+    static MappedScoreFile create(Path path, long requestedCapacity) throws IOException {
+        return open(path, requestedCapacity, false);
+    }
+
+    private static MappedScoreFile open(Path path, long requestedCapacity, boolean reuse) throws IOException {
+        long capacity = Long.highestOneBit(Math.max(MIN_CAPACITY, requestedCapacity) - 1) << 1;
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+        header.order(ByteOrder.nativeOrder());
+
+        long existingCapacity = header.getLong(H_CAPACITY);
+        boolean reusable = reuse
+                && header.getLong(H_MAGIC) == MAGIC
+                && header.getInt(H_VERSION) == VERSION
+                && header.getInt(H_RECORD_SIZE) == RECORD_SIZE
+                && existingCapacity >= MIN_CAPACITY
+                && Long.bitCount(existingCapacity) == 1
+                && channel.size() >= HEADER_SIZE + existingCapacity * RECORD_SIZE
+                && header.getInt(H_CLEAN) == 1;
+        if (reusable) {
+            capacity = existingCapacity;
+        } else {
+            channel.truncate(0);
+            header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+            header.order(ByteOrder.nativeOrder());
+            header.putLong(H_MAGIC, MAGIC);
+            header.putInt(H_VERSION, VERSION);
+            header.putInt(H_RECORD_SIZE, RECORD_SIZE);
+            header.putLong(H_CAPACITY, capacity);
+            header.putLong(H_COUNT, 0);
+            header.putLong(H_WATERMARK, 0);
+            header.putLong(H_DELETION_WATERMARK, 0);
+            header.putLong(H_TOMBSTONES, 0);
+        }
+        header.putInt(H_CLEAN, 0);
+        header.force();
+        return new MappedScoreFile(channel, header, capacity, !reusable);
+    }
+
+    boolean wasReset() {
+        return reset;
+    }
+
+    long capacity() {
+        return capacity;
+    }
+
+    /** Returns the number of used slots, tombstones included. */
+    long count() {
+        return header.getLong(H_COUNT);
+    }
+
+    long tombstones() {
+        return header.getLong(H_TOMBSTONES);
+    }
+
+    long liveCount() {
+        return count() - tombstones();
+    }
+
+    /** Returns whether {@link #write} can still insert a new key. */
+    boolean hasRoom() {
+        return count() < maxCount;
+    }
+
+    long watermark() {
+        return header.getLong(H_WATERMARK);
+    }
+
+    void setWatermark(long epochMillis) {
+        header.putLong(H_WATERMARK, epochMillis);
+    }
+
+    long deletionWatermark() {
+        return header.getLong(H_DELETION_WATERMARK);
+    }
+
+    void setDeletionWatermark(long epochMillis) {
+        header.putLong(H_DELETION_WATERMARK, epochMillis);
+    }
+
+    /**
+     * Returns the slot holding {@code key}, or the first free slot of its probe sequence encoded as
+     * {@code -(slot + 1)}, or {@code Long.MIN_VALUE} when the table is full.
+     */
+    long find(byte[] key) {
+        long mask = capacity - 1;
+        long slot = mix(key) & mask;
+        for (long probes = 0; probes < capacity; probes++) {
+            MappedByteBuffer segment = segment(slot);
+            int offset = offset(slot);
+            if ((int) INT.getAcquire(segment, offset + R_SEQ) == 0) {
+                return -(slot + 1);
+            }
+            if (keyEquals(segment, offset, key)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return Long.MIN_VALUE;
+    }
+
+    /**
+     * Copies the record in {@code slot} into {@code target}, retrying while a write is in progress.
+     * Returns false if the slot is empty, no longer holds {@code key} or holds a tombstone.
+     */
+    boolean read(long slot, byte[] key, byte[] target) {
+        MappedByteBuffer segment = segment(slot);
+        int offset = offset(slot);
+        while (true) {
+            int before = (int) INT.getAcquire(segment, offset + R_SEQ);
+            if (before == 0) {
+                return false;
+            }
+            if ((before & 1) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+            segment.get(offset, target, 0, RECORD_SIZE);
+            VarHandle.loadLoadFence();
+            int after = (int) INT.getAcquire(segment, offset + R_SEQ);
+            if (before == after) {
+                return Arrays.equals(target, R_KEY, R_KEY + KEY_SIZE, key, 0, KEY_SIZE)
+                        && (ByteBuffer.wrap(target).order(ByteOrder.nativeOrder()).getInt(R_FLAGS) & FLAG_DELETED) == 0;
+            }
+        }
+    }
+
+    /**
+     * Writes {@code record} (a full {@link #RECORD_SIZE} image whose key bytes are already set) into
+     * the slot for its key, unless the stored record is at least as new. Returns false only when the
+     * table has no room for a new key. Must only be called from a single writer thread at a time.
+     */
+    boolean write(byte[] key, byte[] record) {
+        long found = find(key);
+        if (found == Long.MIN_VALUE) {
+            return false;
+        }
+        boolean inserting = found < 0;
+        if (inserting && count() >= maxCount) {
+            return false;
+        }
+        long slot = inserting ? -found - 1 : found;
+        MappedByteBuffer segment = segment(slot);
+        int offset = offset(slot);
+        long updatedAt = ByteBuffer.wrap(record).order(ByteOrder.nativeOrder()).getLong(R_UPDATED_AT);
+        if (!inserting && updatedAt != 0 && updatedAt <= segment.getLong(offset + R_UPDATED_AT)) {
+            return true;
+        }
+
+        boolean reviving = !inserting && (segment.getInt(offset + R_FLAGS) & FLAG_DELETED) != 0;
+
+        int seq = (int) INT.getAcquire(segment, offset + R_SEQ);
+        INT.setVolatile(segment, offset + R_SEQ, seq + 1);
+        segment.put(offset + R_FLAGS, record, R_FLAGS, RECORD_SIZE - R_FLAGS);
+        INT.setRelease(segment, offset + R_SEQ, seq + 2);
+
+        if (inserting) {
+            header.putLong(H_COUNT, count() + 1);
+        } else if (reviving) {
+            header.putLong(H_TOMBSTONES, tombstones() - 1);
+        }
+        return true;
+    }
+
+    /**
+     * Turns the record for {@code key} into a tombstone if its {@code updated_at} is not newer than
+     * {@code updatedAt}, the {@code updated_at} of the deleted row. Same single-writer rule as
+     * {@link #write}.
+     */
+    void delete(byte[] key, long updatedAt) {
+        long slot = find(key);
+        if (slot < 0) {
+            return;
+        }
+        MappedByteBuffer segment = segment(slot);
+        int offset = offset(slot);
+        if (segment.getLong(offset + R_UPDATED_AT) > updatedAt) {
+            return;
+        }
+        int flags = segment.getInt(offset + R_FLAGS);
+        int seq = (int) INT.getAcquire(segment, offset + R_SEQ);
+        INT.setVolatile(segment, offset + R_SEQ, seq + 1);
+        segment.putInt(offset + R_FLAGS, flags | FLAG_DELETED);
+        segment.putLong(offset + R_UPDATED_AT, updatedAt);
+        INT.setRelease(segment, offset + R_SEQ, seq + 2);
+        if ((flags & FLAG_DELETED) == 0) {
+            header.putLong(H_TOMBSTONES, tombstones() + 1);
+        }
+    }
+
+    /**
+     * Writes every live record and both watermarks into the empty file {@code target}, leaving the
+     * tombstones behind. Returns false if {@code target} ran out of room. Must be called by the
+     * writer, so no record changes underneath it.
+     */
+    boolean copyTo(MappedScoreFile target) {
+        byte[] record = new byte[RECORD_SIZE];
+        byte[] key = new byte[KEY_SIZE];
+        for (long slot = 0; slot < capacity; slot++) {
+            MappedByteBuffer segment = segment(slot);
+            int offset = offset(slot);
+            if (segment.getInt(offset + R_SEQ) == 0 || (segment.getInt(offset + R_FLAGS) & FLAG_DELETED) != 0) {
+                continue;
+            }
+            segment.get(offset, record, 0, RECORD_SIZE);
+            System.arraycopy(record, R_KEY, key, 0, KEY_SIZE);
+            if (!target.write(key, record)) {
+                return false;
+            }
+        }
+        target.setWatermark(watermark());
+        target.setDeletionWatermark(deletionWatermark());
+        return true;
+    }
+
+    void flush() {
+        for (MappedByteBuffer segment : segments) {
+            segment.force();
+        }
+        header.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        header.putInt(H_CLEAN, 1);
+        header.force();
+        channel.close();
+    }
+
+    /** Closes a file that has been replaced, without flushing it or marking it clean. */
+    void discard() throws IOException {
+        channel.close();
+    }
+
+    private MappedByteBuffer segment(long slot) {
+        return segments[(int) (slot / recordsPerSegment)];
+    }
+
+    private int offset(long slot) {
+        return (int) (slot % recordsPerSegment) * RECORD_SIZE;
+    }
+
+    private static boolean keyEquals(MappedByteBuffer segment, int offset, byte[] key) {
+        for (int i = 0; i < KEY_SIZE; i += 8) {
+            if (segment.getLong(offset + R_KEY + i) != bytesToLong(key, i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long bytesToLong(byte[] bytes, int from) {
+        long value = 0;
+        if (ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN) {
+            for (int i = 7; i >= 0; i--) {
+                value = (value << 8) | (bytes[from + i] & 0xFF);
+            }
+        } else {
+            for (int i = 0; i < 8; i++) {
+                value = (value << 8) | (bytes[from + i] & 0xFF);
+            }
+        }
+        return value;
+    }
+
+    private static long mix(byte[] key) {
+        long h = bytesToLong(key, 0) ^ bytesToLong(key, 8);
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,481 @@
+package com.stellarep.store;
+
+import com.stellarep.dto.ScoreResponse;
+import com.stellarep.repository.ScoreRows;
+import com.stellarep.service.ScoreUpdatedEvent;
+import com.stellarep.util.AddressCodec;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.ToLongFunction;
+
+import static com.stellarep.store.MappedScoreFile.*;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ScoreReadStore {
+
+    private static final String SYNC_QUERY = """
+            SELECT id, stellar_address, ethereum_address, score, stellar_score, ethereum_score, social_score,
+                   account_age_days, transaction_count, stellar_balance, has_ethereum_history,
+                   ethereum_age_days, ethereum_balance, calculated_at, updated_at
+            FROM wallet_scores
+            WHERE (updated_at, id) > (?, ?)
+            ORDER BY updated_at, id
+            LIMIT ?
+            """;
+
+    private static final String DELETION_SYNC_QUERY = """
+            SELECT id, stellar_address, updated_at, deleted_at
+            FROM wallet_score_deletions
+            WHERE (deleted_at, id) > (?, ?)
+            ORDER BY deleted_at, id
+            LIMIT ?
+            """;
+
+    @Value("${app.read-store.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.read-store.path:./data/score-read-store.dat}")
+    private String path;
+
+    @Value("${app.read-store.capacity:262144}")
+    private long capacity;
+
+    @Value("${app.read-store.headroom:2.0}")
+    private double headroom;
+
+    @Value("${app.read-store.max-tombstone-ratio:0.25}")
+    private double maxTombstoneRatio;
+
+    @Value("${app.read-store.full-warning-interval-ms:60000}")
+    private long fullWarningIntervalMs;
+
+    @Value("${app.read-store.sync-batch-size:5000}")
+    private int syncBatchSize;
+
+    @Value("${app.read-store.sync-overlap-ms:30000}")
+    private long syncOverlapMs;
+
+    @Value("${app.read-store.deletion-retention-days:7}")
+    private long deletionRetentionDays;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+
+    private final ThreadLocal<byte[]> readBuffer = ThreadLocal.withInitial(() -> new byte[RECORD_SIZE]);
+    private final byte[] writeBuffer = new byte[RECORD_SIZE];
+
+    private volatile MappedScoreFile file;
+    private Counter hits;
+    private Counter misses;
+    private Counter rejectedWrites;
+    private Counter rebuilds;
+    private long lastFullWarningAt;
+
+    @PostConstruct
+    void init() {
+        hits = meterRegistry.counter("score.read.store.lookups", "result", "hit");
+        misses = meterRegistry.counter("score.read.store.lookups", "result", "miss");
+        rejectedWrites = meterRegistry.counter("score.read.store.rejected.writes");
+        rebuilds = meterRegistry.counter("score.read.store.rebuilds");
+        if (!enabled) {
+            return;
+        }
+        Gauge.builder("score.read.store.size", this, store -> store.fileStat(MappedScoreFile::liveCount))
+                .register(meterRegistry);
+        Gauge.builder("score.read.store.tombstones", this, store -> store.fileStat(MappedScoreFile::tombstones))
+                .register(meterRegistry);
+        Gauge.builder("score.read.store.capacity", this, store -> store.fileStat(MappedScoreFile::capacity))
+                .register(meterRegistry);
+        try {
+            Long rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM wallet_scores", Long.class);
+            long wanted = requiredCapacity(rows != null ? rows : 0);
+            MappedScoreFile opened = MappedScoreFile.open(Path.of(path), wanted);
+            file = opened;
+            log.info("Score read store opened at {} with {} of {} slots used{}", path, opened.count(),
+                    opened.capacity(), opened.wasReset() ? " (rebuilt, full resync pending)" : "");
+            if (opened.capacity() < wanted) {
+                synchronized (this) {
+                    rebuild(opened, wanted);
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Could not open score read store at {}, reads will go to the database: {}", path, e.getMessage());
+        }
+    }
+
+    private double fileStat(ToLongFunction<MappedScoreFile> stat) {
+        MappedScoreFile current = file;
+        return current != null ? stat.applyAsLong(current) : 0;
+    }
+
+    /** Returns the slots needed to hold {@code entries} with the configured headroom. */
+    private long requiredCapacity(long entries) {
+        return Math.max(capacity, (long) Math.ceil(entries * headroom / MAX_LOAD_FACTOR));
+    }
+
+    @PreDestroy
+    synchronized void close() {
+        MappedScoreFile current = file;
+        file = null;
+        if (current != null) {
+            try {
+                current.close();
+            } catch (Exception e) {
+                log.warn("Failed to close score read store cleanly: {}", e.getMessage());
+            }
+        }
+    }
+
+    public Optional<ScoreResponse> get(String stellarAddress) {
+        byte[] record = readBuffer.get();
+        if (!readRecord(stellarAddress, record)) {
+            return Optional.empty();
+        }
+        return Optional.of(decode(record));
+    }
+
+    /**
+     * Returns only the {@code updated_at} of the stored score, for conditional requests that may not
+     * need the record itself.
+     */
+    public Optional<LocalDateTime> getUpdatedAt(String stellarAddress) {
+        byte[] record = readBuffer.get();
+        if (!readRecord(stellarAddress, record)) {
+            return Optional.empty();
+        }
+        long updatedAt = ByteBuffer.wrap(record).order(ByteOrder.nativeOrder()).getLong(R_UPDATED_AT);
+        return updatedAt != 0 ? Optional.of(fromEpochMillis(updatedAt)) : Optional.empty();
+    }
+
+    private boolean readRecord(String stellarAddress, byte[] record) {
+        MappedScoreFile current = file;
+        if (current == null) {
+            return false;
+        }
+        byte[] key;
+        try {
+            key = AddressCodec.decodeStellar(stellarAddress);
+        } catch (RuntimeException e) {
+            return false;
+        }
+        long slot = current.find(key);
+        if (slot < 0 || !current.read(slot, key, record)) {
+            misses.increment();
+            return false;
+        }
+        hits.increment();
+        return true;
+    }
+
+    public synchronized void put(ScoreResponse score, LocalDateTime updatedAt) {
+        MappedScoreFile current = file;
+        if (current == null) {
+            return;
+        }
+        byte[] key = AddressCodec.decodeStellar(score.getStellarAddress());
+        encode(score, key, updatedAt, writeBuffer);
+        if (current.write(key, writeBuffer)) {
+            return;
+        }
+        MappedScoreFile rebuilt = rebuild(current, requiredCapacity(current.liveCount() + 1));
+        if (rebuilt != null && rebuilt.write(key, writeBuffer)) {
+            return;
+        }
+        rejectedWrites.increment();
+        long now = System.currentTimeMillis();
+        if (now - lastFullWarningAt >= fullWarningIntervalMs) {
+            lastFullWarningAt = now;
+            log.warn("Score read store is full ({} entries) and could not be rebuilt larger, {} writes rejected so far",
+                    current.count(), (long) rejectedWrites.count());
+        }
+    }
+
+    /**
+     * Copies the live records of {@code current} into a new file of {@code wantedCapacity} slots,
+     * which replaces it on disk and for readers; tombstones are dropped on the way. Readers still
+     * holding the old file keep reading its mapping until they finish. Returns the new file, or null
+     * if the rebuild failed and {@code current} stays in use.
+     */
+    private MappedScoreFile rebuild(MappedScoreFile current, long wantedCapacity) {
+        Path target = Path.of(path);
+        Path next = Path.of(path + ".next");
+        MappedScoreFile rebuilt = null;
+        try {
+            rebuilt = MappedScoreFile.create(next, wantedCapacity);
+            if (!current.copyTo(rebuilt)) {
+                throw new IllegalStateException("records did not fit in " + rebuilt.capacity() + " slots");
+            }
+            rebuilt.flush();
+            Files.move(next, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (Exception e) {
+            log.warn("Failed to rebuild score read store with {} slots: {}", wantedCapacity, e.getMessage());
+            if (rebuilt != null) {
+                try {
+                    rebuilt.discard();
+                    Files.deleteIfExists(next);
+                } catch (Exception cleanup) {
+                    log.debug("Failed to remove partial read store rebuild: {}", cleanup.getMessage());
+                }
+            }
+            return null;
+        }
+        file = rebuilt;
+        rebuilds.increment();
+        try {
+            current.discard();
+        } catch (Exception e) {
+            log.debug("Failed to close replaced read store: {}", e.getMessage());
+        }
+        log.info("Score read store rebuilt with {} live entries in {} slots (was {} slots, {} tombstones)",
+                rebuilt.count(), rebuilt.capacity(), current.capacity(), current.tombstones());
+        return rebuilt;
+    }
+
+    /** Reclaims tombstones once they take up more than {@code max-tombstone-ratio} of the used slots. */
+    private synchronized void compactIfNeeded() {
+        MappedScoreFile current = file;
+        if (current != null && current.tombstones() > current.count() * maxTombstoneRatio) {
+            rebuild(current, Math.max(current.capacity(), requiredCapacity(current.liveCount())));
+        }
+    }
+
+    private synchronized void remove(byte[] key, LocalDateTime updatedAt) {
+        MappedScoreFile current = file;
+        if (current != null) {
+            current.delete(key, toEpochMillis(updatedAt));
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onScoreUpdated(ScoreUpdatedEvent event) {
+        put(event.score(), event.updatedAt());
+    }
+
+    @Scheduled(fixedDelayString = "${app.read-store.sync-interval-ms:5000}")
+    public void sync() {
+        MappedScoreFile current = file;
+        if (current == null) {
+            return;
+        }
+        try {
+            syncScores(current);
+            syncDeletions(current);
+            compactIfNeeded();
+        } catch (Exception e) {
+            log.warn("Score read store sync failed, will retry: {}", e.getMessage());
+        }
+    }
+
+    private void syncScores(MappedScoreFile current) {
+        long watermark = current.watermark();
+        Timestamp fromUpdatedAt = Timestamp.valueOf(fromEpochMillis(Math.max(0, watermark - syncOverlapMs)));
+        long fromId = 0;
+        long maxSeen = watermark;
+        int synced = 0;
+        while (true) {
+            List<SyncRow> rows = jdbcTemplate.query(SYNC_QUERY, this::mapSyncRow,
+                    fromUpdatedAt, fromId, syncBatchSize);
+            for (SyncRow row : rows) {
+                put(row.score(), row.updatedAt());
+                maxSeen = Math.max(maxSeen, toEpochMillis(row.updatedAt()));
+            }
+            synced += rows.size();
+            if (rows.size() < syncBatchSize) {
+                break;
+            }
+            SyncRow last = rows.get(rows.size() - 1);
+            fromUpdatedAt = Timestamp.valueOf(last.updatedAt());
+            fromId = last.id();
+        }
+        current.setWatermark(maxSeen);
+        if (synced > 0) {
+            log.debug("Synced {} score rows into read store", synced);
+        }
+    }
+
+    /**
+     * Applies rows deleted from {@code wallet_scores} since the last sync, as recorded by the
+     * {@code wallet_score_deletions} trigger, with the same overlap as {@link #syncScores}.
+     */
+    private void syncDeletions(MappedScoreFile current) {
+        long watermark = current.deletionWatermark();
+        Timestamp fromDeletedAt = Timestamp.valueOf(fromEpochMillis(Math.max(0, watermark - syncOverlapMs)));
+        long fromId = 0;
+        long maxSeen = watermark;
+        int removed = 0;
+        while (true) {
+            List<DeletionRow> rows = jdbcTemplate.query(DELETION_SYNC_QUERY, (rs, rowNum) -> new DeletionRow(
+                    rs.getLong("id"), rs.getBytes("stellar_address"),
+                    rs.getTimestamp("updated_at").toLocalDateTime(),
+                    rs.getTimestamp("deleted_at").toLocalDateTime()), fromDeletedAt, fromId, syncBatchSize);
+            for (DeletionRow row : rows) {
+                remove(row.stellarAddress(), row.updatedAt());
+                maxSeen = Math.max(maxSeen, toEpochMillis(row.deletedAt()));
+            }
+            removed += rows.size();
+            if (rows.size() < syncBatchSize) {
+                break;
+            }
+            DeletionRow last = rows.get(rows.size() - 1);
+            fromDeletedAt = Timestamp.valueOf(last.deletedAt());
+            fromId = last.id();
+        }
+        current.setDeletionWatermark(maxSeen);
+        if (removed > 0) {
+            log.debug("Applied {} score deletions to read store", removed);
+        }
+    }
+
+    /**
+     * Drops deletion records every store has had time to apply. A store file left closed for longer
+     * than the retention may keep serving rows deleted meanwhile until it is rebuilt.
+     */
+    @Scheduled(fixedDelayString = "${app.read-store.deletion-purge-interval-ms:3600000}")
+    public void purgeDeletions() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            jdbcTemplate.update("DELETE FROM wallet_score_deletions WHERE deleted_at < ?",
+                    Timestamp.valueOf(LocalDateTime.now().minusDays(deletionRetentionDays)));
+        } catch (Exception e) {
+            log.warn("Failed to purge score deletion records: {}", e.getMessage());
+        }
+    }
+
+    private SyncRow mapSyncRow(ResultSet rs, int rowNum) throws SQLException {
+        return new SyncRow(rs.getLong("id"), ScoreRows.toScoreResponse(rs, rowNum),
+                rs.getTimestamp("updated_at").toLocalDateTime());
+    }
+
+    private static void encode(ScoreResponse score, byte[] key, LocalDateTime updatedAt, byte[] target) {
+        ByteBuffer buffer = ByteBuffer.wrap(target).order(ByteOrder.nativeOrder());
+        ScoreResponse.ScoreBreakdown breakdown = score.getBreakdown() != null
+                ? score.getBreakdown() : new ScoreResponse.ScoreBreakdown();
+
+        int flags = 0;
+        byte[] ethereumAddress = new byte[ETHEREUM_ADDRESS_SIZE];
+        if (score.getEthereumAddress() != null && !score.getEthereumAddress().isBlank()) {
+            try {
+                ethereumAddress = AddressCodec.decodeEthereum(score.getEthereumAddress().trim());
+                flags |= FLAG_HAS_ETHEREUM_ADDRESS;
+            } catch (IllegalArgumentException e) {
+                log.debug("Not storing malformed Ethereum address {}", score.getEthereumAddress());
+            }
+        }
+        if (breakdown.getHasEthereumHistory() != null) {
+            flags |= FLAG_ETHEREUM_HISTORY_KNOWN;
+            if (breakdown.getHasEthereumHistory()) {
+                flags |= FLAG_HAS_ETHEREUM_HISTORY;
+            }
+        }
+
+        buffer.putInt(R_SEQ, 0);
+        buffer.putInt(R_FLAGS, flags);
+        buffer.put(R_KEY, key);
+        buffer.put(R_ETHEREUM_ADDRESS, ethereumAddress);
+        buffer.putInt(R_TOTAL_SCORE, orZero(score.getTotalScore()));
+        buffer.putInt(R_STELLAR_SCORE, orZero(score.getStellarScore()));
+        buffer.putInt(R_ETHEREUM_SCORE, orZero(score.getEthereumScore()));
+        buffer.putInt(R_SOCIAL_SCORE, orZero(score.getSocialScore()));
+        buffer.putLong(R_ACCOUNT_AGE_DAYS, orZero(breakdown.getAccountAgeDays()));
+        buffer.putLong(R_TRANSACTION_COUNT, orZero(breakdown.getTransactionCount()));
+        buffer.putDouble(R_STELLAR_BALANCE, orZero(breakdown.getStellarBalance()));
+        buffer.putLong(R_ETHEREUM_AGE_DAYS, orZero(breakdown.getEthereumAgeDays()));
+        buffer.putDouble(R_ETHEREUM_BALANCE, orZero(breakdown.getEthereumBalance()));
+        buffer.putLong(R_CALCULATED_AT, score.getCalculatedAt() != null ? toEpochMillis(score.getCalculatedAt()) : 0);
+        buffer.putLong(R_UPDATED_AT, updatedAt != null ? toEpochMillis(updatedAt) : 0);
+    }
+
+    private static ScoreResponse decode(byte[] record) {
+        ByteBuffer buffer = ByteBuffer.wrap(record).order(ByteOrder.nativeOrder());
+        int flags = buffer.getInt(R_FLAGS);
+        byte[] key = new byte[KEY_SIZE];
+        buffer.get(R_KEY, key);
+        String ethereumAddress = null;
+        if ((flags & FLAG_HAS_ETHEREUM_ADDRESS) != 0) {
+            byte[] ethereum = new byte[ETHEREUM_ADDRESS_SIZE];
+            buffer.get(R_ETHEREUM_ADDRESS, ethereum);
+            ethereumAddress = AddressCodec.encodeEthereum(ethereum);
+        }
+        Boolean hasEthereumHistory = (flags & FLAG_ETHEREUM_HISTORY_KNOWN) != 0
+                ? (flags & FLAG_HAS_ETHEREUM_HISTORY) != 0 : null;
+        long calculatedAt = buffer.getLong(R_CALCULATED_AT);
+
+        return ScoreResponse.builder()
+                .stellarAddress(AddressCodec.encodeStellar(key))
+                .ethereumAddress(ethereumAddress)
+                .totalScore(buffer.getInt(R_TOTAL_SCORE))
+                .stellarScore(buffer.getInt(R_STELLAR_SCORE))
+                .ethereumScore(buffer.getInt(R_ETHEREUM_SCORE))
+                .socialScore(buffer.getInt(R_SOCIAL_SCORE))
+                .breakdown(ScoreResponse.ScoreBreakdown.builder()
+                        .accountAgeDays(buffer.getLong(R_ACCOUNT_AGE_DAYS))
+                        .transactionCount(buffer.getLong(R_TRANSACTION_COUNT))
+                        .stellarBalance(buffer.getDouble(R_STELLAR_BALANCE))
+                        .hasEthereumHistory(hasEthereumHistory)
+                        .ethereumAgeDays(buffer.getLong(R_ETHEREUM_AGE_DAYS))
+                        .ethereumTransactionCount(null)
+                        .ethereumBalance(buffer.getDouble(R_ETHEREUM_BALANCE))
+                        .build())
+                .calculatedAt(calculatedAt != 0 ? fromEpochMillis(calculatedAt) : null)
+                .onChain(false)
+                .degraded(false)
+                .missingComponents(List.of())
+                .staleComponents(List.of())
+                .build();
+    }
+
+    private static long toEpochMillis(LocalDateTime value) {
+        return value.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private static LocalDateTime fromEpochMillis(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneOffset.UTC);
+    }
+
+    private static int orZero(Integer value) {
+        return value != null ? value : 0;
+    }
+
+    private static long orZero(Long value) {
+        return value != null ? value : 0L;
+    }
+
+    private static double orZero(Double value) {
+        return value != null ? value : 0.0;
+    }
+
+    private record SyncRow(long id, ScoreResponse score, LocalDateTime updatedAt) {
+    }
+
+    private record DeletionRow(long id, byte[] stellarAddress, LocalDateTime updatedAt, LocalDateTime deletedAt) {
+    }
+}
@@ -0,0 +1,266 @@
+package com.stellarep.upstream;
+
+import com.stellarep.exception.DeadlineExceededException;
+import com.stellarep.exception.UpstreamBusyException;
+import com.stellarep.workload.LaneShares;
+import com.stellarep.workload.WorkloadContext;
+import com.stellarep.workload.WorkloadLane;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+
+/**
+ * AIMD concurrency limit for a single upstream. Each completed call is compared with a slowly
+ * drifting no-load latency estimate: calls within {@code latencyTolerance} of it grow the limit
+ * by roughly one per window, while slow or overloaded calls shrink it multiplicatively. The limit is
+ * split between the caller's workload lanes by {@link LaneShares}.
+ */
+public class AdaptiveLimiter {
+
+    @FunctionalInterface
+    public interface LimitedCall<T> {
+        T call() throws Exception;
+    }
+
+    private static final double BACKOFF_RATIO = 0.9;
+    private static final double NO_LOAD_DRIFT = 1.01;
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final long maxQueueWaitMs;
+    private final double latencyTolerance;
+    private final Predicate<Throwable> isOverload;
+    private final LaneShares shares;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition permitReleased = lock.newCondition();
+    private final AtomicLong rejections = new AtomicLong();
+    private final int[] inFlightByLane = new int[WorkloadLane.values().length];
+    private final int[] waitingByLane = new int[WorkloadLane.values().length];
+
+    private double limit;
+    private int inFlight;
+    private double noLoadLatencyNanos = Double.MAX_VALUE;
+
+    public AdaptiveLimiter(String name, int initialLimit, int minLimit, int maxLimit,
+                           long maxQueueWaitMs, double latencyTolerance, Predicate<Throwable> isOverload) {
+        this(name, initialLimit, minLimit, maxLimit, maxQueueWaitMs, latencyTolerance, isOverload,
+                LaneShares.defaults(name));
+    }
+
+    public AdaptiveLimiter(String name, int initialLimit, int minLimit, int maxLimit, long maxQueueWaitMs,
+                           double latencyTolerance, Predicate<Throwable> isOverload, LaneShares shares) {
+        this.name = name;
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.limit = Math.max(this.minLimit, Math.min(initialLimit, this.maxLimit));
+        this.maxQueueWaitMs = maxQueueWaitMs;
+        this.latencyTolerance = latencyTolerance;
+        this.isOverload = isOverload;
+        this.shares = shares;
+        shares.monitor(this, this::getInFlight, this::getWaiting);
+    }
+
+    public <T> T execute(LimitedCall<T> call) throws Exception {
+        return execute(call, acquire());
+    }
+
+    public <T> T execute(LimitedCall<T> call, Deadline deadline) throws Exception {
+        return execute(call, acquire(deadline));
+    }
+
+    private <T> T execute(LimitedCall<T> call, Permit permit) throws Exception {
+        boolean overloaded = false;
+        try {
+            return call.call();
+        } catch (Exception e) {
+            overloaded = isOverload.test(e);
+            throw e;
+        } finally {
+            permit.release(overloaded);
+        }
+    }
+
+    public Permit acquire() {
+        return acquire(maxQueueWaitMs);
+    }
+
+    public Permit acquire(Deadline deadline) {
+        if (deadline.isExpired()) {
+            throw new DeadlineExceededException("Latency budget exhausted before calling " + name);
+        }
+        try {
+            return acquire(deadline.capMillis(maxQueueWaitMs));
+        } catch (UpstreamBusyException e) {
+            if (deadline.isExpired()) {
+                throw new DeadlineExceededException("Latency budget exhausted while queued for " + name);
+            }
+            throw e;
+        }
+    }
+
+    public Permit acquire(long maxWaitMs) {
+        WorkloadLane lane = WorkloadContext.current();
+        int index = lane.ordinal();
+        long queuedAt = System.nanoTime();
+        long remainingNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, maxWaitMs));
+        lock.lock();
+        waitingByLane[index]++;
+        try {
+            while (!shares.admits(lane, currentLimit(), inFlightByLane, waitingByLane)) {
+                if (remainingNanos <= 0) {
+                    throw rejected();
+                }
+                remainingNanos = permitReleased.awaitNanos(remainingNanos);
+            }
+            inFlight++;
+            inFlightByLane[index]++;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw rejected();
+        } finally {
+            waitingByLane[index]--;
+            lock.unlock();
+        }
+        shares.recordQueueTime(lane, System.nanoTime() - queuedAt);
+        return new Permit(lane);
+    }
+
+    public Optional<Permit> tryAcquire() {
+        WorkloadLane lane = WorkloadContext.current();
+        lock.lock();
+        try {
+            if (!shares.admits(lane, currentLimit(), inFlightByLane, waitingByLane)) {
+                return Optional.empty();
+            }
+            inFlight++;
+            inFlightByLane[lane.ordinal()]++;
+            return Optional.of(new Permit(lane));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private UpstreamBusyException rejected() {
+        rejections.incrementAndGet();
+        // a lower lane that stops waiting no longer holds its share back from the others
+        permitReleased.signalAll();
+        return new UpstreamBusyException(name);
+    }
+
+    private void onCancel(WorkloadLane lane) {
+        lock.lock();
+        try {
+            inFlight--;
+            inFlightByLane[lane.ordinal()]--;
+            permitReleased.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void onComplete(WorkloadLane lane, long latencyNanos, boolean overloaded) {
+        lock.lock();
+        try {
+            inFlight--;
+            inFlightByLane[lane.ordinal()]--;
+            noLoadLatencyNanos = Math.min(latencyNanos, noLoadLatencyNanos * NO_LOAD_DRIFT);
+            if (overloaded || latencyNanos > noLoadLatencyNanos * latencyTolerance) {
+                limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+            } else {
+                limit = Math.min(maxLimit, limit + 1.0 / limit);
+            }
+            permitReleased.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int currentLimit() {
+        return (int) limit;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getLimit() {
+        lock.lock();
+        try {
+            return currentLimit();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getInFlight(WorkloadLane lane) {
+        lock.lock();
+        try {
+            return inFlightByLane[lane.ordinal()];
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getWaiting(WorkloadLane lane) {
+        lock.lock();
+        try {
+            return waitingByLane[lane.ordinal()];
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getRejections() {
+        return rejections.get();
+    }
+
+    public final class Permit {
+        private final WorkloadLane lane;
+        private final long acquiredAt = System.nanoTime();
+        private boolean released;
+
+        private Permit(WorkloadLane lane) {
+            this.lane = lane;
+        }
+
+        public void release(boolean overloaded) {
+            if (released) {
+                return;
+            }
+            released = true;
+            onComplete(lane, System.nanoTime() - acquiredAt, overloaded);
+        }
+
+        /** Releases after a failed call, treating it as overload when the limiter's predicate says so. */
+        public void release(Throwable error) {
+            release(isOverload.test(error));
+        }
+
+        /**
+         * Releases without recording a latency sample, for calls that never reached the upstream; a
+         * near-zero sample would drag the no-load estimate down and make every real call look slow.
+         */
+        public void cancel() {
+            if (released) {
+                return;
+            }
+            released = true;
+            onCancel(lane);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.stellarep.upstream;
+
+import java.util.concurrent.TimeUnit;
+
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureThreshold;
+    private final long openNanos;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean probing;
+    private long probeStartedAt;
+
+    public CircuitBreaker(int failureThreshold, long openMillis) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMillis);
+    }
+
+    /**
+     * Whether a call would be admitted now, without claiming the half-open probe.
+     */
+    public synchronized boolean isAvailable() {
+        long now = System.nanoTime();
+        return switch (state) {
+            case CLOSED -> true;
+            case OPEN -> now - openedAt >= openNanos;
+            case HALF_OPEN -> !probing || now - probeStartedAt >= openNanos;
+        };
+    }
+
+    /**
+     * Admits a call. Once the open period has passed only a single probe is let through, until it
+     * reports back (or goes unanswered for another open period).
+     */
+    public synchronized boolean isCallPermitted() {
+        long now = System.nanoTime();
+        if (state == State.OPEN && now - openedAt >= openNanos) {
+            state = State.HALF_OPEN;
+            probing = false;
+        }
+        if (state != State.HALF_OPEN) {
+            return state == State.CLOSED;
+        }
+        if (probing && now - probeStartedAt < openNanos) {
+            return false;
+        }
+        probing = true;
+        probeStartedAt = now;
+        return true;
+    }
+
+    public synchronized void onSuccess() {
+        consecutiveFailures = 0;
+        probing = false;
+        state = State.CLOSED;
+    }
+
+    public synchronized void onFailure() {
+        consecutiveFailures++;
+        probing = false;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = System.nanoTime();
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public synchronized int getConsecutiveFailures() {
+        return consecutiveFailures;
+    }
+}
@@ -0,0 +1,34 @@
+package com.stellarep.upstream;
+
+import java.util.concurrent.TimeUnit;
+
+public final class Deadline {
+
+    private final long budgetMillis;
+    private final long expiresAtNanos;
+
+    private Deadline(long budgetMillis) {
+        this.budgetMillis = budgetMillis;
+        this.expiresAtNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budgetMillis);
+    }
+
+    public static Deadline afterMillis(long budgetMillis) {
+        return new Deadline(Math.max(0, budgetMillis));
+    }
+
+    public long remainingMillis() {
+        return Math.max(0, TimeUnit.NANOSECONDS.toMillis(expiresAtNanos - System.nanoTime()));
+    }
+
+    public long capMillis(long timeoutMillis) {
+        return Math.min(timeoutMillis, remainingMillis());
+    }
+
+    public boolean isExpired() {
+        return expiresAtNanos - System.nanoTime() <= 0;
+    }
+
+    public long getBudgetMillis() {
+        return budgetMillis;
+    }
+}
@@ -0,0 +1,46 @@
+package com.stellarep.upstream;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+public class LatencyTracker {
+
+    private static final double EWMA_ALPHA = 0.2;
+
+    private final long[] samples;
+    private int next;
+    private int size;
+    private double ewmaMillis;
+
+    public LatencyTracker(int windowSize) {
+        this.samples = new long[Math.max(16, windowSize)];
+    }
+
+    public synchronized void record(long nanos) {
+        long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+        samples[next] = millis;
+        next = (next + 1) % samples.length;
+        if (size < samples.length) {
+            size++;
+        }
+        ewmaMillis = size == 1 ? millis : EWMA_ALPHA * millis + (1 - EWMA_ALPHA) * ewmaMillis;
+    }
+
+    public synchronized long percentileMillis(double percentile) {
+        if (size == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(samples, size);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile * size) - 1;
+        return sorted[Math.max(0, Math.min(index, size - 1))];
+    }
+
+    public synchronized double ewmaMillis() {
+        return ewmaMillis;
+    }
+
+    public synchronized int sampleCount() {
+        return size;
+    }
+}
@@ -0,0 +1,58 @@
+package com.stellarep.upstream;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class NegativeCache {
+
+    private final ConcurrentHashMap<String, Long> expiries = new ConcurrentHashMap<>();
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final AtomicLong hits = new AtomicLong();
+
+    public NegativeCache(long ttlMillis, int maxEntries) {
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.maxEntries = maxEntries;
+    }
+
+    public boolean contains(String key) {
+        Long expiresAt = expiries.get(key);
+        if (expiresAt == null) {
+            return false;
+        }
+        if (System.nanoTime() - expiresAt >= 0) {
+            expiries.remove(key, expiresAt);
+            return false;
+        }
+        hits.incrementAndGet();
+        return true;
+    }
+
+    public void put(String key) {
+        if (expiries.size() >= maxEntries) {
+            evictExpired();
+            if (expiries.size() >= maxEntries) {
+                return;
+            }
+        }
+        expiries.put(key, System.nanoTime() + ttlNanos);
+    }
+
+    public void invalidate(String key) {
+        expiries.remove(key);
+    }
+
+    public int size() {
+        return expiries.size();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    private void evictExpired() {
+        long now = System.nanoTime();
+        expiries.entrySet().removeIf(entry -> now - entry.getValue() >= 0);
+    }
+}
@@ -0,0 +1,69 @@
+package com.stellarep.upstream;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rate quota of {@code ratePerSecond} permits with bursts of up to {@code burst}. Callers reserve a
+ * permit under the lock and sleep outside it, so waiters are served in arrival order.
+ */
+public class TokenBucket {
+
+    private final double permitsPerNano;
+    private final double burst;
+
+    private double available;
+    private long lastRefillNanos = System.nanoTime();
+
+    public TokenBucket(double ratePerSecond, int burst) {
+        this.permitsPerNano = ratePerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.burst = Math.max(1, burst);
+        this.available = this.burst;
+    }
+
+    public void acquire() throws InterruptedException {
+        long waitNanos = reserve();
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    public boolean tryAcquire() {
+        return tryAcquire(0);
+    }
+
+    /**
+     * Takes a permit only if at least {@code reserve} more stay available for other callers.
+     */
+    public synchronized boolean tryAcquire(double reserve) {
+        refill();
+        if (available < 1 + reserve) {
+            return false;
+        }
+        available -= 1;
+        return true;
+    }
+
+    /**
+     * Returns a permit taken by {@link #tryAcquire} that ended up unused.
+     */
+    public synchronized void release() {
+        refill();
+        available = Math.min(burst, available + 1);
+    }
+
+    public double getBurst() {
+        return burst;
+    }
+
+    private synchronized long reserve() {
+        refill();
+        available -= 1;
+        return available >= 0 ? 0 : (long) (-available / permitsPerNano);
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        available = Math.min(burst, available + (now - lastRefillNanos) * permitsPerNano);
+        lastRefillNanos = now;
+    }
+}
@@ -0,0 +1,278 @@
+package com.stellarep.upstream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.stellarep.snapshot.SnapshotMode;
+import com.stellarep.snapshot.SnapshotStore;
+import com.stellarep.workload.WorkloadContext;
+import com.stellarep.workload.WorkloadLane;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Two-tier cache of raw upstream data (never scores): an in-process Caffeine tier in front of the
+ * shared {@code upstream_cache} table. A value younger than its type's TTL is returned as is; up to
+ * {@code stale-ms} past the TTL it is still returned immediately while one background refresh per
+ * key runs on the analysis executor in the background lane; older values are reloaded in the
+ * caller's thread. Immutable values are never refreshed. The cache is bypassed in snapshot replay
+ * mode, so replays only see recorded responses.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class UpstreamCache {
+
+    private static final String SELECT_SQL = """
+            SELECT payload, fetched_at, immutable FROM upstream_cache
+            WHERE data_type = ? AND cache_key = ?
+            """;
+
+    private static final String UPSERT_SQL = """
+            INSERT INTO upstream_cache (data_type, cache_key, payload, fetched_at, immutable)
+            VALUES (?, ?, ?, ?, ?)
+            ON CONFLICT (data_type, cache_key) DO UPDATE
+            SET payload = EXCLUDED.payload, fetched_at = EXCLUDED.fetched_at, immutable = EXCLUDED.immutable
+            WHERE NOT upstream_cache.immutable AND upstream_cache.fetched_at < EXCLUDED.fetched_at
+            """;
+
+    private static final String EVICT_SQL = """
+            DELETE FROM upstream_cache
+            WHERE (data_type, cache_key) IN (
+                SELECT data_type, cache_key FROM upstream_cache
+                WHERE data_type = ? AND NOT immutable AND fetched_at < ?
+                LIMIT ?)
+            """;
+
+    /**
+     * Fetches a value from upstream. Whatever it returns is cached, so an error payload must be
+     * thrown rather than returned as an empty or zero value.
+     */
+    @FunctionalInterface
+    public interface Loader<T> {
+        T load(Deadline deadline) throws Exception;
+    }
+
+    @Value("${app.upstream-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.upstream-cache.l1-max-entries:200000}")
+    private long l1MaxEntries;
+
+    @Value("${app.upstream-cache.refresh-timeout-ms:10000}")
+    private long refreshTimeoutMs;
+
+    @Value("${app.upstream-cache.eviction-batch-size:10000}")
+    private int evictionBatchSize;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService analysisExecutor;
+    private final SnapshotStore snapshotStore;
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<UpstreamDataType, Policy> policies = new EnumMap<>(UpstreamDataType.class);
+    private final Map<UpstreamDataType, Counters> counters = new EnumMap<>(UpstreamDataType.class);
+    private final Set<CacheKey> refreshing = ConcurrentHashMap.newKeySet();
+    private Cache<CacheKey, CachedValue> local;
+
+    @PostConstruct
+    void init() {
+        for (UpstreamDataType type : UpstreamDataType.values()) {
+            String prefix = "app.upstream-cache." + type.getConfigName() + ".";
+            policies.put(type, new Policy(
+                    environment.getProperty(prefix + "ttl-ms", Long.class, type.getDefaultTtlMs()),
+                    environment.getProperty(prefix + "stale-ms", Long.class, type.getDefaultStaleMs())));
+            counters.put(type, new Counters(
+                    lookupCounter(type, "l1"),
+                    lookupCounter(type, "l2"),
+                    lookupCounter(type, "stale"),
+                    lookupCounter(type, "miss"),
+                    meterRegistry.counter("upstream.cache.refreshes", "type", type.getConfigName(), "result", "failure")));
+        }
+        local = Caffeine.newBuilder()
+                .maximumSize(l1MaxEntries)
+                .expireAfter(Expiry.writing((CacheKey key, CachedValue value) -> value.immutable()
+                        ? Duration.ofNanos(Long.MAX_VALUE)
+                        : Duration.ofMillis(Math.max(0, value.fetchedAt() + policies.get(key.type()).maxAgeMs()
+                                - System.currentTimeMillis()))))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, local, "upstream.cache.l1");
+    }
+
+    public <T> T get(UpstreamDataType type, String key, Class<T> valueType, Loader<T> loader, Deadline deadline)
+            throws Exception {
+        if (!enabled || snapshotStore.getMode() == SnapshotMode.REPLAY) {
+            return loader.load(deadline);
+        }
+        CacheKey cacheKey = new CacheKey(type, key);
+        Policy policy = policies.get(type);
+        Counters typeCounters = counters.get(type);
+
+        CachedValue cached = local.getIfPresent(cacheKey);
+        Counter hitCounter = typeCounters.l1Hits();
+        if (cached == null) {
+            cached = readShared(cacheKey, valueType, policy);
+            hitCounter = typeCounters.l2Hits();
+            if (cached != null) {
+                local.put(cacheKey, cached);
+            }
+        }
+        if (cached != null) {
+            long age = System.currentTimeMillis() - cached.fetchedAt();
+            if (cached.immutable() || age < policy.ttlMs()) {
+                hitCounter.increment();
+                return valueType.cast(cached.value());
+            }
+            if (age < policy.maxAgeMs()) {
+                typeCounters.staleHits().increment();
+                refreshInBackground(cacheKey, loader);
+                return valueType.cast(cached.value());
+            }
+        }
+
+        typeCounters.misses().increment();
+        T value = loader.load(deadline);
+        store(cacheKey, value);
+        return value;
+    }
+
+    private CachedValue readShared(CacheKey cacheKey, Class<?> valueType, Policy policy) {
+        try {
+            List<CachedValue> rows = jdbcTemplate.query(SELECT_SQL, (rs, rowNum) -> {
+                try {
+                    return new CachedValue(
+                            objectMapper.readValue(rs.getString("payload"), valueType),
+                            rs.getTimestamp("fetched_at").getTime(),
+                            rs.getBoolean("immutable"));
+                } catch (Exception e) {
+                    return null;
+                }
+            }, cacheKey.type().getConfigName(), cacheKey.key());
+            CachedValue cached = rows.isEmpty() ? null : rows.get(0);
+            if (cached == null || (!cached.immutable()
+                    && System.currentTimeMillis() - cached.fetchedAt() >= policy.maxAgeMs())) {
+                return null;
+            }
+            return cached;
+        } catch (Exception e) {
+            log.debug("Shared upstream cache read failed for {}: {}", cacheKey, e.getMessage());
+            return null;
+        }
+    }
+
+    private void refreshInBackground(CacheKey cacheKey, Loader<?> loader) {
+        if (!refreshing.add(cacheKey)) {
+            return;
+        }
+        try {
+            WorkloadContext.runIn(WorkloadLane.BACKGROUND, () -> analysisExecutor.execute(() -> {
+                try {
+                    store(cacheKey, loader.load(Deadline.afterMillis(refreshTimeoutMs)));
+                } catch (Exception e) {
+                    counters.get(cacheKey.type()).refreshFailures().increment();
+                    log.debug("Background refresh of {} failed, keeping the stale value: {}", cacheKey, e.getMessage());
+                } finally {
+                    refreshing.remove(cacheKey);
+                }
+            }));
+        } catch (RejectedExecutionException e) {
+            refreshing.remove(cacheKey);
+        }
+    }
+
+    private void store(CacheKey cacheKey, Object value) {
+        if (value == null) {
+            return;
+        }
+        CachedValue cached = new CachedValue(value, System.currentTimeMillis(), cacheKey.type().isImmutable(value));
+        local.put(cacheKey, cached);
+        try {
+            WorkloadContext.runIn(WorkloadLane.BACKGROUND,
+                    () -> analysisExecutor.execute(() -> writeShared(cacheKey, cached)));
+        } catch (RejectedExecutionException e) {
+            log.debug("Skipping shared upstream cache write for {}, executor is saturated", cacheKey);
+        }
+    }
+
+    private void writeShared(CacheKey cacheKey, CachedValue cached) {
+        try {
+            jdbcTemplate.update(UPSERT_SQL,
+                    cacheKey.type().getConfigName(),
+                    cacheKey.key(),
+                    objectMapper.writeValueAsString(cached.value()),
+                    new Timestamp(cached.fetchedAt()),
+                    cached.immutable());
+        } catch (Exception e) {
+            log.debug("Shared upstream cache write failed for {}: {}", cacheKey, e.getMessage());
+        }
+    }
+
+    @Scheduled(initialDelayString = "${app.upstream-cache.eviction-interval-ms:600000}",
+            fixedDelayString = "${app.upstream-cache.eviction-interval-ms:600000}")
+    public void evictExpired() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            long evicted = 0;
+            for (Map.Entry<UpstreamDataType, Policy> entry : policies.entrySet()) {
+                Timestamp cutoff = Timestamp.valueOf(
+                        LocalDateTime.now().minus(Duration.ofMillis(entry.getValue().maxAgeMs())));
+                int deleted;
+                do {
+                    deleted = jdbcTemplate.update(EVICT_SQL, entry.getKey().getConfigName(), cutoff, evictionBatchSize);
+                    evicted += deleted;
+                } while (deleted == evictionBatchSize);
+            }
+            if (evicted > 0) {
+                log.info("Evicted {} expired upstream cache rows", evicted);
+            }
+        } catch (Exception e) {
+            log.warn("Upstream cache eviction failed, will retry: {}", e.getMessage());
+        }
+    }
+
+    private Counter lookupCounter(UpstreamDataType type, String result) {
+        return meterRegistry.counter("upstream.cache.lookups", "type", type.getConfigName(), "result", result);
+    }
+
+    private record Policy(long ttlMs, long staleMs) {
+        long maxAgeMs() {
+            return ttlMs + staleMs;
+        }
+    }
+
+    private record Counters(Counter l1Hits, Counter l2Hits, Counter staleHits, Counter misses,
+                            Counter refreshFailures) {
+    }
+
+    private record CacheKey(UpstreamDataType type, String key) {
+    }
+
+    private record CachedValue(Object value, long fetchedAt, boolean immutable) {
+    }
+}
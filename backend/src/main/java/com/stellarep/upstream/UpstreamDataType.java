@@ -0,0 +1,43 @@
+package com.stellarep.upstream;
+
+/**
+ * Kinds of upstream data held by {@link UpstreamCache}, with default freshness. Values of an
+ * immutable type are cached forever once they hold a positive timestamp; until then (no
+ * transaction yet) they expire like any other value.
+ */
+public enum UpstreamDataType {
+    STELLAR_ACCOUNT("stellar-account", 60_000, 600_000, false),
+    STELLAR_TRANSACTION_COUNT("stellar-transaction-count", 60_000, 600_000, false),
+    STELLAR_FIRST_TRANSACTION("stellar-first-transaction", 300_000, 3_600_000, true),
+    ETHEREUM_BALANCE("ethereum-balance", 60_000, 600_000, false),
+    ETHEREUM_TRANSACTION_COUNT("ethereum-transaction-count", 60_000, 600_000, false),
+    ETHEREUM_FIRST_TRANSACTION("ethereum-first-transaction", 300_000, 3_600_000, true);
+
+    private final String configName;
+    private final long defaultTtlMs;
+    private final long defaultStaleMs;
+    private final boolean immutableOnceSet;
+
+    UpstreamDataType(String configName, long defaultTtlMs, long defaultStaleMs, boolean immutableOnceSet) {
+        this.configName = configName;
+        this.defaultTtlMs = defaultTtlMs;
+        this.defaultStaleMs = defaultStaleMs;
+        this.immutableOnceSet = immutableOnceSet;
+    }
+
+    public String getConfigName() {
+        return configName;
+    }
+
+    long getDefaultTtlMs() {
+        return defaultTtlMs;
+    }
+
+    long getDefaultStaleMs() {
+        return defaultStaleMs;
+    }
+
+    boolean isImmutable(Object value) {
+        return immutableOnceSet && value instanceof Number number && number.longValue() > 0;
+    }
+}
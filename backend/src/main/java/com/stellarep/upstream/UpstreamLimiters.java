@@ -0,0 +1,88 @@
+package com.stellarep.upstream;
+
+import com.stellarep.workload.WorkloadScheduler;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.stellar.sdk.requests.ErrorResponse;
+import org.stellar.sdk.requests.TooManyRequestsException;
+
+import java.io.InterruptedIOException;
+import java.net.SocketException;
+import java.util.function.Predicate;
+
+@Component
+@RequiredArgsConstructor
+public class UpstreamLimiters {
+
+    private static final Predicate<Throwable> HTTP_OVERLOAD = error ->
+            error instanceof UpstreamResponseException response
+                    ? response.isOverload()
+                    : error instanceof InterruptedIOException || error instanceof SocketException;
+
+    private static final Predicate<Throwable> HORIZON_OVERLOAD = HTTP_OVERLOAD
+            .or(error -> error instanceof TooManyRequestsException)
+            .or(error -> error instanceof ErrorResponse && ((ErrorResponse) error).getCode() >= 500);
+
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+    private final WorkloadScheduler workloadScheduler;
+
+    private AdaptiveLimiter horizon;
+    private AdaptiveLimiter etherscan;
+    private AdaptiveLimiter ethereumRpc;
+    private AdaptiveLimiter soroban;
+
+    @PostConstruct
+    void init() {
+        horizon = create("horizon", 20, 200, 200, HORIZON_OVERLOAD);
+        etherscan = create("etherscan", 5, 20, 500, HTTP_OVERLOAD);
+        ethereumRpc = create("ethereum-rpc", 8, 64, 500, HTTP_OVERLOAD);
+        soroban = create("soroban", 4, 32, 200, HTTP_OVERLOAD);
+    }
+
+    public AdaptiveLimiter horizon() {
+        return horizon;
+    }
+
+    public AdaptiveLimiter etherscan() {
+        return etherscan;
+    }
+
+    public AdaptiveLimiter ethereumRpc() {
+        return ethereumRpc;
+    }
+
+    public AdaptiveLimiter soroban() {
+        return soroban;
+    }
+
+    private AdaptiveLimiter create(String name, int initialLimit, int maxLimit, long maxQueueMs,
+                                   Predicate<Throwable> isOverload) {
+        String prefix = "app.upstream.limits." + name + ".";
+        AdaptiveLimiter limiter = new AdaptiveLimiter(
+                name,
+                environment.getProperty(prefix + "initial", Integer.class, initialLimit),
+                environment.getProperty(prefix + "min", Integer.class, 1),
+                environment.getProperty(prefix + "max", Integer.class, maxLimit),
+                environment.getProperty(prefix + "max-queue-ms", Long.class, maxQueueMs),
+                environment.getProperty(prefix + "latency-tolerance", Double.class, 2.0),
+                isOverload,
+                workloadScheduler.shares(WorkloadScheduler.UPSTREAM, name));
+
+        Gauge.builder("upstream.limit", limiter, AdaptiveLimiter::getLimit)
+                .tag("upstream", name)
+                .register(meterRegistry);
+        Gauge.builder("upstream.inflight", limiter, AdaptiveLimiter::getInFlight)
+                .tag("upstream", name)
+                .register(meterRegistry);
+        FunctionCounter.builder("upstream.rejections", limiter, AdaptiveLimiter::getRejections)
+                .tag("upstream", name)
+                .register(meterRegistry);
+        return limiter;
+    }
+}
@@ -0,0 +1,25 @@
+package com.stellarep.upstream;
+
+import java.io.IOException;
+
+/**
+ * An upstream answered, but not with usable data. Only overload answers (HTTP 429/5xx or a rate-limit
+ * payload) shrink the upstream's concurrency limit; client errors and error payloads do not.
+ */
+public class UpstreamResponseException extends IOException {
+
+    private final boolean overload;
+
+    public UpstreamResponseException(String message, boolean overload) {
+        super(message);
+        this.overload = overload;
+    }
+
+    public static UpstreamResponseException forStatus(String message, int status) {
+        return new UpstreamResponseException(message + ": HTTP " + status, status == 429 || status >= 500);
+    }
+
+    public boolean isOverload() {
+        return overload;
+    }
+}
@@ -0,0 +1,46 @@
+package com.stellarep.util;
+
+import org.stellar.sdk.StrKey;
+
+import java.util.HexFormat;
+
+public final class AddressCodec {
+
+    public static final int STELLAR_ACCOUNT_ID_BYTES = 32;
+    public static final int ETHEREUM_ADDRESS_BYTES = 20;
+
+    private static final HexFormat HEX = HexFormat.of();
+
+    private AddressCodec() {
+    }
+
+    public static byte[] decodeStellar(String accountId) {
+        return StrKey.decodeStellarAccountId(accountId);
+    }
+
+    public static String encodeStellar(byte[] publicKey) {
+        return StrKey.encodeStellarAccountId(publicKey);
+    }
+
+    public static boolean isStellarAccountId(String accountId) {
+        try {
+            decodeStellar(accountId);
+            return true;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    public static byte[] decodeEthereum(String address) {
+        String hex = address.startsWith("0x") || address.startsWith("0X") ? address.substring(2) : address;
+        byte[] bytes = HEX.parseHex(hex);
+        if (bytes.length != ETHEREUM_ADDRESS_BYTES) {
+            throw new IllegalArgumentException("Invalid Ethereum address length: " + address);
+        }
+        return bytes;
+    }
+
+    public static String encodeEthereum(byte[] address) {
+        return "0x" + HEX.formatHex(address);
+    }
+}
@@ -0,0 +1,143 @@
+package com.stellarep.workload;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToIntFunction;
+
+/**
+ * Weighted split of one resource between the lanes. Each lane reserves its guaranteed minimum plus
+ * {@code floor(share)} of the capacity left after all minimums; minimums are scaled down when they
+ * add up to more than the capacity. A lane is admitted while capacity is left after setting aside
+ * the unused reservations of every higher-priority lane and of every lower-priority lane that has
+ * work waiting: interactive work can take idle batch and background capacity, but bulk work never
+ * eats into the interactive reserve, and a waiting lower lane gets its own share back as borrowed
+ * units are released.
+ */
+public final class LaneShares {
+
+    private static final WorkloadLane[] LANES = WorkloadLane.values();
+
+    private final String resource;
+    private final double[] shares = new double[LANES.length];
+    private final int[] minimums = new int[LANES.length];
+    private final int totalMinimum;
+    private final Timer[] queueTimes = new Timer[LANES.length];
+    private final MeterRegistry meterRegistry;
+
+    public LaneShares(String resource, Map<WorkloadLane, Double> weights, MeterRegistry meterRegistry) {
+        this(resource, weights, Map.of(), meterRegistry);
+    }
+
+    public LaneShares(String resource, Map<WorkloadLane, Double> weights, Map<WorkloadLane, Integer> minimums,
+                      MeterRegistry meterRegistry) {
+        this.resource = resource;
+        this.meterRegistry = meterRegistry;
+        double total = 0;
+        for (WorkloadLane lane : LANES) {
+            total += Math.max(0, weights.getOrDefault(lane, 0.0));
+        }
+        int minimumSum = 0;
+        for (WorkloadLane lane : LANES) {
+            this.minimums[lane.ordinal()] = Math.max(0, minimums.getOrDefault(lane, 0));
+            minimumSum += this.minimums[lane.ordinal()];
+        }
+        this.totalMinimum = minimumSum;
+        for (WorkloadLane lane : LANES) {
+            shares[lane.ordinal()] = total > 0 ? Math.max(0, weights.getOrDefault(lane, 0.0)) / total : 0;
+            if (meterRegistry != null) {
+                queueTimes[lane.ordinal()] = Timer.builder("workload.queue.time")
+                        .tag("resource", resource)
+                        .tag("lane", lane.getConfigName())
+                        .publishPercentiles(0.5, 0.95, 0.99)
+                        .register(meterRegistry);
+            }
+        }
+    }
+
+    /**
+     * Shares from the lanes' default weights, without metrics.
+     */
+    public static LaneShares defaults(String resource) {
+        Map<WorkloadLane, Double> weights = new EnumMap<>(WorkloadLane.class);
+        for (WorkloadLane lane : LANES) {
+            weights.put(lane, lane.getDefaultWeight());
+        }
+        return new LaneShares(resource, weights, null);
+    }
+
+    public int reserved(WorkloadLane lane, int capacity) {
+        int guaranteed = Math.min(capacity, totalMinimum);
+        int minimum = totalMinimum > 0 ? minimums[lane.ordinal()] * guaranteed / totalMinimum : 0;
+        return minimum + (int) Math.floor((capacity - guaranteed) * shares[lane.ordinal()]);
+    }
+
+    /**
+     * Whether one more unit may go to {@code lane}, given the units in use and the number of waiters
+     * per lane (indexed by ordinal). Callers hold their own lock around the counts.
+     */
+    public boolean admits(WorkloadLane lane, int capacity, int[] inUse, int[] waiting) {
+        int used = 0;
+        for (int count : inUse) {
+            used += count;
+        }
+        if (used >= capacity) {
+            return false;
+        }
+        int setAside = 0;
+        for (WorkloadLane other : LANES) {
+            int index = other.ordinal();
+            if (other != lane && (other.ordinal() < lane.ordinal() || waiting[index] > 0)) {
+                setAside += Math.max(0, reserved(other, capacity) - inUse[index]);
+            }
+        }
+        return used + setAside < capacity;
+    }
+
+    /**
+     * Tokens a rate quota must keep back from {@code lane}: the higher lanes' share of the burst.
+     */
+    public double tokenReserve(WorkloadLane lane, double burst) {
+        double higher = 0;
+        for (WorkloadLane other : LANES) {
+            if (other.ordinal() < lane.ordinal()) {
+                higher += shares[other.ordinal()];
+            }
+        }
+        return Math.floor(burst * higher);
+    }
+
+    public void recordQueueTime(WorkloadLane lane, long nanos) {
+        Timer timer = queueTimes[lane.ordinal()];
+        if (timer != null) {
+            timer.record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Publishes {@code workload.inflight} and {@code workload.queued} per lane for the owner's counts.
+     */
+    public <T> void monitor(T owner, ToIntFunction<WorkloadLane> inUse, ToIntFunction<WorkloadLane> waiting) {
+        if (meterRegistry == null) {
+            return;
+        }
+        for (WorkloadLane lane : LANES) {
+            Gauge.builder("workload.inflight", owner, o -> inUse.applyAsInt(lane))
+                    .tag("resource", resource)
+                    .tag("lane", lane.getConfigName())
+                    .register(meterRegistry);
+            Gauge.builder("workload.queued", owner, o -> waiting.applyAsInt(lane))
+                    .tag("resource", resource)
+                    .tag("lane", lane.getConfigName())
+                    .register(meterRegistry);
+        }
+    }
+
+    public String getResource() {
+        return resource;
+    }
+}
@@ -0,0 +1,60 @@
+package com.stellarep.workload;
+
+import java.util.function.Supplier;
+
+/**
+ * The lane of the work running on the current thread. Threads that never entered a lane, such as
+ * scheduler threads, run as {@link WorkloadLane#BACKGROUND}.
+ */
+public final class WorkloadContext {
+
+    private static final ThreadLocal<WorkloadLane> LANE = new ThreadLocal<>();
+
+    private WorkloadContext() {
+    }
+
+    public static WorkloadLane current() {
+        WorkloadLane lane = LANE.get();
+        return lane != null ? lane : WorkloadLane.BACKGROUND;
+    }
+
+    public static void runIn(WorkloadLane lane, Runnable work) {
+        WorkloadLane previous = enter(lane);
+        try {
+            work.run();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    public static <T> T callIn(WorkloadLane lane, Supplier<T> work) {
+        WorkloadLane previous = enter(lane);
+        try {
+            return work.get();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    /**
+     * Binds {@code task} to the submitting thread's lane, for handing work to another thread.
+     */
+    public static Runnable wrap(Runnable task) {
+        WorkloadLane lane = current();
+        return () -> runIn(lane, task);
+    }
+
+    static WorkloadLane enter(WorkloadLane lane) {
+        WorkloadLane previous = LANE.get();
+        LANE.set(lane);
+        return previous;
+    }
+
+    static void restore(WorkloadLane previous) {
+        if (previous == null) {
+            LANE.remove();
+        } else {
+            LANE.set(previous);
+        }
+    }
+}
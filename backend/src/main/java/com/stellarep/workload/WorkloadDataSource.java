@@ -0,0 +1,145 @@
+package com.stellarep.workload;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Splits the connections of a pool between the lanes by {@link LaneShares}. A connection counts
+ * against the caller's lane from {@code getConnection} until it is closed; a caller whose lane is not
+ * admitted within {@code maxWaitMs} gets an {@link SQLTransientConnectionException}, like a pool
+ * timeout.
+ */
+public class WorkloadDataSource extends DelegatingDataSource {
+
+    private static final WorkloadLane[] LANES = WorkloadLane.values();
+
+    private final int connections;
+    private final long maxWaitMs;
+    private final LaneShares shares;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+    private final int[] inUse = new int[LANES.length];
+    private final int[] waiting = new int[LANES.length];
+
+    public WorkloadDataSource(DataSource target, int connections, long maxWaitMs, LaneShares shares) {
+        super(target);
+        this.connections = Math.max(1, connections);
+        this.maxWaitMs = maxWaitMs;
+        this.shares = shares;
+        shares.monitor(this, this::getInUse, this::getWaiting);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        WorkloadLane lane = acquire();
+        try {
+            return track(obtainTargetDataSource().getConnection(), lane);
+        } catch (SQLException | RuntimeException e) {
+            release(lane);
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        WorkloadLane lane = acquire();
+        try {
+            return track(obtainTargetDataSource().getConnection(username, password), lane);
+        } catch (SQLException | RuntimeException e) {
+            release(lane);
+            throw e;
+        }
+    }
+
+    private WorkloadLane acquire() throws SQLException {
+        WorkloadLane lane = WorkloadContext.current();
+        int index = lane.ordinal();
+        long queuedAt = System.nanoTime();
+        long remainingNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, maxWaitMs));
+        lock.lock();
+        waiting[index]++;
+        try {
+            while (!shares.admits(lane, connections, inUse, waiting)) {
+                if (remainingNanos <= 0) {
+                    released.signalAll();
+                    throw new SQLTransientConnectionException("No " + lane.getConfigName()
+                            + " connection available on " + shares.getResource() + " within " + maxWaitMs + " ms");
+                }
+                remainingNanos = released.awaitNanos(remainingNanos);
+            }
+            inUse[index]++;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            released.signalAll();
+            throw new SQLTransientConnectionException("Interrupted while waiting for a connection", e);
+        } finally {
+            waiting[index]--;
+            lock.unlock();
+        }
+        shares.recordQueueTime(lane, System.nanoTime() - queuedAt);
+        return lane;
+    }
+
+    private void release(WorkloadLane lane) {
+        lock.lock();
+        try {
+            inUse[lane.ordinal()]--;
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Connection track(Connection connection, WorkloadLane lane) {
+        AtomicBoolean closed = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                    String name = method.getName();
+                    if (name.equals("equals")) {
+                        return proxy == args[0];
+                    }
+                    if (name.equals("hashCode")) {
+                        return System.identityHashCode(proxy);
+                    }
+                    boolean releasing = name.equals("close") && closed.compareAndSet(false, true);
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    } finally {
+                        if (releasing) {
+                            release(lane);
+                        }
+                    }
+                });
+    }
+
+    public int getInUse(WorkloadLane lane) {
+        lock.lock();
+        try {
+            return inUse[lane.ordinal()];
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getWaiting(WorkloadLane lane) {
+        lock.lock();
+        try {
+            return waiting[lane.ordinal()];
+        } finally {
+            lock.unlock();
+        }
+    }
+}
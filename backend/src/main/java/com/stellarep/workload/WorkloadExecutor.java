@@ -0,0 +1,188 @@
+package com.stellarep.workload;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Executor whose worker slots are split between the lanes by {@link LaneShares}. Tasks queue per lane
+ * in submission order and are started highest lane first whenever their lane is admitted; each task
+ * runs in the lane of the thread that submitted it.
+ */
+public class WorkloadExecutor extends AbstractExecutorService {
+
+    private static final WorkloadLane[] LANES = WorkloadLane.values();
+
+    private final ExecutorService workers;
+    private final int slots;
+    private final LaneShares shares;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final List<ArrayDeque<QueuedTask>> queues = new ArrayList<>(LANES.length);
+    private final int[] running = new int[LANES.length];
+    private final int[] queued = new int[LANES.length];
+    private volatile boolean shutdown;
+
+    /**
+     * @param workers pool that runs admitted tasks; it never sees more than {@code slots} at once
+     */
+    public WorkloadExecutor(ExecutorService workers, int slots, LaneShares shares) {
+        this.workers = workers;
+        this.slots = Math.max(1, slots);
+        this.shares = shares;
+        for (int i = 0; i < LANES.length; i++) {
+            queues.add(new ArrayDeque<>());
+        }
+        shares.monitor(this, this::getRunning, this::getQueued);
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        WorkloadLane lane = WorkloadContext.current();
+        lock.lock();
+        try {
+            if (shutdown) {
+                throw new RejectedExecutionException("Executor for " + shares.getResource() + " is shut down");
+            }
+            queues.get(lane.ordinal()).add(new QueuedTask(lane, task, System.nanoTime()));
+            queued[lane.ordinal()]++;
+        } finally {
+            lock.unlock();
+        }
+        dispatch();
+    }
+
+    private void dispatch() {
+        while (true) {
+            QueuedTask next = null;
+            lock.lock();
+            try {
+                for (WorkloadLane lane : LANES) {
+                    int index = lane.ordinal();
+                    if (queued[index] > 0 && shares.admits(lane, slots, running, queued)) {
+                        next = queues.get(index).poll();
+                        queued[index]--;
+                        running[index]++;
+                        break;
+                    }
+                }
+                if (next == null) {
+                    if (shutdown && isIdle()) {
+                        workers.shutdown();
+                    }
+                    return;
+                }
+            } finally {
+                lock.unlock();
+            }
+            start(next);
+        }
+    }
+
+    private void start(QueuedTask task) {
+        shares.recordQueueTime(task.lane(), System.nanoTime() - task.queuedAt());
+        try {
+            workers.execute(() -> {
+                try {
+                    WorkloadContext.runIn(task.lane(), task.task());
+                } finally {
+                    finished(task.lane());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            finished(task.lane());
+        }
+    }
+
+    private void finished(WorkloadLane lane) {
+        lock.lock();
+        try {
+            running[lane.ordinal()]--;
+        } finally {
+            lock.unlock();
+        }
+        dispatch();
+    }
+
+    private boolean isIdle() {
+        for (int i = 0; i < LANES.length; i++) {
+            if (queued[i] > 0 || running[i] > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int getRunning(WorkloadLane lane) {
+        lock.lock();
+        try {
+            return running[lane.ordinal()];
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getQueued(WorkloadLane lane) {
+        lock.lock();
+        try {
+            return queued[lane.ordinal()];
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops accepting tasks; queued tasks still run, and the workers stop once the last one finishes.
+     */
+    @Override
+    public void shutdown() {
+        lock.lock();
+        try {
+            shutdown = true;
+        } finally {
+            lock.unlock();
+        }
+        dispatch();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        List<Runnable> pending = new ArrayList<>();
+        lock.lock();
+        try {
+            shutdown = true;
+            for (int i = 0; i < LANES.length; i++) {
+                queues.get(i).forEach(task -> pending.add(task.task()));
+                queues.get(i).clear();
+                queued[i] = 0;
+            }
+        } finally {
+            lock.unlock();
+        }
+        workers.shutdownNow();
+        return pending;
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return workers.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return workers.awaitTermination(timeout, unit);
+    }
+
+    private record QueuedTask(WorkloadLane lane, Runnable task, long queuedAt) {
+    }
+}
@@ -0,0 +1,27 @@
+package com.stellarep.workload;
+
+/**
+ * Priority classes competing for shared capacity, highest priority first. Weights are configured per
+ * resource kind under {@code app.workload.<kind>.<lane>}.
+ */
+public enum WorkloadLane {
+    INTERACTIVE("interactive", 6),
+    BATCH("batch", 3),
+    BACKGROUND("background", 1);
+
+    private final String configName;
+    private final double defaultWeight;
+
+    WorkloadLane(String configName, double defaultWeight) {
+        this.configName = configName;
+        this.defaultWeight = defaultWeight;
+    }
+
+    public String getConfigName() {
+        return configName;
+    }
+
+    public double getDefaultWeight() {
+        return defaultWeight;
+    }
+}
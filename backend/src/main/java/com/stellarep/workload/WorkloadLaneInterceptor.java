@@ -0,0 +1,51 @@
+package com.stellarep.workload;
+
+import com.stellarep.quota.ClientQuota;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+/**
+ * Runs each request in the lane of its {@link ClientQuota} tier; handlers without a tier are
+ * interactive.
+ */
+@Component
+public class WorkloadLaneInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String PREVIOUS_LANE = WorkloadLaneInterceptor.class.getName() + ".previous";
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        WorkloadLane lane = WorkloadLane.INTERACTIVE;
+        if (handler instanceof HandlerMethod handlerMethod) {
+            ClientQuota quota = handlerMethod.getMethodAnnotation(ClientQuota.class);
+            if (quota != null) {
+                lane = quota.value().getLane();
+            }
+        }
+        WorkloadLane previous = WorkloadContext.enter(lane);
+        if (previous != null) {
+            request.setAttribute(PREVIOUS_LANE, previous);
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        restore(request);
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        restore(request);
+    }
+
+    private static void restore(HttpServletRequest request) {
+        WorkloadContext.restore((WorkloadLane) request.getAttribute(PREVIOUS_LANE));
+        request.removeAttribute(PREVIOUS_LANE);
+    }
+}
@@ -0,0 +1,67 @@
+package com.stellarep.workload;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Builds the lane-aware wrappers for shared capacity: upstream permits ({@code upstream}), executor
+ * slots ({@code executor}) and database connections ({@code database}). Lane weights for each kind
+ * are read from {@code app.workload.<kind>.<lane>} and guaranteed minimums from
+ * {@code app.workload.<kind>.minimum.<lane>}.
+ */
+@Component
+@RequiredArgsConstructor
+public class WorkloadScheduler {
+
+    public static final String UPSTREAM = "upstream";
+    public static final String EXECUTOR = "executor";
+    public static final String DATABASE = "database";
+
+    @Value("${app.workload.database-max-wait-ms:30000}")
+    private long databaseMaxWaitMs;
+
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+
+    public LaneShares shares(String kind, String resource) {
+        return new LaneShares(kind + "." + resource, weights(kind), minimums(kind), meterRegistry);
+    }
+
+    /**
+     * Units guaranteed to each lane regardless of its weight, from
+     * {@code app.workload.<kind>.minimum.<lane>}.
+     */
+    public Map<WorkloadLane, Integer> minimums(String kind) {
+        Map<WorkloadLane, Integer> minimums = new EnumMap<>(WorkloadLane.class);
+        for (WorkloadLane lane : WorkloadLane.values()) {
+            minimums.put(lane, environment.getProperty(
+                    "app.workload." + kind + ".minimum." + lane.getConfigName(), Integer.class, 0));
+        }
+        return minimums;
+    }
+
+    public Map<WorkloadLane, Double> weights(String kind) {
+        Map<WorkloadLane, Double> weights = new EnumMap<>(WorkloadLane.class);
+        for (WorkloadLane lane : WorkloadLane.values()) {
+            weights.put(lane, environment.getProperty("app.workload." + kind + "." + lane.getConfigName(),
+                    Double.class, lane.getDefaultWeight()));
+        }
+        return weights;
+    }
+
+    public ExecutorService executor(String name, ExecutorService workers, int threads) {
+        return new WorkloadExecutor(workers, threads, shares(EXECUTOR, name));
+    }
+
+    public DataSource dataSource(String name, DataSource target, int connections) {
+        return new WorkloadDataSource(target, connections, databaseMaxWaitMs, shares(DATABASE, name));
+    }
+}
@@ -0,0 +1,51 @@
+-- Store addresses as fixed-width binary instead of text:
+--   stellar_address  VARCHAR(56) -> BYTEA (32-byte Ed25519 public key, strkey version byte and CRC dropped)
+--   ethereum_address VARCHAR(42) -> BYTEA (20 bytes)
+-- The UNIQUE constraint on stellar_address already provides the lookup index, so idx_stellar_address is dropped.
+
+CREATE OR REPLACE FUNCTION stellarep_decode_account_id(account_id TEXT) RETURNS BYTEA AS $$
+DECLARE
+    alphabet CONSTANT TEXT := 'ABCDEFGHIJKLMNOPQRSTUVWXYZ234567';
+    decoded BYTEA := '';
+    buffer BIGINT := 0;
+    bits INTEGER := 0;
+    digit INTEGER;
+BEGIN
+    IF length(account_id) <> 56 OR left(account_id, 1) <> 'G' THEN
+        RAISE EXCEPTION 'Invalid Stellar account ID: %', account_id;
+    END IF;
+    FOR i IN 1..56 LOOP
+        digit := strpos(alphabet, substr(account_id, i, 1)) - 1;
+        IF digit < 0 THEN
+            RAISE EXCEPTION 'Invalid Stellar account ID: %', account_id;
+        END IF;
+        buffer := (buffer << 5) | digit;
+        bits := bits + 5;
+        IF bits >= 8 THEN
+            bits := bits - 8;
+            decoded := decoded || set_byte('\x00'::BYTEA, 0, ((buffer >> bits) & 255)::INTEGER);
+            buffer := buffer & ((1::BIGINT << bits) - 1);
+        END IF;
+    END LOOP;
+    -- 35 bytes: version byte, 32-byte public key, 2-byte CRC16
+    RETURN substr(decoded, 2, 32);
+END;
+$$ LANGUAGE plpgsql IMMUTABLE STRICT;
+
+DROP INDEX IF EXISTS idx_stellar_address;
+
+ALTER TABLE wallet_scores
+    ALTER COLUMN stellar_address TYPE BYTEA USING stellarep_decode_account_id(stellar_address),
+    ALTER COLUMN ethereum_address TYPE BYTEA USING
+        CASE
+            WHEN ethereum_address ~ '^0[xX][0-9a-fA-F]{40}$' THEN decode(substr(ethereum_address, 3), 'hex')
+        END;
+
+ALTER TABLE wallet_scores
+    ADD CONSTRAINT chk_stellar_address_length CHECK (octet_length(stellar_address) = 32),
+    ADD CONSTRAINT chk_ethereum_address_length CHECK (ethereum_address IS NULL OR octet_length(ethereum_address) = 20);
+
+-- Keyset scans on (updated_at, id) used by the score read store sync.
+CREATE INDEX IF NOT EXISTS idx_wallet_scores_updated_at ON wallet_scores(updated_at, id);
+
+DROP FUNCTION stellarep_decode_account_id(TEXT);
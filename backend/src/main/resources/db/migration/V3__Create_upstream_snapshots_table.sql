@@ -0,0 +1,17 @@
+-- Raw Horizon and Etherscan responses, zstd-compressed, kept so features can be re-derived without refetching.
+CREATE TABLE IF NOT EXISTS upstream_snapshots (
+    id BIGSERIAL PRIMARY KEY,
+    chain VARCHAR(32) NOT NULL,
+    address BYTEA NOT NULL,
+    endpoint VARCHAR(512) NOT NULL,
+    fetched_at TIMESTAMP NOT NULL,
+    status INTEGER NOT NULL,
+    raw_size INTEGER NOT NULL,
+    payload BYTEA NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_upstream_snapshots_key ON upstream_snapshots(chain, address, endpoint, fetched_at DESC);
+CREATE INDEX IF NOT EXISTS idx_upstream_snapshots_fetched_at ON upstream_snapshots(fetched_at);
+
+-- Payloads are already compressed; skip TOAST's own pglz pass.
+ALTER TABLE upstream_snapshots ALTER COLUMN payload SET STORAGE EXTERNAL;
@@ -0,0 +1,13 @@
+-- Per-wallet activity sketches (HyperLogLog of counterparties, KLL of native payment amounts,
+-- Roaring bitmap of active days). paging_cursor is the Horizon paging token of the last folded operation.
+CREATE TABLE IF NOT EXISTS wallet_sketches (
+    stellar_address BYTEA PRIMARY KEY,
+    counterparties BYTEA NOT NULL,
+    payment_amounts BYTEA NOT NULL,
+    active_days BYTEA NOT NULL,
+    payment_volume DOUBLE PRECISION NOT NULL DEFAULT 0,
+    operation_count BIGINT NOT NULL DEFAULT 0,
+    paging_cursor VARCHAR(64),
+    updated_at TIMESTAMP NOT NULL,
+    CONSTRAINT chk_wallet_sketches_address_length CHECK (octet_length(stellar_address) = 32)
+);
@@ -0,0 +1,2 @@
+-- Last total score written to the Soroban contract, so unchanged scores are not republished.
+ALTER TABLE wallet_scores ADD COLUMN IF NOT EXISTS published_score INTEGER;
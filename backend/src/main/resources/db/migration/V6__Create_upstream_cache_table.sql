@@ -0,0 +1,12 @@
+-- Shared (L2) tier of the upstream data cache. payload is the JSON-encoded value; immutable rows
+-- (e.g. first-transaction timestamps) are never overwritten or evicted.
+CREATE TABLE IF NOT EXISTS upstream_cache (
+    data_type VARCHAR(32) NOT NULL,
+    cache_key VARCHAR(128) NOT NULL,
+    payload TEXT NOT NULL,
+    fetched_at TIMESTAMP NOT NULL,
+    immutable BOOLEAN NOT NULL DEFAULT FALSE,
+    PRIMARY KEY (data_type, cache_key)
+);
+
+CREATE INDEX IF NOT EXISTS idx_upstream_cache_expiry ON upstream_cache (data_type, fetched_at) WHERE NOT immutable;
@@ -0,0 +1,22 @@
+-- Deleted wallet_scores rows, so per-instance read stores can drop them on their next sync.
+-- updated_at is the deleted row's own updated_at: a store only drops an entry that is not newer.
+CREATE TABLE IF NOT EXISTS wallet_score_deletions (
+    id BIGSERIAL PRIMARY KEY,
+    stellar_address BYTEA NOT NULL,
+    updated_at TIMESTAMP NOT NULL,
+    deleted_at TIMESTAMP NOT NULL DEFAULT LOCALTIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_wallet_score_deletions_deleted_at ON wallet_score_deletions (deleted_at, id);
+
+CREATE OR REPLACE FUNCTION record_wallet_score_deletion() RETURNS TRIGGER AS $$
+BEGIN
+    INSERT INTO wallet_score_deletions (stellar_address, updated_at) VALUES (OLD.stellar_address, OLD.updated_at);
+    RETURN OLD;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_wallet_scores_deleted ON wallet_scores;
+CREATE TRIGGER trg_wallet_scores_deleted
+    AFTER DELETE ON wallet_scores
+    FOR EACH ROW EXECUTE FUNCTION record_wallet_score_deletion();
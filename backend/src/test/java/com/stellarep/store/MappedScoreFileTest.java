@@ -0,0 +1,215 @@
+package com.stellarep.store;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.stellarep.store.MappedScoreFile.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedScoreFileTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void insertsAndReadsBack() throws Exception {
+        try (MappedScoreFile file = MappedScoreFile.open(dir.resolve("scores.dat"), 1024)) {
+            byte[] key = key(1);
+            assertTrue(file.write(key, record(key, 700, 1000)));
+
+            byte[] target = new byte[RECORD_SIZE];
+            long slot = file.find(key);
+            assertTrue(slot >= 0);
+            assertTrue(file.read(slot, key, target));
+            assertEquals(700, score(target));
+            assertEquals(1, file.count());
+            assertTrue(file.find(key(2)) < 0);
+        }
+    }
+
+    @Test
+    void updatesOnlyWithNewerRecords() throws Exception {
+        try (MappedScoreFile file = MappedScoreFile.open(dir.resolve("scores.dat"), 1024)) {
+            byte[] key = key(1);
+            file.write(key, record(key, 700, 1000));
+            file.write(key, record(key, 500, 900));
+            file.write(key, record(key, 600, 1000));
+            assertEquals(700, readScore(file, key));
+
+            file.write(key, record(key, 800, 1001));
+            assertEquals(800, readScore(file, key));
+            assertEquals(1, file.count());
+        }
+    }
+
+    @Test
+    void deleteLeavesTombstoneThatOnlyNewerWritesRevive() throws Exception {
+        try (MappedScoreFile file = MappedScoreFile.open(dir.resolve("scores.dat"), 1024)) {
+            byte[] key = key(1);
+            file.write(key, record(key, 700, 1000));
+
+            file.delete(key, 999);
+            assertEquals(700, readScore(file, key), "a delete older than the record is ignored");
+
+            file.delete(key, 1000);
+            assertEquals(-1, readScore(file, key));
+            assertEquals(1, file.tombstones());
+            assertEquals(0, file.liveCount());
+
+            file.write(key, record(key, 500, 1000));
+            assertEquals(-1, readScore(file, key), "a write no newer than the delete stays deleted");
+
+            file.write(key, record(key, 500, 1001));
+            assertEquals(500, readScore(file, key));
+            assertEquals(0, file.tombstones());
+        }
+    }
+
+    @Test
+    void reopensAfterCleanClose() throws Exception {
+        Path path = dir.resolve("scores.dat");
+        try (MappedScoreFile file = MappedScoreFile.open(path, 1024)) {
+            assertTrue(file.wasReset());
+            for (int i = 0; i < 100; i++) {
+                file.write(key(i), record(key(i), i, 1000));
+            }
+            file.delete(key(7), 1000);
+            file.setWatermark(1234);
+        }
+
+        try (MappedScoreFile file = MappedScoreFile.open(path, 4096)) {
+            assertFalse(file.wasReset());
+            assertEquals(1024, file.capacity(), "a clean file is reused at its own capacity");
+            assertEquals(1234, file.watermark());
+            assertEquals(99, file.liveCount());
+            assertEquals(42, readScore(file, key(42)));
+            assertEquals(-1, readScore(file, key(7)));
+        }
+    }
+
+    @Test
+    void resetsAfterUncleanShutdown() throws Exception {
+        Path path = dir.resolve("scores.dat");
+        MappedScoreFile crashed = MappedScoreFile.open(path, 1024);
+        crashed.write(key(1), record(key(1), 700, 1000));
+        crashed.flush();
+
+        try (MappedScoreFile file = MappedScoreFile.open(path, 1024)) {
+            assertTrue(file.wasReset());
+            assertEquals(0, file.count());
+            assertEquals(-1, readScore(file, key(1)));
+        } finally {
+            crashed.discard();
+        }
+    }
+
+    @Test
+    void rejectsInsertsPastLoadFactorAndCopiesLiveRecordsIntoLargerFile() throws Exception {
+        try (MappedScoreFile file = MappedScoreFile.open(dir.resolve("scores.dat"), 1024)) {
+            int inserted = 0;
+            while (file.write(key(inserted), record(key(inserted), inserted, 1000))) {
+                inserted++;
+            }
+            assertEquals((long) (1024 * MAX_LOAD_FACTOR), inserted);
+            assertFalse(file.hasRoom());
+            file.delete(key(0), 1000);
+
+            try (MappedScoreFile larger = MappedScoreFile.create(dir.resolve("scores.next"), 4096)) {
+                assertTrue(file.copyTo(larger));
+                assertEquals(inserted - 1, larger.count());
+                assertEquals(0, larger.tombstones());
+                assertEquals(-1, readScore(larger, key(0)));
+                assertEquals(inserted - 1, readScore(larger, key(inserted - 1)));
+                assertTrue(larger.write(key(inserted), record(key(inserted), 1, 1000)));
+            }
+        }
+    }
+
+    @Test
+    void readersNeverSeeTornRecordsWhileOneThreadWrites() throws Exception {
+        int keys = 64;
+        try (MappedScoreFile file = MappedScoreFile.open(dir.resolve("scores.dat"), 1024)) {
+            for (int i = 0; i < keys; i++) {
+                file.write(key(i), record(key(i), 1, 1));
+            }
+            AtomicBoolean done = new AtomicBoolean();
+            AtomicReference<String> failure = new AtomicReference<>();
+            List<Thread> readers = new ArrayList<>();
+            for (int r = 0; r < 4; r++) {
+                Thread reader = new Thread(() -> {
+                    byte[] target = new byte[RECORD_SIZE];
+                    long[] lastSeen = new long[keys];
+                    while (!done.get() && failure.get() == null) {
+                        for (int i = 0; i < keys; i++) {
+                            byte[] key = key(i);
+                            long slot = file.find(key);
+                            if (slot < 0 || !file.read(slot, key, target)) {
+                                failure.set("key " + i + " disappeared");
+                                return;
+                            }
+                            ByteBuffer buffer = ByteBuffer.wrap(target).order(ByteOrder.nativeOrder());
+                            long updatedAt = buffer.getLong(R_UPDATED_AT);
+                            if (buffer.getInt(R_TOTAL_SCORE) != (int) updatedAt
+                                    || buffer.getLong(R_TRANSACTION_COUNT) != updatedAt) {
+                                failure.set("torn read of key " + i + " at " + updatedAt);
+                                return;
+                            }
+                            if (updatedAt < lastSeen[i]) {
+                                failure.set("key " + i + " went back from " + lastSeen[i] + " to " + updatedAt);
+                                return;
+                            }
+                            lastSeen[i] = updatedAt;
+                        }
+                    }
+                });
+                reader.start();
+                readers.add(reader);
+            }
+
+            for (long version = 2; version < 20_000 && failure.get() == null; version++) {
+                for (int i = 0; i < keys; i++) {
+                    file.write(key(i), record(key(i), (int) version, version));
+                }
+            }
+            done.set(true);
+            for (Thread reader : readers) {
+                reader.join();
+            }
+            assertNull(failure.get());
+        }
+    }
+
+    private static byte[] key(int id) {
+        byte[] key = new byte[KEY_SIZE];
+        ByteBuffer.wrap(key).putInt(0, id * 0x9E3779B1).putInt(KEY_SIZE - 4, id);
+        return key;
+    }
+
+    private static byte[] record(byte[] key, int score, long updatedAt) {
+        byte[] record = new byte[RECORD_SIZE];
+        ByteBuffer buffer = ByteBuffer.wrap(record).order(ByteOrder.nativeOrder());
+        buffer.put(R_KEY, key);
+        buffer.putInt(R_TOTAL_SCORE, score);
+        buffer.putLong(R_TRANSACTION_COUNT, updatedAt);
+        buffer.putLong(R_UPDATED_AT, updatedAt);
+        return record;
+    }
+
+    private static int score(byte[] record) {
+        return ByteBuffer.wrap(record).order(ByteOrder.nativeOrder()).getInt(R_TOTAL_SCORE);
+    }
+
+    private static int readScore(MappedScoreFile file, byte[] key) {
+        byte[] target = new byte[RECORD_SIZE];
+        long slot = file.find(key);
+        return slot >= 0 && file.read(slot, key, target) ? score(target) : -1;
+    }
+}
@@ -0,0 +1,4 @@
+#!/bin/sh
+# Lets the replica service stream WAL from this instance. Only runs when the data volume is first initialised.
+set -e
+echo "host replication all all scram-sha-256" >> "$PGDATA/pg_hba.conf"
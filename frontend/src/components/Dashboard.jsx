@@ -1,6 +1,6 @@
 import { useState, useEffect } from 'react'
 import { TrendingUp, Clock, DollarSign, Activity, LogOut, CheckCircle2, XCircle } from 'lucide-react'
-import { calculateReputation, getReputation } from '../services/api'
+import { calculateReputation, getReputation, subscribeToReputation } from '../services/api'
 import ScoreDisplay from './ScoreDisplay'
 import ScoreBreakdown from './ScoreBreakdown'
 import LoadingSpinner from './LoadingSpinner'
@@ -17,6 +17,11 @@ function Dashboard({ stellarAddress, ethereumAddress, chainData, onDisconnect })
     }
   }, [stellarAddress])
 
+  useEffect(() => {
+    if (!stellarAddress) return
+    return subscribeToReputation([stellarAddress], setScoreData)
+  }, [stellarAddress])
+
   const loadReputation = async () => {
     try {
       setIsLoading(true)
@@ -23,4 +23,12 @@ export const getReputation = async (stellarAddress) => {
   return response.data
 }
 
+export const subscribeToReputation = (stellarAddresses, onScore) => {
+  const params = new URLSearchParams()
+  stellarAddresses.forEach((address) => params.append('addresses', address))
+  const source = new EventSource(`${API_BASE_URL}/reputation/stream?${params}`)
+  source.addEventListener('score', (event) => onScore(JSON.parse(event.data)))
+  return () => source.close()
+}
+
 export default api